@@ -0,0 +1,122 @@
+package br.ufpe.cin.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+
+import br.ufpe.cin.app.JFSTMerge;
+import br.ufpe.cin.logging.LoggerStatistics;
+
+/**
+ * Merge scenarios used as benchmark fixtures. A scenario is identified by:
+ * <ul>
+ * <li>the name of a folder of <i>testfiles</i>, as <i>renamingmethodleftconf</i> or <i>nereomethodmethod</i>;</li>
+ * <li><i>big</i>, the largest file of the <i>testfiles/shelltests/big</i> project;</li>
+ * <li><i>synthetic-N</i>, a generated class with N methods, see {@link SyntheticScenarioGenerator}.</li>
+ * </ul>
+ * Paths are relative to the project folder, the working directory of the <i>jmh</i> gradle task.
+ */
+public final class BenchmarkFixtures {
+
+	public static final String TESTFILES = "testfiles";
+
+	public static final String BIG_PROJECT = TESTFILES + File.separator + "shelltests" + File.separator + "big";
+
+	private static final String BIG_FILE = "src/main/java/com/pa/extractor/XMLExtractor.java";
+
+	private static final String SYNTHETIC = "synthetic-";
+
+	//temporary folders of the fixtures, deleted by cleanUp()
+	private static final List<File> TEMPORARY_FOLDERS = new ArrayList<File>();
+
+	private static String userHome = null;
+
+	/**
+	 * Returns the left, base and right files of the given scenario.
+	 * @param scenario name
+	 * @return array with left, base and right files
+	 * @throws IOException in case the synthetic scenario cannot be generated
+	 */
+	public static File[] files(String scenario) throws IOException {
+		if (scenario.startsWith(SYNTHETIC)) {
+			int numberOfMethods = Integer.parseInt(scenario.substring(SYNTHETIC.length()));
+			return SyntheticScenarioGenerator.generate(numberOfMethods, temporaryFolder("jfstmerge-bench"));
+		} else if (scenario.equals("big")) {
+			return new File[] {
+					new File(BIG_PROJECT, "bigleft" + File.separator + BIG_FILE),
+					new File(BIG_PROJECT, "biginitial" + File.separator + BIG_FILE),
+					new File(BIG_PROJECT, "bigright" + File.separator + BIG_FILE) };
+		} else {
+			File folder = new File(TESTFILES, scenario);
+			return new File[] { find(folder, "left"), find(folder, "base"), find(folder, "right") };
+		}
+	}
+
+	/**
+	 * Testfiles scenarios keep each version either as <i>left.java</i>, <i>left/Test.java</i>,
+	 * or <i>left/Test/src/Test.java</i> when the version is a whole project.
+	 */
+	private static File find(File folder, String version) {
+		String[] candidates = {
+				version + ".java",
+				version + File.separator + "Test.java",
+				version + File.separator + "Test" + File.separator + "src" + File.separator + "Test.java" };
+		for (String candidate : candidates) {
+			File file = new File(folder, candidate);
+			if (file.isFile()) {
+				return file;
+			}
+		}
+		throw new IllegalArgumentException("No " + version + " version in scenario " + folder.getPath());
+	}
+
+	/**
+	 * Points the user home to a temporary folder, so the statistics and logs written by merges
+	 * (<i>.jfstmerge</i> folder) do not pile up in the logs of the user. Must be called before merges,
+	 * as loggers keep the paths of their logs once loaded.
+	 * @throws IOException in case the temporary folder cannot be created
+	 */
+	public static void useTemporaryHome() throws IOException {
+		userHome = System.getProperty("user.home");
+		System.setProperty("user.home", temporaryFolder("jfstmerge-bench-home").getAbsolutePath());
+	}
+
+	/**
+	 * Deletes the temporary folders of the fixtures, and restores the user home,
+	 * once the statistics logged by the merges are written to the temporary home.
+	 */
+	public static void cleanUp() {
+		LoggerStatistics.flush();
+		if (userHome != null) {
+			System.setProperty("user.home", userHome);
+			userHome = null;
+		}
+		for (File folder : TEMPORARY_FOLDERS) {
+			FileUtils.deleteQuietly(folder);
+		}
+		TEMPORARY_FOLDERS.clear();
+	}
+
+	private static File temporaryFolder(String prefix) throws IOException {
+		File folder = Files.createTempDirectory(prefix).toFile();
+		TEMPORARY_FOLDERS.add(folder);
+		return folder;
+	}
+
+	/**
+	 * Avoids measuring console output: merged files are not printed, as when merging from git,
+	 * and the remaining progress messages are discarded.
+	 */
+	public static void silence() {
+		JFSTMerge.isGit = true;
+		System.setOut(new PrintStream(new OutputStream() {
+			public void write(int b) {}
+		}));
+	}
+}
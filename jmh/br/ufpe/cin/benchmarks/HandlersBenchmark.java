@@ -0,0 +1,128 @@
+package br.ufpe.cin.benchmarks;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.ufpe.cin.mergers.MergeSteps;
+import br.ufpe.cin.mergers.handlers.ConflictsHandler;
+import br.ufpe.cin.mergers.handlers.DeletionsHandler;
+import br.ufpe.cin.mergers.handlers.DuplicatedDeclarationHandler;
+import br.ufpe.cin.mergers.handlers.InitializationBlocksHandler;
+import br.ufpe.cin.mergers.handlers.NewElementReferencingEditedOneHandler;
+import br.ufpe.cin.mergers.handlers.RenamingOrDeletionConflictsHandler;
+import br.ufpe.cin.mergers.handlers.TypeAmbiguityErrorHandler;
+import br.ufpe.cin.mergers.util.MergeContext;
+import de.ovgu.cide.fstgen.ast.FSTNode;
+import de.ovgu.cide.fstgen.ast.FSTTerminal;
+
+/**
+ * Each conflicts handler alone, and all of them as run by {@link ConflictsHandler}.
+ * Handlers change the merge context, so every invocation handles a context freshly merged from the parsed trees.
+ * The default scenarios exercise, in order, type ambiguity errors, new elements referencing edited ones,
+ * renamings, initialization blocks, deletions and duplicated declarations. Select one with <i>-p scenario=name</i>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HandlersBenchmark {
+
+	@Param({"importpackagemember", "nereomethodmethod", "renamingmethodleftconf", "initlblocksthreeversions", "deletioninnerinleft", "duplicationsnoconflict", "synthetic-2000"})
+	public String scenario;
+
+	private ParsedScenario parsed;
+
+	private MergeContext context;
+
+	@Setup
+	public void setUp() throws Exception {
+		BenchmarkFixtures.silence();
+		parsed = ParsedScenario.of(scenario);
+	}
+
+	@Setup(Level.Invocation)
+	public void mergeTrees() throws Exception {
+		context = MergeSteps.beforeConflictsHandler(parsed.files, parsed.trees);
+	}
+
+	@TearDown
+	public void tearDown() {
+		BenchmarkFixtures.cleanUp();
+	}
+
+	@Benchmark
+	public MergeContext typeAmbiguityError() throws Exception {
+		TypeAmbiguityErrorHandler.handle(context, importStatements(context.addedLeftNodes), importStatements(context.addedRightNodes));
+		return context;
+	}
+
+	@Benchmark
+	public MergeContext newElementReferencingEditedOne() throws Exception {
+		NewElementReferencingEditedOneHandler.handle(context);
+		return context;
+	}
+
+	@Benchmark
+	public MergeContext renamingOrDeletion() throws Exception {
+		RenamingOrDeletionConflictsHandler.handle(context);
+		return context;
+	}
+
+	@Benchmark
+	public MergeContext initializationBlocks() throws Exception {
+		InitializationBlocksHandler.handle(context, initializationBlocks(context.addedLeftNodes),
+				initializationBlocks(context.deletedBaseNodes), initializationBlocks(context.addedRightNodes));
+		return context;
+	}
+
+	@Benchmark
+	public MergeContext deletions() {
+		DeletionsHandler.handle(context);
+		return context;
+	}
+
+	@Benchmark
+	public MergeContext duplicatedDeclaration() throws Exception {
+		DuplicatedDeclarationHandler.handle(context);
+		return context;
+	}
+
+	@Benchmark
+	public MergeContext allHandlers() throws Exception {
+		ConflictsHandler.handle(context);
+		return context;
+	}
+
+	private static LinkedList<FSTNode> importStatements(Iterable<FSTNode> nodes) {
+		LinkedList<FSTNode> imports = new LinkedList<FSTNode>();
+		for (FSTNode node : nodes) {
+			if ((node instanceof FSTTerminal) && node.getType().contains("ImportDeclaration")) {
+				imports.add(node);
+			}
+		}
+		return imports;
+	}
+
+	private static List<FSTNode> initializationBlocks(Set<FSTNode> nodes) {
+		return nodes.stream().filter(p -> p.getType().equals("InitializerDecl")).collect(Collectors.toList());
+	}
+}
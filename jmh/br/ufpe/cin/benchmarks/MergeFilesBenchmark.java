@@ -0,0 +1,70 @@
+package br.ufpe.cin.benchmarks;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.ufpe.cin.app.JFSTMerge;
+import br.ufpe.cin.files.FilesTuple;
+import br.ufpe.cin.mergers.util.MergeContext;
+
+/**
+ * End-to-end merges, as invoked from the command line: files of each scenario,
+ * and the directories of the <i>testfiles/shelltests/big</i> project.
+ * Both the default and the production merge profiles are measured.
+ * Statistics are logged as usual, to the <i>.jfstmerge</i> folder of a temporary user home.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MergeFilesBenchmark {
+
+	@Param({"renamingmethodleftconf", "nereomethodmethod", "importpackagemember", "big", "synthetic-2000"})
+	public String scenario;
+
+	@Param({"false", "true"})
+	public boolean production;
+
+	private File[] files;
+
+	@Setup
+	public void setUp() throws Exception {
+		BenchmarkFixtures.useTemporaryHome();
+		BenchmarkFixtures.silence();
+		JFSTMerge.isProduction = production;
+		files = BenchmarkFixtures.files(scenario);
+	}
+
+	@TearDown
+	public void tearDown() {
+		JFSTMerge.isProduction = false;
+		BenchmarkFixtures.cleanUp();
+	}
+
+	@Benchmark
+	public MergeContext mergeFiles() throws Exception {
+		return new JFSTMerge().mergeFiles(files[0], files[1], files[2], null);
+	}
+
+	@Benchmark
+	public List<FilesTuple> mergeBigProject() throws Exception {
+		String big = BenchmarkFixtures.BIG_PROJECT + File.separator;
+		return new JFSTMerge().mergeDirectories(big + "bigleft", big + "biginitial", big + "bigright", null);
+	}
+}
@@ -0,0 +1,41 @@
+package br.ufpe.cin.benchmarks;
+
+import java.io.File;
+
+import br.ufpe.cin.files.FileContent;
+import br.ufpe.cin.parser.JParser;
+import de.ovgu.cide.fstgen.ast.FSTNode;
+
+/**
+ * Files, contents and parsed trees of a benchmark scenario (left, base and right, in this order).
+ */
+public final class ParsedScenario {
+
+	public final File[] files;
+	public final FileContent[] contents = new FileContent[3];
+	public final FSTNode[] trees = new FSTNode[3];
+
+	private ParsedScenario(File[] files) {
+		this.files = files;
+	}
+
+	/**
+	 * Reads and parses the files of the given scenario, see {@link BenchmarkFixtures#files(String)}.
+	 * @param scenario name
+	 * @return parsed scenario
+	 * @throws Exception in case the files cannot be read or parsed
+	 */
+	public static ParsedScenario of(String scenario) throws Exception {
+		ParsedScenario parsed = new ParsedScenario(BenchmarkFixtures.files(scenario));
+		JParser parser = new JParser();
+		for (int i = 0; i < 3; i++) {
+			parsed.contents[i] = FileContent.read(parsed.files[i]);
+			parsed.trees[i] = parser.parse(parsed.files[i], parsed.contents[i]);
+		}
+		return parsed;
+	}
+
+	public String getText(int version) {
+		return contents[version].getText();
+	}
+}
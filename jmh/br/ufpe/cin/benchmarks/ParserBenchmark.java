@@ -0,0 +1,56 @@
+package br.ufpe.cin.benchmarks;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.ufpe.cin.files.FileContent;
+import br.ufpe.cin.parser.JParser;
+import de.ovgu.cide.fstgen.ast.FSTNode;
+
+/**
+ * Parsing of the left version of each scenario, from content already read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParserBenchmark {
+
+	@Param({"renamingmethodleftconf", "nereomethodmethod", "importpackagemember", "big", "synthetic-2000"})
+	public String scenario;
+
+	private File file;
+	private FileContent content;
+
+	@Setup
+	public void setUp() throws Exception {
+		BenchmarkFixtures.silence();
+		file = BenchmarkFixtures.files(scenario)[0];
+		content = FileContent.read(file);
+	}
+
+	@TearDown
+	public void tearDown() {
+		BenchmarkFixtures.cleanUp();
+	}
+
+	@Benchmark
+	public FSTNode parse() throws Exception {
+		return new JParser().parse(file, content);
+	}
+}
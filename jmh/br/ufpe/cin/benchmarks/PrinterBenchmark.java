@@ -0,0 +1,72 @@
+package br.ufpe.cin.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.ufpe.cin.files.FilesManager;
+import br.ufpe.cin.mergers.MergeSteps;
+import br.ufpe.cin.mergers.SemistructuredMerge;
+import br.ufpe.cin.printers.Prettyprinter;
+import br.ufpe.cin.printers.SourceLayout;
+import de.ovgu.cide.fstgen.ast.FSTNode;
+
+/**
+ * Printing of the merged tree and reindentation of the printed code, the last steps of the semistructured merge.
+ * The reindentation with the layout of the merged files is compared with the former pretty printing of the code parsed again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PrinterBenchmark {
+
+	@Param({"renamingmethodleftconf", "nereomethodmethod", "big", "synthetic-2000"})
+	public String scenario;
+
+	private FSTNode mergedTree;
+	private String printedCode;
+	private String[] sources;
+
+	@Setup
+	public void setUp() throws Exception {
+		BenchmarkFixtures.silence();
+		ParsedScenario parsed = ParsedScenario.of(scenario);
+		mergedTree  = MergeSteps.mergeTrees(new SemistructuredMerge(), parsed.trees[0], parsed.trees[1], parsed.trees[2], null).superImposedTree;
+		printedCode = Prettyprinter.print(mergedTree);
+		sources     = new String[] {parsed.getText(0), parsed.getText(1), parsed.getText(2)};
+	}
+
+	@TearDown
+	public void tearDown() {
+		BenchmarkFixtures.cleanUp();
+	}
+
+	@Benchmark
+	public String print() {
+		return Prettyprinter.print(mergedTree);
+	}
+
+	@Benchmark
+	public String indentCode() {
+		return FilesManager.indentCode(printedCode);
+	}
+
+	@Benchmark
+	public String indentWithSourceLayout() {
+		return SourceLayout.of(sources).indent(printedCode);
+	}
+}
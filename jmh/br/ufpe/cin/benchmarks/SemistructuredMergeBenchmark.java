@@ -0,0 +1,60 @@
+package br.ufpe.cin.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.ufpe.cin.mergers.MergeSteps;
+import br.ufpe.cin.mergers.SemistructuredMerge;
+import br.ufpe.cin.mergers.util.MergeContext;
+import de.ovgu.cide.fstgen.ast.FSTNode;
+
+/**
+ * Tree merge steps of the semistructured merge, from already parsed trees:
+ * superimposition alone, and superimposition followed by the textual merge of matched nodes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SemistructuredMergeBenchmark {
+
+	@Param({"renamingmethodleftconf", "nereomethodmethod", "initlblocksthreeversions", "big", "synthetic-2000"})
+	public String scenario;
+
+	private ParsedScenario parsed;
+
+	@Setup
+	public void setUp() throws Exception {
+		BenchmarkFixtures.silence();
+		parsed = ParsedScenario.of(scenario);
+	}
+
+	@TearDown
+	public void tearDown() {
+		BenchmarkFixtures.cleanUp();
+	}
+
+	@Benchmark
+	public FSTNode superimpose() {
+		return MergeSteps.superimpose(new SemistructuredMerge(), parsed.trees[0], parsed.trees[1], parsed.trees[2]);
+	}
+
+	@Benchmark
+	public MergeContext mergeTrees() throws Exception {
+		return MergeSteps.mergeTrees(new SemistructuredMerge(), parsed.trees[0], parsed.trees[1], parsed.trees[2], null);
+	}
+}
@@ -0,0 +1,108 @@
+package br.ufpe.cin.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.ufpe.cin.files.FilesManager;
+
+/**
+ * Similarity between the contents of long methods, as computed by the renaming and the initialization blocks handlers
+ * for every pair of candidate nodes of large classes: a base method against its renamed version (similar),
+ * and against another method of the class (not similar).
+ * The full Levenshtein distance is compared with the distance bounded by the 0.7 threshold of the handlers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SimilarityBenchmark {
+
+	private static final double THRESHOLD = 0.7;
+
+	@Param({"20", "100", "400"})
+	public int statements;
+
+	private String baseMethod;
+	private String renamedMethod;
+	private String otherMethod;
+
+	@Setup
+	public void setUp() {
+		baseMethod    = method("compute", statements, 0, 0);
+		renamedMethod = method("calculate", statements, 0, 10); //renamed, with one in ten statements edited
+		otherMethod   = method("process", statements, 1, 0);
+	}
+
+	@Benchmark
+	public double fullSimilar() {
+		return FilesManager.computeStringSimilarity(baseMethod, renamedMethod);
+	}
+
+	@Benchmark
+	public double boundedSimilar() {
+		return FilesManager.computeStringSimilarity(baseMethod, renamedMethod, THRESHOLD);
+	}
+
+	@Benchmark
+	public double fullNotSimilar() {
+		return FilesManager.computeStringSimilarity(baseMethod, otherMethod);
+	}
+
+	@Benchmark
+	public double boundedNotSimilar() {
+		return FilesManager.computeStringSimilarity(baseMethod, otherMethod, THRESHOLD);
+	}
+
+	/**
+	 * Generates a method with the given number of statements. Different seeds give methods with different statements,
+	 * and, if editInterval is positive, one in editInterval statements is edited.
+	 */
+	private static String method(String name, int statements, int seed, int editInterval) {
+		StringBuilder code = new StringBuilder();
+		code.append("public int ").append(name).append("(int value, java.util.List<String> items) {\n");
+		for (int i = 0; i < statements; i++) {
+			int k = i * 31 + seed * 17;
+			boolean edited = editInterval > 0 && i % editInterval == 0;
+			switch ((k + seed) % 4 + 4 * seed) {
+			case 0:
+				code.append("\tint local").append(k).append(" = value * ").append(edited ? k + 1 : k).append(";\n");
+				break;
+			case 1:
+				code.append("\tif (items.size() > ").append(k % 13).append(") { value += items.get(").append(k % 5).append(").length(); }\n");
+				break;
+			case 2:
+				code.append("\tvalue = helper").append(k % 11).append("(value, \"").append(edited ? "edited" : "item").append(k).append("\");\n");
+				break;
+			case 3:
+				code.append("\tfor (String item : items) { value ^= item.hashCode() + ").append(k).append("; }\n");
+				break;
+			case 4:
+				code.append("\tlog.debug(\"step ").append(k).append(" of \" + name);\n");
+				break;
+			case 5:
+				code.append("\twhile (queue.peek() != null && count < ").append(k % 97).append(") queue.poll();\n");
+				break;
+			case 6:
+				code.append("\tresult.put(key").append(k % 7).append(", Math.max(result.get(key), ").append(k).append("L));\n");
+				break;
+			default:
+				code.append("\ttry { stream.write(buffer, 0, ").append(k % 256).append("); } catch (IOException e) { throw e; }\n");
+			}
+		}
+		code.append("\treturn value;\n}");
+		return code.toString();
+	}
+}
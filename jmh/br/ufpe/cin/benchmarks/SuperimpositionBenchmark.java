@@ -0,0 +1,107 @@
+package br.ufpe.cin.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.ufpe.cin.mergers.util.ChildrenIndex;
+import de.ovgu.cide.fstgen.ast.FSTNode;
+import de.ovgu.cide.fstgen.ast.FSTNonTerminal;
+import de.ovgu.cide.fstgen.ast.FSTTerminal;
+
+/**
+ * Children matching done by superimposition on large synthetic classes
+ * (as generated DTOs, big enums and constant tables), comparing the linear
+ * {@link FSTNonTerminal#getCompatibleChild(FSTNode)} with the {@link ChildrenIndex}.
+ * Select the class sizes with <i>-p members=N</i>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SuperimpositionBenchmark {
+
+	@Param({"1000", "2000", "4000", "8000", "16000"})
+	public int members;
+
+	private FSTNonTerminal left;
+	private FSTNonTerminal base;
+
+	@Setup
+	public void setUp() {
+		left = syntheticClass(members, 1);
+		base = syntheticClass(members, 2);
+
+		int linearMatches = matchLinear();
+		int indexedMatches = matchIndexed();
+		if (linearMatches != indexedMatches) {
+			throw new IllegalStateException("Different matchings: " + linearMatches + " and " + indexedMatches);
+		}
+	}
+
+	/**
+	 * Both matching passes of superimposition, children of B in A and children of A in B.
+	 */
+	@Benchmark
+	public int matchLinear() {
+		int matches = 0;
+		for (FSTNode childB : base.getChildren()) {
+			if (left.getCompatibleChild(childB) != null) matches++;
+		}
+		for (FSTNode childA : left.getChildren()) {
+			if (base.getCompatibleChild(childA) != null) matches++;
+		}
+		return matches;
+	}
+
+	@Benchmark
+	public int matchIndexed() {
+		ChildrenIndex childrenA = new ChildrenIndex(left);
+		ChildrenIndex childrenB = new ChildrenIndex(base);
+		int matches = 0;
+		for (FSTNode childB : base.getChildren()) {
+			if (childrenA.getCompatibleChild(childB) != null) matches++;
+		}
+		for (FSTNode childA : left.getChildren()) {
+			if (childrenB.getCompatibleChild(childA) != null) matches++;
+		}
+		return matches;
+	}
+
+	/**
+	 * A class body with the given number of fields and methods, in a shuffled order,
+	 * where about 5% of the members are exclusive of each version.
+	 */
+	private static FSTNonTerminal syntheticClass(int members, long seed) {
+		Random random = new Random(seed);
+		List<FSTNode> children = new ArrayList<FSTNode>(members);
+		for (int i = 0; i < members; i++) {
+			String suffix = (random.nextInt(20) == 0) ? "_" + seed : "";
+			if (i % 2 == 0) {
+				String name = "field" + i + suffix;
+				children.add(new FSTTerminal("FieldDecl", name, "private int " + name + ";", ""));
+			} else {
+				String name = "method" + i + suffix + "()";
+				children.add(new FSTTerminal("MethodDecl", name, "public int " + name + "{ return " + i + "; }", ""));
+			}
+		}
+		Collections.shuffle(children, random);
+		return new FSTNonTerminal("ClassOrInterfaceBody", "-", children);
+	}
+}
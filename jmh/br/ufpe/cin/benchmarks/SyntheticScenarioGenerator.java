@@ -0,0 +1,122 @@
+package br.ufpe.cin.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Generates merge scenarios of a large class, as the ones found in generated code and long-lived services,
+ * to measure how the merge scales beyond the small testfiles scenarios.
+ * Starting from a base class with the given number of methods, left and right versions:
+ * <ul>
+ * <li>edit different methods, and both edit every 77th method (conflicts);</li>
+ * <li>add new methods and fields, some of them referencing edited methods;</li>
+ * <li>delete (right) and rename (left) a few methods.</li>
+ * </ul>
+ * The generation is deterministic, so the same number of methods always gives the same scenario.
+ * Usage: <i>SyntheticScenarioGenerator numberOfMethods outputDirectory</i>
+ */
+public final class SyntheticScenarioGenerator {
+
+	private static final String CLASS_NAME = "Synthetic";
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: SyntheticScenarioGenerator numberOfMethods outputDirectory");
+			System.exit(-1);
+		}
+		File[] files = generate(Integer.parseInt(args[0]), new File(args[1]));
+		for (File file : files) {
+			System.out.println(file.getAbsolutePath());
+		}
+	}
+
+	/**
+	 * Writes the left, base and right versions of the class into <i>left</i>, <i>base</i> and <i>right</i> subfolders.
+	 * @param numberOfMethods of the base class
+	 * @param outputDirectory
+	 * @return array with left, base and right files
+	 * @throws IOException
+	 */
+	public static File[] generate(int numberOfMethods, File outputDirectory) throws IOException {
+		File left  = write(outputDirectory, "left",  generateLeft(numberOfMethods));
+		File base  = write(outputDirectory, "base",  generateBase(numberOfMethods));
+		File right = write(outputDirectory, "right", generateRight(numberOfMethods));
+		return new File[] { left, base, right };
+	}
+
+	static String generateBase(int numberOfMethods) {
+		StringBuilder code = header();
+		for (int i = 0; i < numberOfMethods; i++) {
+			appendMethod(code, "compute" + i, i, "value + " + i);
+		}
+		return footer(code);
+	}
+
+	static String generateLeft(int numberOfMethods) {
+		StringBuilder code = header();
+		for (int i = 0; i < numberOfMethods; i++) {
+			if (i % 101 == 50) {
+				appendMethod(code, "computeRenamed" + i, i, "value + " + i); //renaming
+			} else if (i % 7 == 0) {
+				appendMethod(code, "compute" + i, i, "value * " + i + " + left"); //edition
+			} else {
+				appendMethod(code, "compute" + i, i, "value + " + i);
+			}
+		}
+		for (int i = 0; i < numberOfMethods / 20; i++) {
+			appendMethod(code, "leftAdded" + i, i, "compute" + (i * 11) + "(value)"); //new methods referencing right edited ones
+		}
+		return footer(code);
+	}
+
+	static String generateRight(int numberOfMethods) {
+		StringBuilder code = header();
+		for (int i = 0; i < numberOfMethods / 20; i++) {
+			code.append("\tprivate int rightField").append(i).append(" = compute").append(i * 7).append("(").append(i).append(");\n\n"); //new fields referencing left edited methods
+		}
+		for (int i = 0; i < numberOfMethods; i++) {
+			if (i % 97 == 13) {
+				continue; //deletion
+			} else if (i % 11 == 0) {
+				appendMethod(code, "compute" + i, i, "value - " + i + " + right"); //edition
+			} else {
+				appendMethod(code, "compute" + i, i, "value + " + i);
+			}
+		}
+		return footer(code);
+	}
+
+	private static StringBuilder header() {
+		StringBuilder code = new StringBuilder();
+		code.append("package synthetic;\n\n");
+		code.append("import java.util.List;\n\n");
+		code.append("public class ").append(CLASS_NAME).append(" {\n\n");
+		code.append("\tprivate int left = 1;\n\n");
+		code.append("\tprivate int right = 2;\n\n");
+		return code;
+	}
+
+	private static void appendMethod(StringBuilder code, String name, int seed, String expression) {
+		code.append("\tpublic int ").append(name).append("(int value) {\n");
+		code.append("\t\tint result = ").append(expression).append(";\n");
+		code.append("\t\tif (result > ").append(seed * 3).append(") {\n");
+		code.append("\t\t\tresult = result % ").append(seed + 1).append(";\n");
+		code.append("\t\t}\n");
+		code.append("\t\treturn result;\n");
+		code.append("\t}\n\n");
+	}
+
+	private static String footer(StringBuilder code) {
+		return code.append("}\n").toString();
+	}
+
+	private static File write(File outputDirectory, String version, String content) throws IOException {
+		File folder = new File(outputDirectory, version);
+		folder.mkdirs();
+		File file = new File(folder, CLASS_NAME + ".java");
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+}
@@ -0,0 +1,70 @@
+package br.ufpe.cin.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.ufpe.cin.mergers.TextualMerge;
+import de.ovgu.cide.fstgen.ast.FSTTerminal;
+
+/**
+ * Unstructured merge of whole files, as run before the semistructured merge,
+ * and the node merge used for conflicting nodes (applied here to the whole file to stress it).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TextualMergeBenchmark {
+
+	@Param({"renamingmethodleftconf", "nereomethodmethod", "big", "synthetic-2000"})
+	public String scenario;
+
+	private String left;
+	private String base;
+	private String right;
+	private FSTTerminal node;
+
+	@Setup
+	public void setUp() throws Exception {
+		BenchmarkFixtures.silence();
+		ParsedScenario parsed = ParsedScenario.of(scenario);
+		left  = parsed.getText(0);
+		base  = parsed.getText(1);
+		right = parsed.getText(2);
+		node  = new FSTTerminal("ClassOrInterfaceBody", scenario, left, "");
+	}
+
+	@TearDown
+	public void tearDown() {
+		BenchmarkFixtures.cleanUp();
+	}
+
+	@Benchmark
+	public String merge() throws Exception {
+		return TextualMerge.merge(left, base, right, false);
+	}
+
+	@Benchmark
+	public String mergeGit() {
+		return TextualMerge.mergeGit(left, base, right, node);
+	}
+
+	@Benchmark
+	public String mergeDiff3() throws Exception {
+		return TextualMerge.mergeDiff3(left, base, right);
+	}
+}
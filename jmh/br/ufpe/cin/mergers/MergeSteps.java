@@ -0,0 +1,55 @@
+package br.ufpe.cin.mergers;
+
+import java.io.File;
+
+import br.ufpe.cin.exceptions.TextualMergeException;
+import br.ufpe.cin.mergers.util.MergeContext;
+import br.ufpe.cin.printers.Prettyprinter;
+import de.ovgu.cide.fstgen.ast.FSTNode;
+
+/**
+ * Exposes the internal steps of {@link SemistructuredMerge} to the benchmarks,
+ * so each step can be measured apart from the parsing that precedes it.
+ */
+public final class MergeSteps {
+
+	/**
+	 * Both superimposition passes: left with base, then the result with right.
+	 * @return superimposed tree, before the removal of remaining base nodes and the merge of matched content.
+	 */
+	public static FSTNode superimpose(SemistructuredMerge merger, FSTNode left, FSTNode base, FSTNode right) {
+		left.index 	= 0;
+		base.index 	= 1;
+		right.index = 2;
+		MergeContext context = new MergeContext();
+		FSTNode mergeLeftBase = merger.superimpose(left, base, null, context, true);
+		return merger.superimpose(mergeLeftBase, right, null, context, false);
+	}
+
+	/**
+	 * Superimposition followed by the removal of remaining base nodes and the merge of matched content.
+	 * @return context with the superimposed tree
+	 * @throws TextualMergeException
+	 */
+	public static MergeContext mergeTrees(SemistructuredMerge merger, FSTNode left, FSTNode base, FSTNode right, String filePath) throws TextualMergeException {
+		return merger.merge(left, base, right, filePath);
+	}
+
+	/**
+	 * The state of a merge right before {@link br.ufpe.cin.mergers.handlers.ConflictsHandler} runs:
+	 * trees merged and partial semistructured output printed. The unstructured merge is also run upfront,
+	 * as in the default merge profile, so it is not measured as part of the handlers.
+	 * @param files left, base and right files
+	 * @param trees left, base and right parsed trees
+	 * @return context ready to be handled
+	 * @throws TextualMergeException
+	 */
+	public static MergeContext beforeConflictsHandler(File[] files, FSTNode[] trees) throws TextualMergeException {
+		SemistructuredMerge merger = new SemistructuredMerge();
+		MergeContext context = new MergeContext(files[0], files[1], files[2], null);
+		context.getUnstructuredOutput();
+		context.join(merger.merge(trees[0], trees[1], trees[2], merger.retrievePath(files[0], files[1], files[2])));
+		context.semistructuredOutput = Prettyprinter.print(context.superImposedTree);
+		return context;
+	}
+}
@@ -16,7 +16,10 @@ public final class CommandLineValidator {
 	 * @throws ParameterException in case of invalid command line options
 	 */
 	public static void validateCommandLineOptions(JFSTMerge merger) {
-		if(merger.filespath.isEmpty() && merger.directoriespath.isEmpty()){ //one merge option must be given
+		if(merger.filespath.isEmpty() && merger.directoriespath.isEmpty()){ //one merge option must be given, unless only rebuilding the summary
+			if(JFSTMerge.rebuildSummary){
+				return;
+			}
 			throw new ParameterException("Please inform one merge option (-f or -d).");
 
 		} else if(!merger.filespath.isEmpty() && !merger.directoriespath.isEmpty()){ //merge options are mutually exclusive
@@ -51,6 +54,9 @@ public final class CommandLineValidator {
 					}
 				}
 			}
+			if(JFSTMerge.numberOfThreads < 1){ //at least one thread merges the directories
+				throw new ParameterException("Invalid number of threads. Inform 1 or more.");
+			}
 		}		
 	}
 }
@@ -6,6 +6,10 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -16,10 +20,11 @@ import br.ufpe.cin.exceptions.TextualMergeException;
 import br.ufpe.cin.files.FilesManager;
 import br.ufpe.cin.files.FilesTuple;
 import br.ufpe.cin.logging.LoggerFactory;
+import br.ufpe.cin.logging.LoggerStatistics;
 import br.ufpe.cin.mergers.SemistructuredMerge;
-import br.ufpe.cin.mergers.TextualMerge;
 import br.ufpe.cin.mergers.util.MergeConflict;
 import br.ufpe.cin.mergers.util.MergeContext;
+import br.ufpe.cin.mergers.util.MergePhase;
 import br.ufpe.cin.mergers.util.MergeScenario;
 import br.ufpe.cin.printers.Prettyprinter;
 import br.ufpe.cin.statistics.Statistics;
@@ -51,8 +56,8 @@ public class JFSTMerge {
 	//log of activities
 	private static final Logger LOGGER = LoggerFactory.make();
 
-	//indicator of conflicting merge
-	private static int conflictState = 0;
+	//indicator of conflicting merge, of the merges run by this instance
+	private int conflictState = 0;
 
 	//command line options
 	@Parameter(names = "-f", arity = 3, description = "Files to be merged (mine, base, yours)")
@@ -73,50 +78,71 @@ public class JFSTMerge {
 	@Parameter(names = "-l", description = "Parameter to disable logging of merged files (true or false).",arity = 1)
 	public static boolean logFiles = true;
 
+	@Parameter(names = "-gm", description = "Parameter to merge conflicting nodes calling git merge-file instead of the equivalent in-process merge (true or false).",arity = 1)
+	public static boolean useGitMergeFile = false;
+
+	@Parameter(names = "-p", description = "Parameter to merge in production mode: unstructured merge is only run when needed to handle conflicts, and no statistics are computed.")
+	public static boolean isProduction = false;
+
+	@Parameter(names = "--echo", description = "Parameter to print the merged code of each file on the console.")
+	public static boolean echoOutput = false;
+
+	@Parameter(names = "--unstructured-output", description = "Parameter to also write the unstructured merge output of each file, next to the merged file, with the .merge extension.")
+	public static boolean writeUnstructuredOutput = false;
+
+	@Parameter(names = "--profile", description = "Parameter to print the time spent in each merge phase, for each merged file and for each merged scenario.")
+	public static boolean profile = false;
+
+	@Parameter(names = "-j", description = "Number of threads used to merge the files of the given directories. Optional. Default is 1 (sequential merge).")
+	public static int numberOfThreads = 1;
+
+	@Parameter(names = "--rebuild-summary", description = "Parameter to rebuild the statistics summary from the whole statistics log, to migrate or repair it. Merge options become optional.")
+	public static boolean rebuildSummary = false;
+
 	/**
 	 * Merges merge scenarios, indicated by .revisions files. 
 	 * This is mainly used for evaluation purposes.
 	 * A .revisions file contains the directories of the revisions to merge in top-down order: 
 	 * first revision, base revision, second revision (three-way merge).
 	 * @param revisionsPath file path
+	 * @throws Exception in case the scenario cannot be merged
 	 */
-	public MergeScenario mergeRevisions(String revisionsPath) {
+	public MergeScenario mergeRevisions(String revisionsPath) throws Exception {
 		//disabling cryptography for performance improvement
 		isCryptographed = false;
 
 		MergeScenario scenario = null;
-		try {
-			//reading the .revisions file line by line to get revisions directories
-			List<String> listRevisions = new ArrayList<>();
-			BufferedReader reader = Files.newBufferedReader(Paths.get(revisionsPath));
-			listRevisions = reader.lines().collect(Collectors.toList());
-			if (listRevisions.size() != 3)
-				throw new Exception("Invalid .revisions file!");
 
-			//merging the identified directories
-			if (!listRevisions.isEmpty()) {
-				System.out.println("MERGING REVISIONS: \n" + listRevisions.get(0) + "\n" + listRevisions.get(1) + "\n" + listRevisions.get(2));
-				String revisionFileFolder = (new File(revisionsPath)).getParent();
-				String leftDir = revisionFileFolder + File.separator + listRevisions.get(0);
-				String baseDir = revisionFileFolder + File.separator + listRevisions.get(1);
-				String rightDir = revisionFileFolder + File.separator + listRevisions.get(2);
+		//reading the .revisions file line by line to get revisions directories
+		List<String> listRevisions = new ArrayList<>();
+		BufferedReader reader = Files.newBufferedReader(Paths.get(revisionsPath));
+		listRevisions = reader.lines().collect(Collectors.toList());
+		if (listRevisions.size() != 3)
+			throw new Exception("Invalid .revisions file!");
 
-				List<FilesTuple> mergedTuples = mergeDirectories(leftDir, baseDir, rightDir, null);
+		//merging the identified directories
+		if (!listRevisions.isEmpty()) {
+			System.out.println("MERGING REVISIONS: \n" + listRevisions.get(0) + "\n" + listRevisions.get(1) + "\n" + listRevisions.get(2));
+			String revisionFileFolder = (new File(revisionsPath)).getParent();
+			String leftDir = revisionFileFolder + File.separator + listRevisions.get(0);
+			String baseDir = revisionFileFolder + File.separator + listRevisions.get(1);
+			String rightDir = revisionFileFolder + File.separator + listRevisions.get(2);
 
-				//using the name of the revisions directories as revisions identifiers
-				scenario = new MergeScenario(revisionsPath, listRevisions.get(0), listRevisions.get(1), listRevisions.get(2), mergedTuples);
+			List<FilesTuple> mergedTuples = mergeDirectories(leftDir, baseDir, rightDir, null);
 
-				//statistics
-				Statistics.compute(scenario);
+			//using the name of the revisions directories as revisions identifiers
+			scenario = new MergeScenario(revisionsPath, listRevisions.get(0), listRevisions.get(1), listRevisions.get(2), mergedTuples);
 
-				//printing the resulting merged codes
-				Prettyprinter.generateMergedScenario(scenario);
+			//statistics
+			if (!isProduction) {
+				Statistics.compute(scenario);
 			}
-		} catch (Exception e) {
-			e.printStackTrace();
-			System.err.println("An error occurred. See " + LoggerFactory.logfile + " file for more details.\n Send the log to gjcc@cin.ufpe.br for analysis if preferable.");
-			LOGGER.log(Level.SEVERE, "", e);
-			System.exit(-1);
+			if (profile) {
+				System.out.println("MERGE SCENARIO PROFILE: " + revisionsPath + "\n" + scenario.getProfile());
+			}
+
+			//printing the resulting merged codes
+			Prettyprinter.generateMergedScenario(scenario);
 		}
 		return scenario;
 	}
@@ -128,32 +154,75 @@ public class JFSTMerge {
 	 * @param rightDirPath (yours)
 	 * @param outputDirPath can be null, in this case, the output will only be printed in the console.
 	 * @return merged files tuples
+	 * @throws Exception in case a file cannot be merged, printed or accounted in the statistics
 	 */
-	public List<FilesTuple> mergeDirectories(String leftDirPath, String baseDirPath, String rightDirPath, String outputDirPath) {
+	public List<FilesTuple> mergeDirectories(String leftDirPath, String baseDirPath, String rightDirPath, String outputDirPath) throws Exception {
 		List<FilesTuple> filesTuple = FilesManager.fillFilesTuples(leftDirPath, baseDirPath, rightDirPath, outputDirPath, new ArrayList<String>());
-		for (FilesTuple tuple : filesTuple) {
-			File left = tuple.getLeftFile();
-			File base = tuple.getBaseFile();
-			File right = tuple.getRightFile();
-
-			//merging the file tuple
-			MergeContext context = mergeFiles(left, base, right, null);
-			tuple.setContext(context);
-
-			//printing the resulting merged code
-			if (outputDirPath != null) {
-				try {
-					Prettyprinter.generateMergedTuple(tuple);
-				} catch (PrintException pe) {
-					System.err.println("An error occurred. See " + LoggerFactory.logfile + " file for more details.\n Send the log to gjcc@cin.ufpe.br for analysis if preferable.");
-					LOGGER.log(Level.SEVERE, "", pe);
-					System.exit(-1);
-				}
+		if (numberOfThreads > 1 && filesTuple.size() > 1) {
+			mergeTuplesInParallel(filesTuple, outputDirPath);
+		} else {
+			for (FilesTuple tuple : filesTuple) {
+				File left = tuple.getLeftFile();
+				File base = tuple.getBaseFile();
+				File right = tuple.getRightFile();
+
+				//merging the file tuple
+				MergeContext context = mergeFiles(left, base, right, null);
+				tuple.setContext(context);
+
+				//printing the resulting merged code
+				generateMergedTuple(tuple, outputDirPath);
+				printProfile(context);
 			}
 		}
 		return filesTuple;
 	}
 
+	/**
+	 * Merges the given files tuples concurrently, using {@link #numberOfThreads} threads.
+	 * Only the merge of each tuple is concurrent, the results (console output, merged files and statistics) 
+	 * are handled by the calling thread in the same order of the sequential merge.
+	 * @param filesTuple
+	 * @param outputDirPath can be null, in this case, the output will only be printed in the console.
+	 * @throws Exception thrown by the merge of a tuple, or when reporting it
+	 */
+	private void mergeTuplesInParallel(List<FilesTuple> filesTuple, String outputDirPath) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(numberOfThreads, filesTuple.size()));
+		try {
+			List<Future<MergeContext>> merges = new ArrayList<Future<MergeContext>>(filesTuple.size());
+			for (FilesTuple tuple : filesTuple) {
+				merges.add(executor.submit(() -> {
+					FilesManager.validateFiles(tuple.getLeftFile(), tuple.getBaseFile(), tuple.getRightFile());
+					return merge(tuple.getLeftFile(), tuple.getBaseFile(), tuple.getRightFile(), null);
+				}));
+			}
+
+			for (int i = 0; i < filesTuple.size(); i++) {
+				FilesTuple tuple = filesTuple.get(i);
+				MergeContext context = merges.get(i).get();
+				printMergingFiles(tuple.getLeftFile(), tuple.getBaseFile(), tuple.getRightFile());
+				report(context, null);
+				tuple.setContext(context);
+
+				//printing the resulting merged code
+				generateMergedTuple(tuple, outputDirPath);
+				printProfile(context);
+			}
+		} catch (ExecutionException e) {
+			throw (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void generateMergedTuple(FilesTuple tuple, String outputDirPath) throws PrintException {
+		if (outputDirPath != null) {
+			tuple.getContext().profile.start(MergePhase.OUTPUT_WRITE);
+			Prettyprinter.generateMergedTuple(tuple);
+			tuple.getContext().profile.stop(MergePhase.OUTPUT_WRITE);
+		}
+	}
+
 	/**
 	 * Three-way semistructured merge of the given .java files.
 	 * @param left (mine) version of the file, or <b>null</b> in case of intentional empty file. 
@@ -161,69 +230,107 @@ public class JFSTMerge {
 	 * @param right (yours) version of the file, or <b>null</b> in case of intentional empty file. 
 	 * @param outputFilePath of the merged file. Can be <b>null</b>, in this case, the output will only be printed in the console.
 	 * @return context with relevant information gathered during the merging process.
+	 * @throws Exception in case the files cannot be merged, printed or accounted in the statistics
 	 */
-	public MergeContext mergeFiles(File left, File base, File right, String outputFilePath) {
+	public MergeContext mergeFiles(File left, File base, File right, String outputFilePath) throws Exception {
 		FilesManager.validateFiles(left, base, right);
-		if (!isGit) {
-			System.out.println("MERGING FILES: \n" + ((left != null) ? left.getAbsolutePath() : "<empty left>") + "\n" + ((base != null) ? base.getAbsolutePath() : "<empty base>") + "\n" + ((right != null) ? right.getAbsolutePath() : "<empty right>"));
+		printMergingFiles(left, base, right);
+
+		MergeContext context = merge(left, base, right, outputFilePath);
+
+		report(context, outputFilePath);
+		if (outputFilePath != null) { //merged directories print the profile after writing the merged file
+			printProfile(context);
 		}
+		return context;
+	}
 
+	/**
+	 * Merges the given files, without printing or logging the result. 
+	 * As it does not touch shared state, it can be called concurrently for different files.
+	 * @return context with relevant information gathered during the merging process.
+	 * @throws TextualMergeException in case textual merge fails, as it is the fallback of semistructured merge
+	 */
+	private MergeContext merge(File left, File base, File right, String outputFilePath) throws TextualMergeException {
 		MergeContext context = new MergeContext(left, base, right, outputFilePath);
 
 		//there is no need to call specific merge algorithms in equal or consistenly changes files (fast-forward merge)
 		if (FilesManager.areFilesDifferent(left, base, right, outputFilePath, context)) {
 			long t0 = System.nanoTime();
+			//running unstructured merge first is necessary due to future steps (statistics). In production, handlers run it on demand.
+			if (!isProduction) {
+				context.getUnstructuredOutput();
+			}
 			try {
-				//running unstructured merge first is necessary due to future steps.
-				context.unstructuredOutput = TextualMerge.merge(left, base, right, false);
-				context.unstructuredMergeTime = System.nanoTime() - t0;
 				//#conflictsAnalyzer 
 				context.semistructuredOutput = this.semistructuredMerge.merge(left, base, right, context);
 				//#conflictsAnalyzer 
-				context.semistructuredMergeTime = context.semistructuredMergeTime + (System.nanoTime() - t0);
-
-				conflictState = checkConflictState(context);
-			} catch (TextualMergeException tme) { //textual merge must work even when semistructured not, so this exception precedes others
-				System.err.println("An error occurred. See " + LoggerFactory.logfile + " file for more details.\n Send the log to gjcc@cin.ufpe.br for analysis if preferable.");
-				LOGGER.log(Level.SEVERE, "", tme);
-				System.exit(-1);
-			} catch (SemistructuredMergeException sme) {
+				//excluding duplicated declarations handler time to not bias peformance evaluation as it is not required to original semistructured merge time
+				context.semistructuredMergeTime = (System.nanoTime() - t0) - context.profile.getTotalNanos(MergePhase.DUPLICATED_DECLARATION_HANDLER);
+			} catch (SemistructuredMergeException sme) { //textual merge must work even when semistructured not, so its exceptions are thrown
 				LOGGER.log(Level.WARNING, "", sme);
-				context.semistructuredOutput = context.unstructuredOutput;
+				context.semistructuredOutput = context.getUnstructuredOutput();
 				context.semistructuredMergeTime = System.nanoTime() - t0;
-
-				conflictState = checkConflictState(context);
 			}
 		}
+		return context;
+	}
+
+	/**
+	 * Prints the merged code, generates the merged file and computes the statistics of a given merge.
+	 * It must be called by one thread at a time, in the order the files are merged.
+	 * @param context
+	 * @param outputFilePath of the merged file. Can be <b>null</b>, in this case, the output will only be printed in the console.
+	 * @throws PrintException in case the merged file cannot be written
+	 * @throws Exception in case the statistics cannot be computed
+	 */
+	private void report(MergeContext context, String outputFilePath) throws Exception {
+		if (context.semistructuredOutput != null && checkConflictState(context) > 0) {
+			conflictState = 1;
+		}
 
 		//printing the resulting merged code
-		try {
-			if(!isGit){
-				Prettyprinter.printOnScreenMergedCode(context);
-			}
-			Prettyprinter.generateMergedFile(context, outputFilePath);
-		} catch (PrintException pe) {
-			System.err.println("An error occurred. See " + LoggerFactory.logfile + " file for more details.\n Send the log to gjcc@cin.ufpe.br for analysis if preferable.");
-			LOGGER.log(Level.SEVERE, "", pe);
-			System.exit(-1);
+		if (echoOutput) {
+			Prettyprinter.printOnScreenMergedCode(context);
 		}
+		context.profile.start(MergePhase.OUTPUT_WRITE);
+		Prettyprinter.generateMergedFile(context, outputFilePath);
+		context.profile.stop(MergePhase.OUTPUT_WRITE);
 
 		//computing statistics
-		try {
+		if (!isProduction) {
+			context.profile.start(MergePhase.STATISTICS);
 			Statistics.compute(context);
-		} catch (Exception e) {
-			System.err.println("An error occurred. See " + LoggerFactory.logfile + " file for more details.\n Send the log to gjcc@cin.ufpe.br for analysis if preferable.");
-			LOGGER.log(Level.SEVERE, "", e);
-			System.exit(-1);
+			context.profile.stop(MergePhase.STATISTICS);
 		}
 		System.out.println("Merge files finished.");
-		return context;
+	}
+
+	private void printProfile(MergeContext context) {
+		if (profile) {
+			System.out.println("MERGE PROFILE:\n" + context.profile);
+		}
+	}
+
+	private void printMergingFiles(File left, File base, File right) {
+		if (!isGit) {
+			System.out.println("MERGING FILES: \n" + ((left != null) ? left.getAbsolutePath() : "<empty left>") + "\n" + ((base != null) ? base.getAbsolutePath() : "<empty base>") + "\n" + ((right != null) ? right.getAbsolutePath() : "<empty right>"));
+		}
 	}
 
 	public static void main(String[] args) {
 		JFSTMerge merger = new JFSTMerge();
-		merger.mergeRevisions("/home/dell/Documents/doutorado/icse/rev_123ab_456cd/rev_123ab-456cd.revisions");
-		System.exit(conflictState);
+		try {
+			merger.mergeRevisions("/home/dell/Documents/doutorado/icse/rev_123ab_456cd/rev_123ab-456cd.revisions");
+		} catch (Exception e) {
+			e.printStackTrace();
+			System.err.println("An error occurred. See " + LoggerFactory.logfile + " file for more details.\n Send the log to gjcc@cin.ufpe.br for analysis if preferable.");
+			LOGGER.log(Level.SEVERE, "", e);
+			LoggerStatistics.flush();
+			System.exit(-1);
+		}
+		LoggerStatistics.flush();
+		System.exit(merger.conflictState);
 
 		/*		new JFSTMerge().mergeFiles(
 						new File("C:/Users/Guilherme/Desktop/test/projects/sisbol/revisions/rev_0533511_8d296b5/rev_left_0533511/sisbol-core/src/main/java/br/mil/eb/cds/sisbol/boletim/util/Messages.java"),
@@ -246,11 +353,20 @@ public class JFSTMerge {
 
 	}
 
-	private void run(String[] args) {
+	/**
+	 * Merges the files or directories given as command line options.
+	 * @param args command line options
+	 * @return 1 in case of conflicting merge, -1 in case of errors, or 0 otherwise.
+	 */
+	public int run(String[] args) {
+		conflictState = 0;
 		JCommander commandLineOptions = new JCommander(this);
 		try {
 			commandLineOptions.parse(args);
 			CommandLineValidator.validateCommandLineOptions(this);
+			if (rebuildSummary) {
+				LoggerStatistics.rebuildSummary();
+			}
 			if (!filespath.isEmpty()) {
 				mergeFiles(new File(filespath.get(0)), new File(filespath.get(1)), new File(filespath.get(2)), outputpath);
 			} else if (!directoriespath.isEmpty()) {
@@ -260,11 +376,16 @@ public class JFSTMerge {
 			System.err.println(pe.getMessage());
 			commandLineOptions.setProgramName("JFSTMerge");
 			commandLineOptions.usage();
+		} catch (Exception e) {
+			System.err.println("An error occurred. See " + LoggerFactory.logfile + " file for more details.\n Send the log to gjcc@cin.ufpe.br for analysis if preferable.");
+			LOGGER.log(Level.SEVERE, "", e);
+			return -1;
 		}
+		return conflictState;
 	}
 
 	private int checkConflictState(MergeContext context) {
-		List<MergeConflict> conflictList = FilesManager.extractMergeConflicts(context.semistructuredOutput);
+		List<MergeConflict> conflictList = context.getSemistructuredMergeConflicts();
 		if (conflictList.size() > 0) {
 			return 1;
 		} else {
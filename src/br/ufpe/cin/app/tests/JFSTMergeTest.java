@@ -0,0 +1,148 @@
+package br.ufpe.cin.app.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import br.ufpe.cin.app.JFSTMerge;
+import br.ufpe.cin.files.FilesManager;
+import br.ufpe.cin.files.FilesTuple;
+import br.ufpe.cin.logging.LoggerStatistics;
+
+/**
+ * Merges text files, with a temporary user home for the statistics logs.
+ */
+public class JFSTMergeTest {
+
+	private static final PrintStream STDOUT = System.out;
+
+	private static String userHome;
+	private static File home;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		userHome = System.getProperty("user.home");
+		home = Files.createTempDirectory("jfstmerge-app").toFile();
+		System.setProperty("user.home", home.getAbsolutePath());
+		JFSTMerge.isCryptographed = false;
+
+		//clean and conflicting merges, in the revisions root and in a subdirectory
+		for (int i = 0; i < 8; i++) {
+			String name = (i % 3 == 0 ? "sub" + File.separator : "") + "file" + i + ".txt";
+			write("base" + File.separator + name, "a\nb\nc" + i + "\n");
+			write("left" + File.separator + name, "a1\nb\nc" + i + "\n");
+			write("right" + File.separator + name, (i % 2 == 0 ? "a2" : "a") + "\nb\nc" + i + "1\n");
+		}
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() throws Exception {
+		System.setOut(STDOUT);
+		LoggerStatistics.flush();
+		System.setProperty("user.home", userHome);
+		JFSTMerge.isCryptographed = true;
+		FileUtils.deleteQuietly(home);
+	}
+
+	@After
+	public void tearDown() {
+		System.setOut(STDOUT);
+		JFSTMerge.numberOfThreads = 1;
+	}
+
+	@Test
+	public void testConflictStateOfEachRun() throws Exception {
+		System.setOut(new PrintStream(new ByteArrayOutputStream()));
+		assertEquals(1, new JFSTMerge().run(args("file2.txt", "conflicting.txt")));
+		assertEquals(0, new JFSTMerge().run(args("file1.txt", "clean.txt")));
+	}
+
+	@Test
+	public void testConflictStateOfAnyMergedFile() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			write("exit" + File.separator + "base" + File.separator + "file" + i + ".txt", "a\nb\nc\n");
+			write("exit" + File.separator + "left" + File.separator + "file" + i + ".txt", "a1\nb\nc\n");
+			write("exit" + File.separator + "right" + File.separator + "file" + i + ".txt", "a\nb\nc1\n");
+		}
+		//only the first merged file conflicts, the last one is clean
+		List<FilesTuple> tuples = FilesManager.fillFilesTuples(path("exit" + File.separator + "left"), path("exit" + File.separator + "base"), path("exit" + File.separator + "right"), null, new ArrayList<String>());
+		FileUtils.write(tuples.get(0).getRightFile(), "a2\nb\nc\n");
+
+		System.setOut(new PrintStream(new ByteArrayOutputStream()));
+		assertEquals(1, new JFSTMerge().run(new String[] {"-d", path("exit" + File.separator + "left"), path("exit" + File.separator + "base"), path("exit" + File.separator + "right"), "-o", path("exit" + File.separator + "merged")}));
+	}
+
+	@Test
+	public void testParallelMergeInSequentialOrder() throws Exception {
+		ByteArrayOutputStream sequentialConsole = new ByteArrayOutputStream();
+		System.setOut(new PrintStream(sequentialConsole));
+		List<FilesTuple> sequential = mergeDirectories("sequential");
+		List<String> sequentialStatistics = statistics();
+
+		JFSTMerge.numberOfThreads = 4;
+		ByteArrayOutputStream parallelConsole = new ByteArrayOutputStream();
+		System.setOut(new PrintStream(parallelConsole));
+		List<FilesTuple> parallel = mergeDirectories("parallel");
+		List<String> parallelStatistics = statistics();
+		parallelStatistics = parallelStatistics.subList(sequentialStatistics.size(), parallelStatistics.size());
+
+		assertEquals(8, sequential.size());
+		assertEquals(sequential, parallel);
+		for (int i = 0; i < sequential.size(); i++) {
+			assertEquals(sequential.get(i).getContext().semistructuredOutput, parallel.get(i).getContext().semistructuredOutput);
+		}
+		assertEquals(sequentialConsole.toString(), parallelConsole.toString());
+		assertEquals(sequentialStatistics.subList(sequentialStatistics.size() - 8, sequentialStatistics.size()), parallelStatistics);
+		assertEquals(
+				FileUtils.readFileToString(new File(home, "sequential" + File.separator + "file3.txt")),
+				FileUtils.readFileToString(new File(home, "parallel" + File.separator + "file3.txt")));
+	}
+
+	private List<FilesTuple> mergeDirectories(String output) throws Exception {
+		File outputDir = new File(home, output);
+		outputDir.mkdirs();
+		return new JFSTMerge().mergeDirectories(path("left"), path("base"), path("right"), outputDir.getAbsolutePath());
+	}
+
+	/**
+	 * @return merged files of each entry of the statistics log, in the order they were logged.
+	 */
+	private static List<String> statistics() throws IOException {
+		LoggerStatistics.flush();
+		List<String> entries = new ArrayList<String>();
+		for (String line : FileUtils.readLines(new File(home, ".jfstmerge" + File.separator + "jfstmerge.statistics"))) {
+			for (String column : line.split(",")) {
+				if (column.contains("#")) {
+					entries.add(column);
+				}
+			}
+		}
+		assertTrue(!entries.isEmpty());
+		return entries;
+	}
+
+	private static String[] args(String file, String output) {
+		return new String[] {"-f", path("left" + File.separator + file), path("base" + File.separator + file), path("right" + File.separator + file), "-o", path(output)};
+	}
+
+	private static String path(String name) {
+		return new File(home, name).getAbsolutePath();
+	}
+
+	private static void write(String name, String content) throws IOException {
+		FileUtils.write(new File(home, name), content);
+	}
+}
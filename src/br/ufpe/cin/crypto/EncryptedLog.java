@@ -0,0 +1,296 @@
+package br.ufpe.cin.crypto;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+
+import br.ufpe.cin.exceptions.CryptoException;
+
+/**
+ * Append-only encrypted log. Each appended entry is encrypted on its own, with a fresh IV, and written at the end
+ * of the log as a record (IV, length of the encrypted entry, encrypted entry), so appending an entry costs the same
+ * whatever the size of the log. The log starts with a marker that distinguishes it from logs encrypted as a whole
+ * by {@link CryptoUtils}, which are converted to records on their first append.
+ * Logs are read back as a stream of their decrypted entries, one record at a time.
+ */
+public final class EncryptedLog {
+
+	private static final String TRANSFORMATION = "AES/CBC/PKCS5Padding";
+	private static final SecretKey SECRETKEY = CryptoKey.getKey();
+	private static final SecureRandom RANDOM = new SecureRandom();
+
+	private static final byte[] MARKER = {'S', '3', 'M', 'L', 1};
+	private static final int IV_LENGTH = 16;
+
+	//size of the records of converted logs encrypted as a whole
+	private static final int CONVERSION_RECORD_SIZE = 64 * 1024;
+
+	private EncryptedLog() {
+	}
+
+	/**
+	 * Encrypts the given entry and appends it to the log, creating the log if it does not exist.
+	 * @param log
+	 * @param entry
+	 * @throws CryptoException if the entry cannot be encrypted or written, or if the log is neither a log of records
+	 * nor a log encrypted as a whole.
+	 */
+	public static void append(File log, String entry) throws CryptoException {
+		append(log, entry.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Encrypts the given bytes and appends them to the log as one entry, creating the log if it does not exist.
+	 * @param log
+	 * @param entry
+	 * @throws CryptoException if the entry cannot be encrypted or written, or if the log is neither a log of records
+	 * nor a log encrypted as a whole.
+	 */
+	public static void append(File log, byte[] entry) throws CryptoException {
+		prepare(log);
+		try (FileChannel channel = FileChannel.open(log.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+			ByteBuffer record = record(entry, 0, -1, channel.size() == 0);
+			while (record.hasRemaining()) {
+				channel.write(record);
+			}
+		} catch (IOException | GeneralSecurityException ex) {
+			throw new CryptoException("Error encrypting/decrypting file", ex);
+		}
+	}
+
+	/**
+	 * Converts a log encrypted as a whole into a log of records, if it is not one already.
+	 * @param log
+	 * @throws CryptoException if the log is neither a log of records nor a log encrypted as a whole.
+	 */
+	public static void prepare(File log) throws CryptoException {
+		if (!isFramed(log)) {
+			convert(log);
+		}
+	}
+
+	/**
+	 * @param log
+	 * @return <b>true</b> if the log does not exist, is empty, or is a log of records, <b>false</b> otherwise.
+	 * @throws CryptoException if the log cannot be read
+	 */
+	public static boolean isFramed(File log) throws CryptoException {
+		if (!log.exists() || log.length() == 0) {
+			return true;
+		}
+		if (log.length() < MARKER.length) {
+			return false;
+		}
+		try (InputStream input = new FileInputStream(log)) {
+			byte[] marker = new byte[MARKER.length];
+			new DataInputStream(input).readFully(marker);
+			return Arrays.equals(marker, MARKER);
+		} catch (IOException ex) {
+			throw new CryptoException("Error encrypting/decrypting file", ex);
+		}
+	}
+
+	/**
+	 * Opens a stream of the decrypted entries of a log of records, in the order they were appended.
+	 * Entries are decrypted one at a time while the stream is read. An incomplete record at the end of the log,
+	 * as left by an interrupted append, ends the stream.
+	 * @param log
+	 * @return stream of the decrypted log, to be closed by the caller
+	 * @throws CryptoException if the log is not a log of records
+	 */
+	public static InputStream open(File log) throws CryptoException {
+		if (!isFramed(log)) {
+			throw new CryptoException("Error encrypting/decrypting file", new IOException(log + " is not a log of records"));
+		}
+		try {
+			return new RecordsInputStream(log);
+		} catch (IOException ex) {
+			throw new CryptoException("Error encrypting/decrypting file", ex);
+		}
+	}
+
+	/**
+	 * Writes the decrypted content of a log of records, streaming it record by record.
+	 * @param log
+	 * @param output can be the log itself, in this case it is replaced by its decrypted content.
+	 * @throws CryptoException
+	 */
+	public static void decrypt(File log, File output) throws CryptoException {
+		File decrypted = new File(output.getPath() + ".decrypting");
+		try (InputStream input = open(log)) {
+			Files.copy(input, decrypted.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			Files.move(decrypted.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException ex) {
+			decrypted.delete();
+			throw new CryptoException("Error encrypting/decrypting file", ex);
+		}
+	}
+
+	/**
+	 * Converts a log encrypted as a whole into a log of records.
+	 */
+	private static void convert(File log) throws CryptoException {
+		File decrypted = new File(log.getPath() + ".decrypting");
+		File converted = new File(log.getPath() + ".converting");
+		try {
+			CryptoUtils.decrypt(log, decrypted);
+			try (InputStream input = new FileInputStream(decrypted);
+					OutputStream output = Files.newOutputStream(converted.toPath())) {
+				byte[] buffer = new byte[CONVERSION_RECORD_SIZE];
+				boolean first = true;
+				int read;
+				while ((read = input.read(buffer)) > 0) {
+					ByteBuffer record = record(buffer, 0, read, first);
+					output.write(record.array(), 0, record.limit());
+					first = false;
+				}
+			}
+			Files.move(converted.toPath(), log.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException | GeneralSecurityException ex) {
+			throw new CryptoException("Error encrypting/decrypting file", ex);
+		} finally {
+			decrypted.delete();
+			converted.delete();
+		}
+	}
+
+	/**
+	 * Encrypts the given bytes into a record, preceded by the marker of the log if it is the first record.
+	 * A negative length encrypts all the bytes.
+	 */
+	private static ByteBuffer record(byte[] content, int offset, int length, boolean first) throws GeneralSecurityException {
+		byte[] iv = new byte[IV_LENGTH];
+		RANDOM.nextBytes(iv);
+		Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+		cipher.init(Cipher.ENCRYPT_MODE, SECRETKEY, new IvParameterSpec(iv));
+		byte[] encrypted = cipher.doFinal(content, offset, (length < 0) ? content.length : length);
+
+		ByteBuffer record = ByteBuffer.allocate((first ? MARKER.length : 0) + IV_LENGTH + 4 + encrypted.length);
+		if (first) {
+			record.put(MARKER);
+		}
+		record.put(iv).putInt(encrypted.length).put(encrypted);
+		record.flip();
+		return record;
+	}
+
+	/**
+	 * Decrypted content of the records of a log, read one record at a time.
+	 * Only the records written when the log was opened are read.
+	 */
+	private static final class RecordsInputStream extends InputStream {
+		private final DataInputStream records;
+		private final Cipher cipher;
+		private byte[] entry = new byte[0];
+		private int position = 0;
+		private boolean ended = false;
+		private long remaining;
+
+		RecordsInputStream(File log) throws IOException {
+			records = new DataInputStream(new BufferedInputStream(new FileInputStream(log)));
+			remaining = log.length();
+			try {
+				cipher = Cipher.getInstance(TRANSFORMATION);
+				if (remaining > 0) {
+					records.readFully(new byte[MARKER.length]);
+					remaining -= MARKER.length;
+				}
+			} catch (GeneralSecurityException ex) {
+				records.close();
+				throw new IOException(ex);
+			}
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (!hasContent()) {
+				return -1;
+			}
+			return entry[position++] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			if (length == 0) {
+				return 0;
+			}
+			if (!hasContent()) {
+				return -1;
+			}
+			int read = Math.min(length, entry.length - position);
+			System.arraycopy(entry, position, buffer, offset, read);
+			position += read;
+			return read;
+		}
+
+		@Override
+		public void close() throws IOException {
+			records.close();
+		}
+
+		/**
+		 * Decrypts the next records until there is content to read, or the log ends.
+		 */
+		private boolean hasContent() throws IOException {
+			while (position == entry.length) {
+				if (ended || !nextRecord()) {
+					ended = true;
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private boolean nextRecord() throws IOException {
+			int first = records.read();
+			if (first < 0) {
+				return false;
+			}
+			byte[] iv = new byte[IV_LENGTH];
+			iv[0] = (byte) first;
+			byte[] encrypted;
+			try {
+				records.readFully(iv, 1, IV_LENGTH - 1);
+				int length = records.readInt();
+				if (length <= 0 || length % IV_LENGTH != 0) {
+					throw new IOException("Invalid log record");
+				}
+				remaining -= IV_LENGTH + 4;
+				if (length > remaining) { //incomplete record, not allocating the length it claims
+					return false;
+				}
+				encrypted = new byte[length];
+				records.readFully(encrypted);
+				remaining -= length;
+			} catch (EOFException incompleteRecord) {
+				return false;
+			}
+			try {
+				cipher.init(Cipher.DECRYPT_MODE, SECRETKEY, new IvParameterSpec(iv));
+				entry = cipher.doFinal(encrypted);
+			} catch (GeneralSecurityException ex) {
+				throw new IOException("Invalid log record", ex);
+			}
+			position = 0;
+			return true;
+		}
+	}
+}
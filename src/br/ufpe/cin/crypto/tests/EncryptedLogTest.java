@@ -0,0 +1,138 @@
+package br.ufpe.cin.crypto.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.ufpe.cin.crypto.CryptoUtils;
+import br.ufpe.cin.crypto.EncryptedLog;
+import br.ufpe.cin.exceptions.CryptoException;
+
+/**
+ * Logs of records must read back the appended entries, including the content of logs encrypted as a whole by
+ * {@link CryptoUtils} before their conversion.
+ */
+public class EncryptedLogTest {
+
+	private File directory;
+	private File log;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("jfstmerge-log").toFile();
+		log = new File(directory, "jfstmerge.statistics");
+	}
+
+	@After
+	public void tearDown() {
+		FileUtils.deleteQuietly(directory);
+	}
+
+	@Test
+	public void testAppendAndOpen() throws Exception {
+		EncryptedLog.append(log, "first entry\n");
+		EncryptedLog.append(log, "");
+		EncryptedLog.append(log, "second entry, with more than one block of the cipher\n");
+		EncryptedLog.append(log, "a\u00e7\u00e3o\n".getBytes(StandardCharsets.UTF_8));
+		assertTrue(EncryptedLog.isFramed(log));
+		assertEquals("first entry\nsecond entry, with more than one block of the cipher\na\u00e7\u00e3o\n", read(log));
+	}
+
+	@Test
+	public void testConversionOfLogEncryptedAsWhole() throws Exception {
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; content.length() <= 150 * 1024; i++) { //more than one record of converted logs
+			content.append("entry ").append(i).append('\n');
+		}
+		File plain = new File(directory, "plain");
+		FileUtils.write(plain, content.toString(), StandardCharsets.UTF_8);
+		CryptoUtils.encrypt(plain, log);
+		assertFalse(EncryptedLog.isFramed(log));
+
+		EncryptedLog.append(log, "appended entry\n");
+		assertTrue(EncryptedLog.isFramed(log));
+		assertEquals(content + "appended entry\n", read(log));
+		assertFalse(new File(directory, "jfstmerge.statistics.decrypting").exists());
+		assertFalse(new File(directory, "jfstmerge.statistics.converting").exists());
+	}
+
+	@Test
+	public void testOpenLogEncryptedAsWhole() throws Exception {
+		File plain = new File(directory, "plain");
+		FileUtils.write(plain, "entry\n", StandardCharsets.UTF_8);
+		CryptoUtils.encrypt(plain, log);
+		try {
+			EncryptedLog.open(log).close();
+			fail("log encrypted as a whole opened as a log of records");
+		} catch (CryptoException e) {
+			//must be prepared first
+		}
+		EncryptedLog.prepare(log);
+		assertEquals("entry\n", read(log));
+	}
+
+	@Test
+	public void testTruncatedLastRecord() throws Exception {
+		EncryptedLog.append(log, "first entry\n");
+		long firstRecordEnd = log.length();
+		EncryptedLog.append(log, "second entry\n");
+		long secondRecordEnd = log.length();
+
+		//inside the encrypted entry, the length and the IV of the last record
+		for (long length : new long[] {secondRecordEnd - 1, firstRecordEnd + 18, firstRecordEnd + 3}) {
+			truncate(log, length);
+			assertEquals("first entry\n", read(log));
+		}
+
+		//entries appended after the last complete record
+		truncate(log, firstRecordEnd);
+		EncryptedLog.append(log, "third entry\n");
+		assertEquals("first entry\nthird entry\n", read(log));
+	}
+
+	@Test
+	public void testLengthOfRecordLargerThanTheLog() throws Exception {
+		EncryptedLog.append(log, "first entry\n");
+		try (RandomAccessFile access = new RandomAccessFile(log, "rw")) {
+			access.seek(access.length());
+			access.write(new byte[16]); //IV
+			access.writeInt(Integer.MAX_VALUE - 15);
+			access.write(new byte[32]);
+		}
+		assertEquals("first entry\n", read(log));
+	}
+
+	@Test
+	public void testDecryptInPlace() throws Exception {
+		EncryptedLog.append(log, "first entry\n");
+		EncryptedLog.append(log, "second entry\n");
+		EncryptedLog.decrypt(log, log);
+		assertEquals("first entry\nsecond entry\n", FileUtils.readFileToString(log, StandardCharsets.UTF_8));
+	}
+
+	private static String read(File log) throws Exception {
+		try (InputStream input = EncryptedLog.open(log)) {
+			return IOUtils.toString(input, StandardCharsets.UTF_8);
+		}
+	}
+
+	private static void truncate(File file, long length) throws IOException {
+		try (RandomAccessFile access = new RandomAccessFile(file, "rw")) {
+			access.setLength(length);
+		}
+	}
+}
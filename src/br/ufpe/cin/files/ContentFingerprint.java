@@ -0,0 +1,174 @@
+package br.ufpe.cin.files;
+
+/**
+ * Whitespace-insensitive fingerprint of a content, as the body of a node or the sides of a merge conflict:
+ * a 64-bit hash and the length of the content without whitespace, computed in a single pass without allocations.
+ * The content without whitespace, the same given by {@link FilesManager#getStringContentIntoSingleLineNoSpacing(String)},
+ * is only built when asked for. Fingerprints of the same contents are memoized, so comparing node bodies
+ * again and again during a merge normalizes each body only once.
+ */
+public final class ContentFingerprint {
+
+	//memoized fingerprints, indexed by the identity of their contents. Entries are immutable except for the
+	//lazily built normalized content, so concurrent merges at most compute a fingerprint more than once.
+	//The table outlives merges, as in the merge server, so it is kept small: at most about 2MB of contents
+	//and their normalized copies stay in memory after a merge.
+	private static final int CACHE_SIZE = 256;
+	private static final ContentFingerprint[] CACHE = new ContentFingerprint[CACHE_SIZE];
+
+	//longer contents, as whole files and big method bodies, are not memoized
+	private static final int MEMOIZED_MAX_LENGTH = 2 * 1024;
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private final String content;
+	private final long hash;
+	private final int length;
+	private volatile String normalized;
+
+	private ContentFingerprint(String content) {
+		long hash = FNV_OFFSET_BASIS;
+		int length = 0;
+		for (int i = 0; i < content.length(); i++) {
+			char c = content.charAt(i);
+			if (!isWhitespace(c)) {
+				hash = (hash ^ c) * FNV_PRIME;
+				length++;
+			}
+		}
+		this.content = content;
+		this.hash = hash;
+		this.length = length;
+		if (length == content.length()) {
+			this.normalized = content;
+		}
+	}
+
+	/**
+	 * @param content
+	 * @return the fingerprint of the given content, memoized for contents of up to 2K characters.
+	 */
+	public static ContentFingerprint of(String content) {
+		if (content.length() > MEMOIZED_MAX_LENGTH) {
+			return new ContentFingerprint(content);
+		}
+		int slot = System.identityHashCode(content) & (CACHE_SIZE - 1);
+		ContentFingerprint cached = CACHE[slot];
+		if (cached != null && cached.content == content) {
+			return cached;
+		}
+		ContentFingerprint fingerprint = new ContentFingerprint(content);
+		CACHE[slot] = fingerprint;
+		return fingerprint;
+	}
+
+	/**
+	 * Verifies if two contents are equal, ignoring whitespace.
+	 * @param first
+	 * @param second
+	 * @return <b>true</b> if the contents are equal ignoring whitespace, <b>false</b> otherwise
+	 */
+	public static boolean areEquivalent(String first, String second) {
+		return of(first).isEquivalentTo(of(second));
+	}
+
+	/**
+	 * @return 64-bit hash of the content without whitespace.
+	 */
+	public long getHash() {
+		return hash;
+	}
+
+	/**
+	 * @return length of the content without whitespace.
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * @return <b>true</b> if the content has only whitespace, <b>false</b> otherwise
+	 */
+	public boolean isEmpty() {
+		return length == 0;
+	}
+
+	/**
+	 * @return the content without whitespace, built on the first call.
+	 */
+	public String getNormalized() {
+		String result = normalized;
+		if (result == null) {
+			char[] chars = new char[length];
+			int j = 0;
+			for (int i = 0; i < content.length(); i++) {
+				char c = content.charAt(i);
+				if (!isWhitespace(c)) {
+					chars[j++] = c;
+				}
+			}
+			result = new String(chars);
+			normalized = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Verifies if the content of this fingerprint is equal to the content of the given one, ignoring whitespace.
+	 * Different hashes or lengths decide without comparing the contents, which are otherwise compared skipping whitespace.
+	 * @param other
+	 * @return <b>true</b> if the contents are equal ignoring whitespace, <b>false</b> otherwise
+	 */
+	public boolean isEquivalentTo(ContentFingerprint other) {
+		if (this == other) {
+			return true;
+		}
+		if (hash != other.hash || length != other.length) {
+			return false;
+		}
+		String first = content, second = other.content;
+		int i = 0, j = 0;
+		while (true) {
+			while (i < first.length() && isWhitespace(first.charAt(i))) {
+				i++;
+			}
+			while (j < second.length() && isWhitespace(second.charAt(j))) {
+				j++;
+			}
+			if (i == first.length() || j == second.length()) {
+				return i == first.length() && j == second.length();
+			}
+			if (first.charAt(i++) != second.charAt(j++)) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Verifies if the content of this fingerprint contains the content of the given one, ignoring whitespace.
+	 * @param other
+	 * @return <b>true</b> if this content contains the other ignoring whitespace, <b>false</b> otherwise
+	 */
+	public boolean contains(ContentFingerprint other) {
+		if (other.length > length) {
+			return false;
+		}
+		if (other.length == length) {
+			return isEquivalentTo(other);
+		}
+		return getNormalized().contains(other.getNormalized());
+	}
+
+	/**
+	 * Whitespace as matched by <i>\s</i> in regular expressions.
+	 */
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B';
+	}
+
+	@Override
+	public String toString() {
+		return getNormalized();
+	}
+}
@@ -0,0 +1,200 @@
+package br.ufpe.cin.files;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Content of a file, read once from disk and shared by all steps of a merge.
+ * It keeps both the raw bytes, consumed by the parser, and the decoded text,
+ * with lines separated by <i>\n</i>, as returned by {@link FilesManager#readFileContent(File)}.
+ * The text is only decoded when asked for: contents can be compared ignoring whitespace directly on their bytes,
+ * so files left unchanged by a merge are never decoded.
+ */
+public final class FileContent {
+
+	public static final FileContent EMPTY = new FileContent(new byte[0], "");
+
+	private final byte[] bytes;
+	private volatile String text;
+
+	//if the bytes are valid UTF-8, computed when needed
+	private volatile Boolean valid;
+
+	private FileContent(byte[] bytes, String text) {
+		this.bytes = bytes;
+		this.text = text;
+		if (text != null) {
+			this.valid = Boolean.TRUE;
+		}
+	}
+
+	/**
+	 * Reads the content of a given file.
+	 * @param file to be read, can be <b>null</b>.
+	 * @return content of the file, or empty content in case of null, missing or unreadable files.
+	 * Files which are not valid UTF-8 keep their bytes, but have empty text.
+	 */
+	public static FileContent read(File file) {
+		if (file == null) {
+			return EMPTY;
+		}
+		byte[] bytes;
+		try {
+			bytes = Files.readAllBytes(file.toPath());
+		} catch (Exception e) {
+			return EMPTY;
+		}
+		return new FileContent(bytes, null);
+	}
+
+	private static String decode(byte[] bytes) {
+		try {
+			String decoded = StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes)).toString();
+			return new BufferedReader(new StringReader(decoded)).lines().collect(Collectors.joining("\n"));
+		} catch (CharacterCodingException e) {
+			return "";
+		}
+	}
+
+	/**
+	 * Verifies if the text of this content has only whitespace, as {@link ContentFingerprint#isEmpty()}, without decoding it.
+	 * @return <b>true</b> if the text is empty ignoring whitespace, <b>false</b> otherwise
+	 */
+	public boolean isBlank() {
+		for (byte b : bytes) {
+			if (!isWhitespace(b)) {
+				return !isValid(); //files which are not valid UTF-8 have empty text
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Verifies if the text of this content is equal to the text of the given one, ignoring whitespace,
+	 * as {@link ContentFingerprint#isEquivalentTo(ContentFingerprint)}, without decoding them.
+	 * Identical bytes decide right away. Otherwise the bytes are compared skipping whitespace: 
+	 * whitespace characters are single bytes in UTF-8, which never occur inside the encoding of other characters.
+	 * @param other
+	 * @return <b>true</b> if the texts are equal ignoring whitespace, <b>false</b> otherwise
+	 */
+	public boolean isEquivalentTo(FileContent other) {
+		if (this == other || (bytes.length == other.bytes.length && Arrays.equals(bytes, other.bytes))) {
+			return true;
+		}
+		if (!isValid() || !other.isValid()) {
+			return isBlank() && other.isBlank();
+		}
+		byte[] first = bytes, second = other.bytes;
+		int i = 0, j = 0;
+		while (true) {
+			while (i < first.length && isWhitespace(first[i])) {
+				i++;
+			}
+			while (j < second.length && isWhitespace(second[j])) {
+				j++;
+			}
+			if (i == first.length || j == second.length) {
+				return i == first.length && j == second.length;
+			}
+			if (first[i++] != second[j++]) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * @return <b>true</b> if the bytes are valid UTF-8, as accepted by the decoder of the text, <b>false</b> otherwise.
+	 */
+	private boolean isValid() {
+		Boolean result = valid;
+		if (result == null) {
+			result = isValidUTF8(bytes);
+			valid = result;
+		}
+		return result;
+	}
+
+	private static boolean isValidUTF8(byte[] bytes) {
+		int i = 0;
+		while (i < bytes.length) {
+			int b = bytes[i] & 0xff;
+			if (b < 0x80) {
+				i++;
+				continue;
+			}
+			int length, min, max = 0xbf;
+			if (b >= 0xc2 && b <= 0xdf) {
+				length = 2; min = 0x80;
+			} else if (b == 0xe0) {
+				length = 3; min = 0xa0; //no overlong encodings
+			} else if (b == 0xed) {
+				length = 3; min = 0x80; max = 0x9f; //no surrogates
+			} else if (b >= 0xe1 && b <= 0xef) {
+				length = 3; min = 0x80;
+			} else if (b == 0xf0) {
+				length = 4; min = 0x90; //no overlong encodings
+			} else if (b >= 0xf1 && b <= 0xf3) {
+				length = 4; min = 0x80;
+			} else if (b == 0xf4) {
+				length = 4; min = 0x80; max = 0x8f; //up to U+10FFFF
+			} else {
+				return false;
+			}
+			if (i + length > bytes.length) {
+				return false;
+			}
+			int second = bytes[i + 1] & 0xff;
+			if (second < min || second > max) {
+				return false;
+			}
+			for (int k = 2; k < length; k++) {
+				if ((bytes[i + k] & 0xc0) != 0x80) {
+					return false;
+				}
+			}
+			i += length;
+		}
+		return true;
+	}
+
+	/**
+	 * Whitespace as matched by <i>\s</i> in regular expressions.
+	 */
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f' || b == 0x0b;
+	}
+
+	/**
+	 * @return a reader of the raw content, decoded as UTF-8.
+	 */
+	public Reader newReader() {
+		return new InputStreamReader(new ByteArrayInputStream(this.bytes), StandardCharsets.UTF_8);
+	}
+
+	public byte[] getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * @return the decoded text, decoded on the first call.
+	 */
+	public String getText() {
+		String result = text;
+		if (result == null) {
+			result = decode(bytes);
+			text = result;
+			valid = !result.isEmpty() || isValidUTF8(bytes);
+		}
+		return result;
+	}
+}
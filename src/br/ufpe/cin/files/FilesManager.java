@@ -1,18 +1,19 @@
 package br.ufpe.cin.files;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -66,6 +67,9 @@ public final class FilesManager {
 
 	/**
 	 * Fills a list of matched files across the revisions involved in a three-way merge.
+	 * Each revision is walked once, the three of them in parallel, and files are matched by their paths relative to the revisions.
+	 * Tuples of each directory come before the tuples of its subdirectories, which are matched in the order they are found in left, base and right versions.
+	 * Files and output paths of subdirectories are absolute, as the subdirectories listed by {@link #listDirectories(String)}.
 	 * @param leftDir
 	 * @param baseDir
 	 * @param rightDir
@@ -74,87 +78,73 @@ public final class FilesManager {
 	 * @return list of tuples of matched files
 	 */
 	public static List<FilesTuple> fillFilesTuples(String leftDir, String baseDir, String rightDir, String outputpath, List<String> visitedPaths){
-		//avoiding revisiting directories
-		String visitedPath = leftDir + baseDir + rightDir;
-		visitedPaths.add(visitedPath);
+		visitedPaths.add(leftDir + baseDir + rightDir);
 
 		//avoiding file systems separator issues
-		leftDir = FilenameUtils.separatorsToSystem(leftDir);
-		baseDir = FilenameUtils.separatorsToSystem(baseDir);
-		rightDir= FilenameUtils.separatorsToSystem(rightDir);
-
-		List<FilesTuple> tuples = new ArrayList<FilesTuple>();
+		String leftRoot = FilenameUtils.separatorsToSystem(leftDir);
+		String baseRoot = FilenameUtils.separatorsToSystem(baseDir);
+		String rightRoot= FilenameUtils.separatorsToSystem(rightDir);
 
-		//first, matches files of the three directories
-		LinkedList<String> filesFromLeft = new LinkedList<String>(listFiles(leftDir));
-		LinkedList<String> filesFromBase = new LinkedList<String>(listFiles(baseDir));
-		LinkedList<String> filesFromRight= new LinkedList<String>(listFiles(rightDir));
-		for(String l: filesFromLeft){
-			File leftFile = new File(l);
-			File baseFile = new File(baseDir + File.separator +leftFile.getName());
-			File rightFile= new File(rightDir+ File.separator +leftFile.getName());
+		CompletableFuture<RevisionFiles> leftWalk = CompletableFuture.supplyAsync(() -> RevisionFiles.walk(leftRoot));
+		CompletableFuture<RevisionFiles> rightWalk= CompletableFuture.supplyAsync(() -> RevisionFiles.walk(rightRoot));
+		RevisionFiles base = RevisionFiles.walk(baseRoot);
+		RevisionFiles left = leftWalk.join();
+		RevisionFiles right= rightWalk.join();
 
-			if(!baseFile.exists()) baseFile = null;
-			if(!rightFile.exists())rightFile= null;
+		List<FilesTuple> tuples = new ArrayList<FilesTuple>();
+		matchDirectory("", leftRoot, baseRoot, rightRoot, left, base, right, outputpath, tuples);
+		return tuples;
+	}
 
-			FilesTuple tp = new FilesTuple(leftFile, baseFile, rightFile, ((null!=outputpath&&!outputpath.isEmpty())?outputpath:rightDir));
-			if(!tuples.contains(tp)) tuples.add(tp);
+	/**
+	 * Matches the files of a directory of the revisions, and then of its subdirectories.
+	 * Files are matched beginning from files in the left version, followed by files in base version, and finally in files in right version.
+	 */
+	private static void matchDirectory(String relativePath, String leftRoot, String baseRoot, String rightRoot,
+			RevisionFiles left, RevisionFiles base, RevisionFiles right, String outputpath, List<FilesTuple> tuples){
+		RevisionFiles.Directory leftDir = left.get(relativePath);
+		RevisionFiles.Directory baseDir = base.get(relativePath);
+		RevisionFiles.Directory rightDir= right.get(relativePath);
+
+		String leftPath = directoryPath(leftRoot, relativePath);
+		String basePath = directoryPath(baseRoot, relativePath);
+		String rightPath= directoryPath(rightRoot, relativePath);
+		String tupleOutputpath = (null!=outputpath&&!outputpath.isEmpty())?outputpath:rightPath;
+
+		Set<String> names = new LinkedHashSet<String>();
+		Set<String> subdirectories = new LinkedHashSet<String>();
+		for(RevisionFiles.Directory dir : Arrays.asList(leftDir, baseDir, rightDir)){
+			if(dir != null){
+				names.addAll(dir.files.keySet());
+				subdirectories.addAll(dir.subdirectories);
+			}
 		}
-		for(String b: filesFromBase){
-			File baseFile = new File(b);
-			File leftFile = new File(leftDir + File.separator +baseFile.getName());
-			File rightFile= new File(rightDir+ File.separator +baseFile.getName());
-
-			if(!leftFile.exists()) leftFile = null;
-			if(!rightFile.exists())rightFile= null;
-
-			FilesTuple tp = new FilesTuple(leftFile, baseFile, rightFile, ((null!=outputpath&&!outputpath.isEmpty())?outputpath:rightDir));
-			if(!tuples.contains(tp)) tuples.add(tp);
+		for(String name : names){
+			FilesTuple tp = new FilesTuple(
+					matchedFile(leftDir, leftPath, name),
+					matchedFile(baseDir, basePath, name),
+					matchedFile(rightDir, rightPath, name),
+					tupleOutputpath);
+			tp.setLeftAttributes ((leftDir != null) ? leftDir.files.get(name) : null);
+			tp.setBaseAttributes ((baseDir != null) ? baseDir.files.get(name) : null);
+			tp.setRightAttributes((rightDir!= null) ? rightDir.files.get(name) : null);
+			tuples.add(tp);
 		}
-		for(String r: filesFromRight){
-			File rightFile= new File(r);
-			File baseFile = new File(baseDir + File.separator +rightFile.getName());
-			File leftFile = new File(leftDir + File.separator +rightFile.getName());
-
-			if(!baseFile.exists()) baseFile = null;
-			if(!leftFile.exists()) leftFile = null;
-
-			FilesTuple tp = new FilesTuple(leftFile, baseFile, rightFile, ((null!=outputpath&&!outputpath.isEmpty())?outputpath:rightDir));
-			if(!tuples.contains(tp)) tuples.add(tp);
-		}
-
-		//second, run recursively over the subdirectories
-		LinkedList<String> subdirectoriesFromLeft = new LinkedList<String>(listDirectories(leftDir));
-		LinkedList<String> subdirectoriesFromBase = new LinkedList<String>(listDirectories(baseDir));
-		LinkedList<String> subdirectoriesFromRight= new LinkedList<String>(listDirectories(rightDir));
-		for(String sl : subdirectoriesFromLeft){
-			String foldername = new File(sl).getName();
-
-			if(!visitedPaths.contains(sl+ (baseDir+File.separator+foldername)+ (rightDir+File.separator+foldername))){
-				List<FilesTuple> tps = fillFilesTuples(sl, (baseDir+File.separator+foldername), (rightDir+File.separator+foldername), outputpath,visitedPaths);
-				tuples.removeAll(tps); //removing duplicates
-				tuples.addAll(tps);
-			}
+		for(String subdirectory : subdirectories){
+			matchDirectory(relativePath.isEmpty() ? subdirectory : relativePath + File.separator + subdirectory,
+					leftRoot, baseRoot, rightRoot, left, base, right, outputpath, tuples);
 		}
-		for(String sb : subdirectoriesFromBase){
-			String foldername = new File(sb).getName();
+	}
 
-			if(!visitedPaths.contains((leftDir+File.separator+foldername)+ sb + (rightDir+File.separator+foldername))){
-				List<FilesTuple> tps = fillFilesTuples((leftDir+File.separator+foldername), sb, (rightDir+File.separator+foldername), outputpath,visitedPaths);
-				tuples.removeAll(tps);
-				tuples.addAll(tps);
-			}
-		}
-		for(String sr : subdirectoriesFromRight){
-			String foldername = new File(sr).getName();
+	private static String directoryPath(String root, String relativePath){
+		return relativePath.isEmpty() ? root : new File(root).getAbsolutePath() + File.separator + relativePath;
+	}
 
-			if(!visitedPaths.contains((leftDir+File.separator+foldername)+ (baseDir+File.separator+foldername)+ sr)){
-				List<FilesTuple> tps = fillFilesTuples((leftDir+File.separator+foldername), (baseDir+File.separator+foldername), sr, outputpath,visitedPaths);
-				tuples.removeAll(tps);
-				tuples.addAll(tps);
-			}
-		}
-		return tuples;
+	/**
+	 * @return the file with the given name in the directory of a revision, or <b>null</b> if there is no such file nor directory.
+	 */
+	private static File matchedFile(RevisionFiles.Directory dir, String directoryPath, String name){
+		return (dir != null && dir.contains(name)) ? new File(directoryPath + File.separator + name) : null;
 	}
 
 	/**
@@ -215,19 +205,12 @@ public final class FilesManager {
 
 	/**
 	 * Read the content of a given file.
+	 * Prefer the contents already read in the {@link MergeContext} during a merge.
 	 * @param file to be read
-	 * @return string content of the file, or null in case of errors.
+	 * @return string content of the file, or empty string in case of errors.
 	 */
 	public static String readFileContent(File file){
-		//StringBuilder content = new StringBuilder();
-		String content = "";
-		try{
-			BufferedReader reader = Files.newBufferedReader(Paths.get(file.getAbsolutePath()), StandardCharsets.UTF_8);
-			content = reader.lines().collect(Collectors.joining("\n"));
-		}catch(Exception e){
-			//System.err.println(e.getMessage());
-		}
-		return content;
+		return FileContent.read(file).getText();
 	}
 
 	/**
@@ -305,14 +288,14 @@ public final class FilesManager {
 	public static boolean writeContent(String filePath, String content){
 		if(!content.isEmpty()){
 			try{
-				File file = new File(filePath);
-				if(!file.exists()){
-					file.getParentFile().mkdirs();
-					file.createNewFile();
+				//opening the file once, creating it if needed, and streaming the content through the writer buffer
+				Path path = Paths.get(filePath);
+				if(path.getParent() != null){
+					Files.createDirectories(path.getParent());
+				}
+				try(BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)){
+					writer.write(content);
 				}
-				BufferedWriter writer = Files.newBufferedWriter(Paths.get(filePath));
-				writer.write(content);
-				writer.flush();	writer.close();
 			} catch(NullPointerException ne){
 				//empty, necessary for integration with git version control system
 			} catch(Exception e){
@@ -343,58 +326,91 @@ public final class FilesManager {
 	 * @return
 	 */
 	public static String getStringContentIntoSingleLineNoSpacing(String content) {
-		return (content.replaceAll("\\r\\n|\\r|\\n","")).replaceAll("\\s+","");
+		return ContentFingerprint.of(content).getNormalized();
 	}
 
 	/**
 	 * Extracts the merge conflicts of a string representation of merged code.
+	 * The code is scanned once, and each conflict records its lines and its characters offsets in the code.
+	 * During a merge, prefer the conflicts already extracted by {@link MergeContext#getSemistructuredMergeConflicts()} and
+	 * {@link MergeContext#getUnstructuredMergeConflicts()}.
 	 * @param mergedCode
 	 * @return list o merge conflicts
 	 */
 	public static List<MergeConflict> extractMergeConflicts(String mergedCode){
 		String CONFLICT_HEADER_BEGIN= "<<<<<<< MINE";
+		String CONFLICT_BASE		= "||||||| BASE";
 		String CONFLICT_MID			= "=======";
 		String CONFLICT_HEADER_END 	= ">>>>>>> YOURS";
-		String leftConflictingContent = "";
-		String rightConflictingContent= "";
+		StringBuilder leftConflictingContent = new StringBuilder();
+		StringBuilder baseConflictingContent = new StringBuilder();
+		StringBuilder rightConflictingContent= new StringBuilder();
 		boolean isConflictOpen		  = false;
 		boolean isLeftContent		  = false;
+		boolean isBaseContent		  = false;
 		int lineCounter				  = 0;
 		int startLOC				  = 0;
 		int endLOC				  	  = 0;
 
+		//next occurrence of each marker, so lines without markers are not searched
+		int nextBegin = mergedCode.indexOf(CONFLICT_HEADER_BEGIN);
+		int nextBase  = mergedCode.indexOf(CONFLICT_BASE);
+		int nextMid	  = mergedCode.indexOf(CONFLICT_MID);
+		int nextEnd	  = mergedCode.indexOf(CONFLICT_HEADER_END);
+
 		List<MergeConflict> mergeConflicts = new ArrayList<MergeConflict>();
-		List<String> lines = new ArrayList<>();
-		BufferedReader reader = new BufferedReader(new StringReader(mergedCode));
-		lines = reader.lines().collect(Collectors.toList());
-		Iterator<String> itlines = lines.iterator();
-		while(itlines.hasNext()){
-			String line = itlines.next();
+		int length	  = mergedCode.length();
+		int lineStart = 0;
+		while(lineStart < length){
+			//lines are terminated as in BufferedReader: \n, \r or \r\n
+			int lineEnd = lineStart;
+			while(lineEnd < length && mergedCode.charAt(lineEnd) != '\n' && mergedCode.charAt(lineEnd) != '\r'){
+				lineEnd++;
+			}
+			int nextLineStart = lineEnd;
+			if(nextLineStart < length){
+				nextLineStart += (mergedCode.charAt(nextLineStart) == '\r' && nextLineStart + 1 < length && mergedCode.charAt(nextLineStart + 1) == '\n') ? 2 : 1;
+			}
 			lineCounter++;
-			if(line.contains(CONFLICT_HEADER_BEGIN)){
+
+			if(nextBegin >= 0 && nextBegin < lineStart) nextBegin = mergedCode.indexOf(CONFLICT_HEADER_BEGIN, lineStart);
+			if(nextBase  >= 0 && nextBase  < lineStart) nextBase  = mergedCode.indexOf(CONFLICT_BASE, lineStart);
+			if(nextMid	 >= 0 && nextMid   < lineStart) nextMid   = mergedCode.indexOf(CONFLICT_MID, lineStart);
+			if(nextEnd	 >= 0 && nextEnd   < lineStart) nextEnd   = mergedCode.indexOf(CONFLICT_HEADER_END, lineStart);
+
+			if(nextBegin >= 0 && nextBegin + CONFLICT_HEADER_BEGIN.length() <= lineEnd){
 				isConflictOpen = true;
 				isLeftContent  = true;
 				startLOC = lineCounter;
 			}
-			else if(line.contains(CONFLICT_MID)){
+			else if(nextBase >= 0 && nextBase + CONFLICT_BASE.length() <= lineEnd){
 				isLeftContent = false;
+				isBaseContent = true;
 			}
-			else if(line.contains(CONFLICT_HEADER_END)) {
+			else if(nextMid >= 0 && nextMid + CONFLICT_MID.length() <= lineEnd){
+				isLeftContent = false;
+				isBaseContent = false;
+			}
+			else if(nextEnd >= 0 && nextEnd + CONFLICT_HEADER_END.length() <= lineEnd) {
 				endLOC = lineCounter;
-				MergeConflict mergeConflict = new MergeConflict(leftConflictingContent,rightConflictingContent,startLOC,endLOC);
+				MergeConflict mergeConflict = new MergeConflict(leftConflictingContent.toString(),rightConflictingContent.toString(),startLOC,endLOC);
+				mergeConflict.base = baseConflictingContent.toString();
 				mergeConflicts.add(mergeConflict);
 
 				//reseting the flags
 				isConflictOpen	= false;
 				isLeftContent   = false;
-				leftConflictingContent = "";
-				rightConflictingContent= "";
+				isBaseContent   = false;
+				leftConflictingContent.setLength(0);
+				baseConflictingContent.setLength(0);
+				rightConflictingContent.setLength(0);
 			} else {
 				if(isConflictOpen){
-					if(isLeftContent){leftConflictingContent+=line + "\n";
-					}else{rightConflictingContent+=line + "\n";}
+					StringBuilder content = isLeftContent ? leftConflictingContent : (isBaseContent ? baseConflictingContent : rightConflictingContent);
+					content.append(mergedCode, lineStart, lineEnd).append('\n');
 				}
 			}
+			lineStart = nextLineStart;
 		}
 		return mergeConflicts;
 	}
@@ -406,6 +422,10 @@ public final class FilesManager {
 	 * @param newContent
 	 */
 	public static boolean findAndReplaceASTNodeContent(FSTNode node, String oldContent, String newContent) {
+		return findAndReplaceASTNodeContent(node, ContentFingerprint.of(oldContent), newContent);
+	}
+
+	private static boolean findAndReplaceASTNodeContent(FSTNode node, ContentFingerprint oldContent, String newContent) {
 		if(node instanceof FSTNonTerminal){
 			for (FSTNode child : ((FSTNonTerminal)node).getChildren()) {
 				if(findAndReplaceASTNodeContent(child, oldContent, newContent)){
@@ -415,8 +435,7 @@ public final class FilesManager {
 		} else {
 			if(node instanceof FSTTerminal){
 				FSTTerminal terminal = (FSTTerminal) node;
-				if(getStringContentIntoSingleLineNoSpacing(terminal.getBody())
-						.equals(getStringContentIntoSingleLineNoSpacing(oldContent))){
+				if(ContentFingerprint.of(terminal.getBody()).isEquivalentTo(oldContent)){
 					terminal.setBody(newContent);
 					return true;
 				}
@@ -433,6 +452,10 @@ public final class FilesManager {
 	 * @return if the deletion was successful
 	 */
 	public static boolean findAndDeleteASTNode (FSTNode node, String content){
+		return findAndDeleteASTNode(node, ContentFingerprint.of(content));
+	}
+
+	private static boolean findAndDeleteASTNode (FSTNode node, ContentFingerprint content){
 		if(node instanceof FSTNonTerminal){
 			for (FSTNode child : ((FSTNonTerminal)node).getChildren()) {
 				if(findAndDeleteASTNode(child, content)){
@@ -441,8 +464,7 @@ public final class FilesManager {
 			}
 		} else {
 			if(node instanceof FSTTerminal){
-				if(getStringContentIntoSingleLineNoSpacing(((FSTTerminal) node).getBody())
-						.equals(getStringContentIntoSingleLineNoSpacing(content))){
+				if(ContentFingerprint.of(((FSTTerminal) node).getBody()).isEquivalentTo(content)){
 					FSTNonTerminal parent = ((FSTTerminal) node).getParent();
 					parent.removeChild(node);
 					return true;
@@ -532,7 +554,9 @@ public final class FilesManager {
 	 * Indents a given string representing Java source code.
 	 * @param sourceCode
 	 * @return indented sourceCode
+	 * @deprecated merged code is indented with the layout of the merged files, see {@link br.ufpe.cin.printers.SourceLayout}.
 	 */
+	@Deprecated
 	public static String indentCode(String sourceCode){
 		String indentedCode = sourceCode;
 		try{
@@ -544,6 +568,7 @@ public final class FilesManager {
 
 	/**
 	 * Optimization that merges files equals or consistently changed. e.g left equals to right.
+	 * Files are compared ignoring whitespace on their raw contents, and only the text of the resulting file is decoded.
 	 * @param left file
 	 * @param base file
 	 * @param right file
@@ -554,46 +579,39 @@ public final class FilesManager {
 	public static boolean areFilesDifferent(File left, File base, File right,String outputFilePath, MergeContext context) {
 		boolean result = true;
 
-		//reading files content
-		String auxleft = FilesManager.readFileContent(left);
-		String leftcontent = (auxleft == null)?"":auxleft;
-		String leftcontenttrim = (auxleft == null)?"":FilesManager.getStringContentIntoSingleLineNoSpacing(auxleft);
-
-		String auxright = FilesManager.readFileContent(right);
-		String rightcontent= (auxright == null)?"":auxright;
-		String rightcontenttrim= (auxright== null)?"":FilesManager.getStringContentIntoSingleLineNoSpacing(auxright);
-
-		String auxbase = FilesManager.readFileContent(base);
-		String basecontentrim = (auxbase == null)?"":FilesManager.getStringContentIntoSingleLineNoSpacing(auxbase);
+		//files content, already read by the context
+		FileContent leftcontent = context.getLeftFileContent();
+		FileContent rightcontent= context.getRightFileContent();
+		FileContent basecontent = context.getBaseFileContent();
 
 		//comparing files content
 		//#conflictsAnalyzer
-		if(basecontentrim.equals(leftcontenttrim) && rightcontenttrim.equals("")){
+		if(basecontent.isEquivalentTo(leftcontent) && rightcontent.isBlank()){
 			//result is right
-			context.semistructuredOutput = rightcontent;
-			context.unstructuredOutput = rightcontent;
+			context.semistructuredOutput = context.getRightContent();
+			context.unstructuredOutput = context.getRightContent();
 			result = false;
-		} else if(basecontentrim.equals(rightcontenttrim) && leftcontenttrim.equals("")){
+		} else if(basecontent.isEquivalentTo(rightcontent) && leftcontent.isBlank()){
 			//result is left
-			context.semistructuredOutput = leftcontent;
-			context.unstructuredOutput = leftcontent;
+			context.semistructuredOutput = context.getLeftContent();
+			context.unstructuredOutput = context.getLeftContent();
 			result = false;
-		} else if(leftcontenttrim.equals("") && basecontentrim.equals("") && !rightcontenttrim.equals("")) {
+		} else if(leftcontent.isBlank() && basecontent.isBlank() && !rightcontent.isBlank()) {
 			//result is right
-			context.semistructuredOutput = rightcontent;
-			context.unstructuredOutput = rightcontent;
+			context.semistructuredOutput = context.getRightContent();
+			context.unstructuredOutput = context.getRightContent();
 			result = false;
-		}else if(rightcontenttrim.equals("") && basecontentrim.equals("") && !leftcontenttrim.equals("")) {
+		}else if(rightcontent.isBlank() && basecontent.isBlank() && !leftcontent.isBlank()) {
 			//result is left
-			context.semistructuredOutput = leftcontent;
-			context.unstructuredOutput = leftcontent;
+			context.semistructuredOutput = context.getLeftContent();
+			context.unstructuredOutput = context.getLeftContent();
 			result = false;
 		} else
 		//#conflictsAnalyzer
-			if(leftcontenttrim.equals(rightcontenttrim)){
+			if(leftcontent.isEquivalentTo(rightcontent)){
 			//result is both left or right
-			context.semistructuredOutput = leftcontent;
-			context.unstructuredOutput = leftcontent;
+			context.semistructuredOutput = context.getLeftContent();
+			context.unstructuredOutput = context.getLeftContent();
 			result = false;
 		}
 		return result;
@@ -621,6 +639,19 @@ public final class FilesManager {
 		return ((longerLength - levenshteinDistance)/(double) longerLength);
 	}
 
+	/**
+	 * Compute the similarity between two given strings based on the <i>Levenshtein Distance</i>,
+	 * when only similarities at or above a given threshold matter. Much faster than {@link #computeStringSimilarity(String, String)}
+	 * for dissimilar strings, as the distance is only computed up to the threshold, see {@link StringSimilarity}.
+	 * @param first
+	 * @param second
+	 * @param threshold between 0.0 and 1.0
+	 * @return <b>double</b> exact similarity between 0.0 and 1.0 if it is at least the threshold, or a negative value otherwise
+	 */
+	public static double computeStringSimilarity(String first,String second, double threshold) {
+		return StringSimilarity.similarity(first, second, threshold);
+	}
+
 	@SuppressWarnings("unused")
 	private static String undoReplaceConflictMarkers(String indentedCode) {
 		// dummy code for identation purposes
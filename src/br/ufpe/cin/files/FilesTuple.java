@@ -1,6 +1,7 @@
 package br.ufpe.cin.files;
 
 import java.io.File;
+import java.nio.file.attribute.BasicFileAttributes;
 
 import br.ufpe.cin.mergers.util.MergeContext;
 
@@ -20,6 +21,11 @@ public class FilesTuple {
 	private MergeContext context;
 	
 	private String outputpath;
+
+	//attributes of the files read when listing the revisions, as their sizes and modification times
+	private BasicFileAttributes leftAttributes;
+	private BasicFileAttributes baseAttributes;
+	private BasicFileAttributes rightAttributes;
 	
 	public FilesTuple(File left, File base, File right){
 		this.leftFile = left;
@@ -74,6 +80,39 @@ public class FilesTuple {
 		this.outputpath = outputpath;
 	}
 
+	/**
+	 * @return attributes of the left file when the revisions were listed, or <b>null</b> if they were not read.
+	 */
+	public BasicFileAttributes getLeftAttributes() {
+		return leftAttributes;
+	}
+
+	public void setLeftAttributes(BasicFileAttributes leftAttributes) {
+		this.leftAttributes = leftAttributes;
+	}
+
+	/**
+	 * @return attributes of the base file when the revisions were listed, or <b>null</b> if they were not read.
+	 */
+	public BasicFileAttributes getBaseAttributes() {
+		return baseAttributes;
+	}
+
+	public void setBaseAttributes(BasicFileAttributes baseAttributes) {
+		this.baseAttributes = baseAttributes;
+	}
+
+	/**
+	 * @return attributes of the right file when the revisions were listed, or <b>null</b> if they were not read.
+	 */
+	public BasicFileAttributes getRightAttributes() {
+		return rightAttributes;
+	}
+
+	public void setRightAttributes(BasicFileAttributes rightAttributes) {
+		this.rightAttributes = rightAttributes;
+	}
+
 	@Override
 	public String toString() {
 		return "LEFT: " + ((leftFile == null) ? "empty" : leftFile.getAbsolutePath()) + "\n" +
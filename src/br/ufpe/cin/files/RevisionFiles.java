@@ -0,0 +1,99 @@
+package br.ufpe.cin.files;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Files and subdirectories of each directory of a revision, keyed by their path relative to the root of the revision,
+ * listed with a single walk of the revision. Files keep the attributes read by the walk, as their sizes and modification times.
+ * Symbolic links are followed, as when listing directories with {@link File#listFiles()}.
+ */
+final class RevisionFiles {
+
+	private final Map<String, Directory> directories = new HashMap<String, Directory>();
+
+	private RevisionFiles() {
+	}
+
+	/**
+	 * Walks the given revision.
+	 * @param root directory of the revision
+	 * @return files of the revision, with no directories if the root does not exist or cannot be read.
+	 */
+	static RevisionFiles walk(String root) {
+		RevisionFiles revision = new RevisionFiles();
+		Path rootPath = Paths.get(root);
+		try {
+			Files.walkFileTree(rootPath, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+					String relativePath = rootPath.relativize(dir).toString();
+					revision.directories.put(relativePath, new Directory());
+					if (!dir.equals(rootPath)) {
+						revision.directories.get(parent(relativePath)).subdirectories.add(dir.getFileName().toString());
+					}
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+					if (attrs.isRegularFile() && !file.equals(rootPath)) {
+						String relativePath = rootPath.relativize(file).toString();
+						revision.directories.get(parent(relativePath)).files.put(file.getFileName().toString(), attrs);
+					}
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException exc) {
+					//unreadable files and directories, and cycles of links, are skipped
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			//the visitor does not fail, so the walk lists what it could read
+		}
+		return revision;
+	}
+
+	/**
+	 * @param relativePath of a directory, empty for the root of the revision
+	 * @return the directory, or <b>null</b> if the revision has no such directory.
+	 */
+	Directory get(String relativePath) {
+		return directories.get(relativePath);
+	}
+
+	private static String parent(String relativePath) {
+		int separator = relativePath.lastIndexOf(File.separatorChar);
+		return (separator < 0) ? "" : relativePath.substring(0, separator);
+	}
+
+	/**
+	 * Files and subdirectories of a directory, in the order they were listed.
+	 */
+	static final class Directory {
+		final Map<String, BasicFileAttributes> files = new LinkedHashMap<String, BasicFileAttributes>();
+		final Set<String> subdirectories = new LinkedHashSet<String>();
+
+		/**
+		 * @return <b>true</b> if the directory has a file or subdirectory with the given name, <b>false</b> otherwise.
+		 */
+		boolean contains(String name) {
+			return files.containsKey(name) || subdirectories.contains(name);
+		}
+	}
+}
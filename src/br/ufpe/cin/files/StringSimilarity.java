@@ -0,0 +1,176 @@
+package br.ufpe.cin.files;
+
+import java.util.Arrays;
+
+/**
+ * Similarity between strings, as the contents of possibly renamed methods and of initialization blocks,
+ * based on the Levenshtein distance between them: (length of the longer string - distance)/length of the longer string.
+ * As handlers only ask whether two contents are similar enough, the distance is only computed up to
+ * the maximum distance allowed by the similarity threshold, in a band of the dynamic programming matrix,
+ * and strings whose lengths or characters are too different are rejected without computing it.
+ * The similarities at or above the threshold are exact, so the decisions and rankings of the handlers are kept.
+ * Computation buffers are reused by each thread.
+ */
+public final class StringSimilarity {
+
+	//characters are counted in 128 buckets, folding non-ASCII characters, which keeps the histogram bound valid
+	private static final int HISTOGRAM_BUCKETS = 128;
+
+	private static final int INFINITE_DISTANCE = Integer.MAX_VALUE / 2;
+
+	private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+	/**
+	 * Computes the similarity between two strings, if it is at least the given threshold.
+	 * @param first
+	 * @param second
+	 * @param threshold between 0.0 and 1.0
+	 * @return the exact similarity between 0.0 and 1.0 if it is greater than or equal to the threshold, or <b>-1.0</b> otherwise.
+	 */
+	public static double similarity(String first, String second, double threshold) {
+		int longerLength = Math.max(first.length(), second.length());
+		if (longerLength == 0) {
+			return 1.0; /* both strings are zero length */
+		}
+		int distance = boundedDistance(first, second, maxDistance(longerLength, threshold));
+		if (distance < 0) {
+			return -1.0;
+		}
+		return ((longerLength - distance) / (double) longerLength);
+	}
+
+	/**
+	 * Computes the Levenshtein distance between two strings, if it does not exceed the given maximum distance.
+	 * @param first
+	 * @param second
+	 * @param maxDistance
+	 * @return the distance, or <b>-1</b> if it is greater than maxDistance.
+	 */
+	public static int boundedDistance(String first, String second, int maxDistance) {
+		if (maxDistance < 0) {
+			return -1;
+		}
+
+		//common prefix and suffix do not change the distance
+		int start = 0;
+		int firstEnd = first.length(), secondEnd = second.length();
+		while (start < firstEnd && start < secondEnd && first.charAt(start) == second.charAt(start)) {
+			start++;
+		}
+		while (firstEnd > start && secondEnd > start && first.charAt(firstEnd - 1) == second.charAt(secondEnd - 1)) {
+			firstEnd--;
+			secondEnd--;
+		}
+
+		//the shorter string is placed along the rows of the matrix
+		String shorter = first, longer = second;
+		int shorterStart = start, shorterEnd = firstEnd, longerEnd = secondEnd;
+		if (firstEnd > secondEnd) {
+			shorter = second;
+			longer = first;
+			shorterEnd = secondEnd;
+			longerEnd = firstEnd;
+		}
+		int n = shorterEnd - shorterStart;
+		int m = longerEnd - start;
+
+		//cheap lower bounds of the distance
+		if (m - n > maxDistance) {
+			return -1;
+		}
+		if (n == 0) {
+			return m;
+		}
+		Buffers buffers = BUFFERS.get();
+		if (histogramDistance(buffers.histogram, shorter, shorterStart, shorterEnd, longer, start, longerEnd) > maxDistance) {
+			return -1;
+		}
+
+		//banded dynamic programming, keeping only cells at most maxDistance away from the diagonal
+		int[] previous = buffers.row(0, n + 1);
+		int[] current = buffers.row(1, n + 1);
+		int boundary = Math.min(n, maxDistance) + 1;
+		for (int i = 0; i < boundary; i++) {
+			previous[i] = i;
+		}
+		Arrays.fill(previous, boundary, n + 1, INFINITE_DISTANCE);
+		Arrays.fill(current, 0, n + 1, INFINITE_DISTANCE);
+
+		for (int j = 1; j <= m; j++) {
+			char longerChar = longer.charAt(start + j - 1);
+			int min = Math.max(1, j - maxDistance);
+			int max = Math.min(n, j + maxDistance);
+			if (min > max) {
+				return -1;
+			}
+			current[0] = j;
+			if (min > 1) {
+				current[min - 1] = INFINITE_DISTANCE;
+			}
+			int rowMinimum = (min == 1) ? j : INFINITE_DISTANCE;
+			for (int i = min; i <= max; i++) {
+				int cell;
+				if (shorter.charAt(shorterStart + i - 1) == longerChar) {
+					cell = previous[i - 1];
+				} else {
+					cell = 1 + Math.min(Math.min(current[i - 1], previous[i]), previous[i - 1]);
+				}
+				current[i] = cell;
+				if (cell < rowMinimum) {
+					rowMinimum = cell;
+				}
+			}
+			if (max < n) {
+				current[max + 1] = INFINITE_DISTANCE;
+			}
+			if (rowMinimum > maxDistance) { //distances never decrease along the following rows
+				return -1;
+			}
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		return (previous[n] <= maxDistance) ? previous[n] : -1;
+	}
+
+	/**
+	 * @return the greatest distance giving a similarity at or above the threshold, computed with the same expression as the similarity.
+	 */
+	private static int maxDistance(int longerLength, double threshold) {
+		int maxDistance = Math.min(longerLength, (int) Math.ceil(longerLength * (1 - threshold)) + 1);
+		while (maxDistance >= 0 && ((longerLength - maxDistance) / (double) longerLength) < threshold) {
+			maxDistance--;
+		}
+		return maxDistance;
+	}
+
+	/**
+	 * Each edit changes the characters histogram by at most two, so half of the histograms difference is a lower bound of the distance.
+	 */
+	private static int histogramDistance(int[] histogram, String first, int firstStart, int firstEnd, String second, int secondStart, int secondEnd) {
+		Arrays.fill(histogram, 0);
+		for (int i = firstStart; i < firstEnd; i++) {
+			histogram[first.charAt(i) & (HISTOGRAM_BUCKETS - 1)]++;
+		}
+		for (int i = secondStart; i < secondEnd; i++) {
+			histogram[second.charAt(i) & (HISTOGRAM_BUCKETS - 1)]--;
+		}
+		int difference = 0;
+		for (int count : histogram) {
+			difference += Math.abs(count);
+		}
+		return (difference + 1) / 2;
+	}
+
+	private static final class Buffers {
+		private final int[] histogram = new int[HISTOGRAM_BUCKETS];
+		private final int[][] rows = new int[2][64];
+
+		int[] row(int index, int length) {
+			if (rows[index].length < length) {
+				rows[index] = new int[Math.max(length, 2 * rows[index].length)];
+			}
+			return rows[index];
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package br.ufpe.cin.files.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import br.ufpe.cin.files.ContentFingerprint;
+
+/**
+ * Fingerprints must decide as the former comparisons of contents normalized by regular expressions:
+ * equivalence by equals, containment by contains and emptiness by isEmpty of the normalized contents.
+ */
+public class ContentFingerprintTest {
+
+	//whitespace matched by \s, other whitespace not matched by it, and some other characters
+	private static final char[] ALPHABET = {' ', '\t', '\n', '\r', '\f', '\u000B', '\u00A0', '\u2003', 'a', 'b', '{', '}', ';'};
+
+	@Test
+	public void testWhitespace() {
+		assertTrue(ContentFingerprint.areEquivalent("int a = 1;", " int  a=1 ;\r\n"));
+		assertTrue(ContentFingerprint.areEquivalent("a\u000Bb\fc", "abc"));
+		assertFalse(ContentFingerprint.areEquivalent("a\u00A0b", "ab"));
+		assertTrue(ContentFingerprint.of(" \t\r\n\f\u000B").isEmpty());
+		assertFalse(ContentFingerprint.of("\u00A0").isEmpty());
+		assertTrue(ContentFingerprint.of("").isEmpty());
+	}
+
+	@Test
+	public void testContainment() {
+		assertTrue(ContentFingerprint.of("void m() {\n\tint a;\n}").contains(ContentFingerprint.of("int a ;")));
+		assertTrue(ContentFingerprint.of("ab").contains(ContentFingerprint.of(" a b ")));
+		assertTrue(ContentFingerprint.of("ab").contains(ContentFingerprint.of(" ")));
+		assertFalse(ContentFingerprint.of("a").contains(ContentFingerprint.of("ab")));
+		assertFalse(ContentFingerprint.of("ab").contains(ContentFingerprint.of("ba")));
+	}
+
+	@Test
+	public void testSameAsRegularExpressions() {
+		Random random = new Random(3);
+		for (int i = 0; i < 20000; i++) {
+			String first = randomString(random);
+			String second = random.nextBoolean() ? randomString(random) : respace(random, first);
+			String firstNormalized = normalize(first), secondNormalized = normalize(second);
+			ContentFingerprint firstFingerprint = ContentFingerprint.of(first), secondFingerprint = ContentFingerprint.of(second);
+
+			String message = escape(first) + " / " + escape(second);
+			assertEquals(message, firstNormalized, firstFingerprint.getNormalized());
+			assertEquals(message, firstNormalized.length(), firstFingerprint.getLength());
+			assertEquals(message, firstNormalized.isEmpty(), firstFingerprint.isEmpty());
+			assertEquals(message, firstNormalized.equals(secondNormalized), firstFingerprint.isEquivalentTo(secondFingerprint));
+			assertEquals(message, firstNormalized.equals(secondNormalized), ContentFingerprint.areEquivalent(first, second));
+			assertEquals(message, firstNormalized.contains(secondNormalized), firstFingerprint.contains(secondFingerprint));
+			if (firstNormalized.equals(secondNormalized)) {
+				assertEquals(message, firstFingerprint.getHash(), secondFingerprint.getHash());
+			}
+		}
+	}
+
+	@Test
+	public void testMemoizedByIdentity() {
+		String content = "int a;";
+		assertSame(ContentFingerprint.of(content), ContentFingerprint.of(content));
+		assertTrue(ContentFingerprint.of(new String(content)).isEquivalentTo(ContentFingerprint.of(content)));
+
+		StringBuilder longContent = new StringBuilder();
+		while (longContent.length() <= 2 * 1024) {
+			longContent.append("int a;\n");
+		}
+		String longString = longContent.toString();
+		assertNotSame(ContentFingerprint.of(longString), ContentFingerprint.of(longString));
+		assertTrue(ContentFingerprint.of(longString).isEquivalentTo(ContentFingerprint.of(longString)));
+	}
+
+	/**
+	 * Former normalization of contents, by FilesManager.getStringContentIntoSingleLineNoSpacing.
+	 */
+	private static String normalize(String content) {
+		return (content.replaceAll("\\r\\n|\\r|\\n", "")).replaceAll("\\s+", "");
+	}
+
+	private static String randomString(Random random) {
+		StringBuilder string = new StringBuilder();
+		for (int i = random.nextInt(12); i > 0; i--) {
+			string.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+		}
+		return string.toString();
+	}
+
+	/**
+	 * Changes the whitespace of the given string, and sometimes one of its other characters.
+	 */
+	private static String respace(Random random, String string) {
+		StringBuilder respaced = new StringBuilder();
+		for (char c : string.toCharArray()) {
+			if (random.nextInt(4) == 0) {
+				respaced.append(ALPHABET[random.nextInt(6)]);
+			}
+			if (normalize(String.valueOf(c)).isEmpty() && random.nextBoolean()) {
+				continue;
+			}
+			respaced.append(random.nextInt(20) == 0 ? ALPHABET[random.nextInt(ALPHABET.length)] : c);
+		}
+		return respaced.toString();
+	}
+
+	private static String escape(String string) {
+		StringBuilder escaped = new StringBuilder();
+		for (char c : string.toCharArray()) {
+			escaped.append(Character.isLetterOrDigit(c) || "{};".indexOf(c) >= 0 ? String.valueOf(c) : String.format("\\u%04x", (int) c));
+		}
+		return escaped.toString();
+	}
+}
@@ -0,0 +1,141 @@
+package br.ufpe.cin.files.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.ufpe.cin.files.ContentFingerprint;
+import br.ufpe.cin.files.FileContent;
+
+/**
+ * Comparisons on the raw bytes of files must decide as the former comparisons of their decoded texts, see {@link FileContent#getText()}:
+ * files which are not valid UTF-8 have empty text.
+ */
+public class FileContentTest {
+
+	//whitespace, other characters encoded in one to four bytes, and invalid encodings
+	private static final byte[][] PIECES = {
+			bytes(' '), bytes('\t'), bytes('\n'), bytes('\r'), bytes('\r', '\n'), bytes('\f'), bytes(0x0b), bytes('a'), bytes('b'), bytes('{'),
+			"\u00e7".getBytes(StandardCharsets.UTF_8), "\u2003".getBytes(StandardCharsets.UTF_8), "\ud83d\ude00".getBytes(StandardCharsets.UTF_8),
+			bytes(0xff), bytes(0xc3), bytes(0xc0, 0xaf), bytes(0xe0, 0x80, 0x80), bytes(0xed, 0xa0, 0x80), bytes(0xf4, 0x90, 0x80, 0x80), bytes(0x80)
+	};
+
+	private File directory;
+	private int files;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("jfstmerge-content").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		FileUtils.deleteQuietly(directory);
+	}
+
+	@Test
+	public void testLineEndings() throws Exception {
+		FileContent lf = content("class A {\n\tint a;\n}\n".getBytes(StandardCharsets.UTF_8));
+		FileContent crlf = content("class A {\r\n\tint a;\r\n}".getBytes(StandardCharsets.UTF_8));
+		FileContent cr = content("class A {\r\tint a;\r}\r".getBytes(StandardCharsets.UTF_8));
+		assertTrue(lf.isEquivalentTo(crlf));
+		assertTrue(crlf.isEquivalentTo(cr));
+		assertTrue(content("\r\n\r\n \t".getBytes(StandardCharsets.UTF_8)).isBlank());
+		assertFalse(crlf.isEquivalentTo(content("class A {\r\n\tint b;\r\n}".getBytes(StandardCharsets.UTF_8))));
+	}
+
+	@Test
+	public void testInvalidUTF8() throws Exception {
+		FileContent invalid = content(bytes('a', 0xff, 'b'));
+		assertTrue(invalid.isBlank());
+		assertEquals("", content(bytes('a', 0xff, 'b')).getText());
+		assertTrue(invalid.isEquivalentTo(content(bytes('c', 0xc3))));
+		assertTrue(invalid.isEquivalentTo(content(bytes(' ', '\r', '\n'))));
+		assertFalse(invalid.isEquivalentTo(content(bytes('a', 'b'))));
+		assertTrue(invalid.isEquivalentTo(FileContent.EMPTY));
+		assertTrue(FileContent.read(new File(directory, "missing")).isEquivalentTo(invalid));
+	}
+
+	@Test
+	public void testSameAsDecodedTexts() throws Exception {
+		Random random = new Random(13);
+		for (int i = 0; i < 3000; i++) {
+			byte[] first = randomBytes(random);
+			byte[] second = random.nextBoolean() ? randomBytes(random) : respace(random, first);
+
+			//expected decisions on texts, by other contents, as comparisons decode nothing
+			String firstText = content(first).getText(), secondText = content(second).getText();
+			boolean blank = ContentFingerprint.of(firstText).isEmpty();
+			boolean equivalent = ContentFingerprint.areEquivalent(firstText, secondText);
+
+			String message = Arrays.toString(first) + " / " + Arrays.toString(second);
+			assertEquals(message, blank, content(first).isBlank());
+			assertEquals(message, equivalent, content(first).isEquivalentTo(content(second)));
+
+			//decisions after decoding
+			FileContent decoded = content(first);
+			decoded.getText();
+			assertEquals(message, blank, decoded.isBlank());
+			assertEquals(message, equivalent, decoded.isEquivalentTo(content(second)));
+		}
+	}
+
+	private FileContent content(byte[] bytes) throws IOException {
+		File file = new File(directory, "file" + (files++));
+		Files.write(file.toPath(), bytes);
+		return FileContent.read(file);
+	}
+
+	private static byte[] randomBytes(Random random) {
+		byte[] bytes = new byte[0];
+		for (int i = random.nextInt(10); i > 0; i--) {
+			//invalid encodings are rare, so that most contents are valid
+			byte[] piece = PIECES[random.nextInt(random.nextInt(8) == 0 ? PIECES.length : PIECES.length - 7)];
+			bytes = concat(bytes, piece);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Adds and removes whitespace bytes of the given content.
+	 */
+	private static byte[] respace(Random random, byte[] content) {
+		byte[] respaced = new byte[0];
+		for (byte b : content) {
+			if (random.nextInt(4) == 0) {
+				respaced = concat(respaced, PIECES[random.nextInt(7)]);
+			}
+			boolean whitespace = b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f' || b == 0x0b;
+			if (!whitespace || random.nextBoolean()) {
+				respaced = concat(respaced, bytes(b & 0xff));
+			}
+		}
+		return respaced;
+	}
+
+	private static byte[] concat(byte[] first, byte[] second) {
+		byte[] result = Arrays.copyOf(first, first.length + second.length);
+		System.arraycopy(second, 0, result, first.length, second.length);
+		return result;
+	}
+
+	private static byte[] bytes(int... values) {
+		byte[] bytes = new byte[values.length];
+		for (int i = 0; i < values.length; i++) {
+			bytes[i] = (byte) values[i];
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,122 @@
+package br.ufpe.cin.files.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.ufpe.cin.files.FilesManager;
+import br.ufpe.cin.files.FilesTuple;
+
+/**
+ * Tuples of each directory must come before the tuples of its subdirectories, matched in the order they are found in left,
+ * base and right versions. Subdirectories must be given by their absolute paths, as when listed by {@link FilesManager#listDirectories(String)}.
+ */
+public class FilesTuplesTest {
+
+	private File directory;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("jfstmerge-tuples").toFile();
+		for (String revision : new String[] {"L", "B", "R"}) {
+			write(revision + "/b");
+			write(revision + "/a/f");
+			write(revision + "/a/x/g");
+		}
+		write("B/m/h");
+		write("R/r/i");
+	}
+
+	@After
+	public void tearDown() {
+		FileUtils.deleteQuietly(directory);
+	}
+
+	@Test
+	public void testAbsoluteRevisions() {
+		String left = directory.getAbsolutePath() + File.separator + "L";
+		String base = directory.getAbsolutePath() + File.separator + "B";
+		String right= directory.getAbsolutePath() + File.separator + "R";
+		List<FilesTuple> tuples = FilesManager.fillFilesTuples(left, base, right, "", new ArrayList<String>());
+
+		assertTuples(tuples);
+		assertEquals(right, tuples.get(0).getOutputpath());
+	}
+
+	@Test
+	public void testRelativeRevisions() {
+		String revisions = Paths.get("").toAbsolutePath().relativize(directory.toPath()).toString();
+		String left = revisions + File.separator + "L";
+		String base = revisions + File.separator + "B";
+		String right= revisions + File.separator + "R";
+		List<FilesTuple> tuples = FilesManager.fillFilesTuples(left, base, right, "", new ArrayList<String>());
+
+		assertTuples(tuples);
+		assertEquals(right, tuples.get(0).getOutputpath());
+		assertEquals(new File(left, "b"), tuples.get(0).getLeftFile());
+		assertEquals(new File(left, "a" + File.separator + "f").getAbsoluteFile(), tuples.get(1).getLeftFile());
+		for (FilesTuple tuple : tuples.subList(1, tuples.size())) {
+			assertTrue(new File(tuple.getOutputpath()).isAbsolute());
+		}
+	}
+
+	@Test
+	public void testOutputDirectory() {
+		String output = directory.getAbsolutePath() + File.separator + "merged";
+		List<FilesTuple> tuples = FilesManager.fillFilesTuples(path("L"), path("B"), path("R"), output, new ArrayList<String>());
+		assertEquals(5, tuples.size());
+		for (FilesTuple tuple : tuples) {
+			assertEquals(output, tuple.getOutputpath());
+		}
+	}
+
+	private void assertTuples(List<FilesTuple> tuples) {
+		assertEquals(5, tuples.size());
+		assertTuple(tuples.get(0), "L/b", "B/b", "R/b", null);
+		assertTuple(tuples.get(1), "L/a/f", "B/a/f", "R/a/f", "R/a");
+		assertTuple(tuples.get(2), "L/a/x/g", "B/a/x/g", "R/a/x/g", "R/a/x");
+		assertTuple(tuples.get(3), null, "B/m/h", null, "R/m");
+		assertTuple(tuples.get(4), null, null, "R/r/i", "R/r");
+	}
+
+	/**
+	 * Checks the files of a tuple, and its output path when it is of a subdirectory.
+	 */
+	private void assertTuple(FilesTuple tuple, String left, String base, String right, String outputpath) {
+		assertEquals(file(left), absolute(tuple.getLeftFile()));
+		assertEquals(file(base), absolute(tuple.getBaseFile()));
+		assertEquals(file(right), absolute(tuple.getRightFile()));
+		if (outputpath != null) {
+			assertEquals(file(outputpath), absolute(new File(tuple.getOutputpath())));
+		}
+	}
+
+	private String path(String relativePath) {
+		return directory.getAbsolutePath() + File.separator + relativePath.replace('/', File.separatorChar);
+	}
+
+	private File file(String relativePath) {
+		return (relativePath != null) ? new File(path(relativePath)) : null;
+	}
+
+	private static File absolute(File file) {
+		return (file != null) ? file.toPath().toAbsolutePath().normalize().toFile() : null;
+	}
+
+	private void write(String relativePath) throws IOException {
+		File file = file(relativePath);
+		file.getParentFile().mkdirs();
+		FileUtils.write(file, relativePath);
+	}
+}
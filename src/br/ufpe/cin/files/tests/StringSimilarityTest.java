@@ -0,0 +1,110 @@
+package br.ufpe.cin.files.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import br.ufpe.cin.files.FilesManager;
+import br.ufpe.cin.files.StringSimilarity;
+
+/**
+ * The bounded similarity must be exactly the similarity computed with {@link StringUtils#getLevenshteinDistance(CharSequence, CharSequence)}
+ * when it reaches the threshold, and negative otherwise.
+ */
+public class StringSimilarityTest {
+
+	private static final double THRESHOLD = 0.7;
+
+	@Test
+	public void testEmptyStrings() {
+		assertSimilarity("", "");
+		assertSimilarity("", "abc");
+		assertSimilarity("abc", "");
+	}
+
+	@Test
+	public void testExactlyAtThreshold() {
+		//10 characters and 3 edits give (10 - 3)/10 = 0.7
+		assertEquals(0.7, StringSimilarity.similarity("abcdefghij", "abcXefYhiZ", THRESHOLD), 0.0);
+		assertEquals(-1.0, StringSimilarity.similarity("abcdefghij", "aWcXefYhiZ", THRESHOLD), 0.0);
+		assertSimilarity("abcdefghij", "abcXefYhiZ");
+		assertSimilarity("abcdefghij", "aWcXefYhiZ");
+	}
+
+	@Test
+	public void testDifferentLengths() {
+		assertSimilarity("public void m() {}", "public void m() { int i = 0; }");
+		assertSimilarity("abcdefghij", "abcdefghijklm");
+		assertSimilarity("abcdefghij", "abcdefghijklmn");
+	}
+
+	@Test
+	public void testNonAsciiCharacters() {
+		//characters folded into the same histogram bucket
+		assertSimilarity("a\u0080b\u0100c", "a\u0000b\u0180c");
+		assertSimilarity("a\u00e7\u00e3o = \"cora\u00e7\u00e3o\";", "acao = \"coracao\";");
+	}
+
+	@Test
+	public void testRandomEditsAroundThreshold() {
+		Random random = new Random(7);
+		for (int i = 0; i < 5000; i++) {
+			String first = randomString(random, 1 + random.nextInt(120));
+			//about 30% of edits, the distance of the threshold
+			int edits = (int) Math.round(first.length() * (0.2 + random.nextDouble() * 0.2));
+			assertSimilarity(first, edit(random, first, edits));
+		}
+	}
+
+	@Test
+	public void testBoundedDistance() {
+		Random random = new Random(11);
+		for (int i = 0; i < 2000; i++) {
+			String first = randomString(random, random.nextInt(40));
+			String second = edit(random, first, random.nextInt(15));
+			int distance = StringUtils.getLevenshteinDistance(first, second);
+			int maxDistance = random.nextInt(15);
+			assertEquals(first + " / " + second, (distance <= maxDistance) ? distance : -1, StringSimilarity.boundedDistance(first, second, maxDistance));
+		}
+	}
+
+	private static void assertSimilarity(String first, String second) {
+		double expected = FilesManager.computeStringSimilarity(first, second);
+		assertEquals(first + " / " + second, (expected >= THRESHOLD) ? expected : -1.0, StringSimilarity.similarity(first, second, THRESHOLD), 0.0);
+	}
+
+	private static String randomString(Random random, int length) {
+		StringBuilder string = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			string.append(randomChar(random));
+		}
+		return string.toString();
+	}
+
+	/**
+	 * Applies the given number of random replacements, insertions and deletions.
+	 */
+	private static String edit(Random random, String string, int edits) {
+		StringBuilder edited = new StringBuilder(string);
+		for (int i = 0; i < edits; i++) {
+			int position = edited.length() == 0 ? 0 : random.nextInt(edited.length());
+			int operation = edited.length() == 0 ? 1 : random.nextInt(3);
+			if (operation == 0) {
+				edited.setCharAt(position, randomChar(random));
+			} else if (operation == 1) {
+				edited.insert(position, randomChar(random));
+			} else {
+				edited.deleteCharAt(position);
+			}
+		}
+		return edited.toString();
+	}
+
+	private static char randomChar(Random random) {
+		//small alphabet, so edits often cancel out, and some non-ASCII characters
+		return random.nextInt(10) == 0 ? (char) (0x80 + random.nextInt(0x200)) : (char) ('a' + random.nextInt(6));
+	}
+}
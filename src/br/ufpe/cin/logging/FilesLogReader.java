@@ -0,0 +1,112 @@
+package br.ufpe.cin.logging;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import br.ufpe.cin.crypto.EncryptedLog;
+import br.ufpe.cin.exceptions.CryptoException;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+
+/**
+ * Reconstructs the contents of the merged files referenced by the files log (<i>jfstmerge.files</i>),
+ * in the format of the log before the contents were kept in the {@link SnapshotStore}: for each file,
+ * a line with the timestamp and the path of the file, the content of the file, and a separator line (<i>!@#$%</i>).
+ * Entries of the log already in this format are copied as they are. Encrypted logs and contents are decrypted.
+ * References to contents no longer stored, see {@link SnapshotStore#prune(long)}, are skipped.
+ * <i>java -cp jFSTMerge.jar br.ufpe.cin.logging.FilesLogReader -o files.txt</i>
+ */
+public final class FilesLogReader {
+
+	//log of activities
+	private static final Logger LOGGER = LoggerFactory.make();
+
+	private static final String SEPARATOR = "!@#$%";
+
+	//timestamp, hash of the content, path of the file
+	private static final Pattern REFERENCE = Pattern.compile("([^,]*),([0-9a-f]{64}),(.*)");
+
+	//command line options
+	@Parameter(names = "-i", description = "Files log to read. Optional. Default is ~/.jfstmerge/jfstmerge.files.")
+	String logpath = System.getProperty("user.home") + File.separator + ".jfstmerge" + File.separator + "jfstmerge.files";
+
+	@Parameter(names = "-s", description = "Directory of the stored contents. Optional. Default is ~/.jfstmerge/snapshots.")
+	String snapshotspath = System.getProperty("user.home") + File.separator + ".jfstmerge" + File.separator + "snapshots";
+
+	@Parameter(names = "-o", description = "Destination of the reconstructed log. Optional. Default is the console.")
+	String outputpath = "";
+
+	public static void main(String[] args) {
+		FilesLogReader reader = new FilesLogReader();
+		JCommander commandLineOptions = new JCommander(reader);
+		try {
+			commandLineOptions.parse(args);
+			if (!new File(reader.logpath).isFile()) {
+				throw new ParameterException(reader.logpath + " is not a valid file path.");
+			}
+		} catch (ParameterException pe) {
+			System.err.println(pe.getMessage());
+			commandLineOptions.setProgramName("FilesLogReader");
+			commandLineOptions.usage();
+			System.exit(-1);
+		}
+
+		try (OutputStream output = reader.outputpath.isEmpty() ? System.out : new FileOutputStream(reader.outputpath);
+				Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+			reader.read(new File(reader.logpath), new SnapshotStore(new File(reader.snapshotspath)), writer);
+		} catch (Exception e) {
+			System.err.println("An error occurred. See " + LoggerFactory.logfile + " file for more details.\n Send the log to gjcc@cin.ufpe.br for analysis if preferable.");
+			LOGGER.log(Level.SEVERE, "", e);
+			System.exit(-1);
+		}
+	}
+
+	/**
+	 * Writes the reconstructed log, reading the given log line by line.
+	 * @param log files log, encrypted or not
+	 * @param snapshots with the contents referenced by the log
+	 * @param output
+	 * @throws IOException
+	 * @throws CryptoException
+	 */
+	public void read(File log, SnapshotStore snapshots, Writer output) throws IOException, CryptoException {
+		boolean encrypted = log.length() > 0 && EncryptedLog.isFramed(log);
+		try (BufferedReader lines = new BufferedReader(encrypted
+				? new InputStreamReader(EncryptedLog.open(log), StandardCharsets.UTF_8)
+				: new InputStreamReader(new FileInputStream(log), Charset.defaultCharset()))) {
+			String line;
+			while ((line = lines.readLine()) != null) {
+				Matcher reference = REFERENCE.matcher(line);
+				if (reference.matches() && !snapshots.contains(reference.group(2))) {
+					LOGGER.log(Level.WARNING, "Content no longer stored: " + line);
+				} else if (reference.matches()) {
+					output.write(reference.group(1) + "," + reference.group(3) + "\n");
+					output.write(snapshots.read(reference.group(2)) + "\n");
+					output.write(SEPARATOR + "\n");
+				} else {
+					//entry with the content of the file, up to its separator
+					output.write(line + "\n");
+					while (!line.equals(SEPARATOR) && (line = lines.readLine()) != null) {
+						output.write(line + "\n");
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,239 @@
+package br.ufpe.cin.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.FileUtils;
+
+import br.ufpe.cin.crypto.EncryptedLog;
+import br.ufpe.cin.exceptions.CryptoException;
+
+/**
+ * Single background writer of the statistics logs. Logging tasks are queued, so merges do not wait for the logs,
+ * and run one at a time, in the order they were submitted, by the writer thread, so merges running concurrently can log safely.
+ * The writes of the tasks are not done right away: the writer runs every queued task, gathering their writes per file,
+ * and then writes each file once, coalescing its appends.
+ * Queued tasks are written before the JVM exits, see {@link #flush()}.
+ * Tasks must not read shared options, as the home folder or {@link br.ufpe.cin.app.JFSTMerge} options, which may change before they run:
+ * they are given the values read when they were submitted.
+ * Failures of tasks are kept until taken by the merges, see {@link #takeFailure()}.
+ */
+final class LogWriter {
+
+	//log of activities
+	private static final Logger LOGGER = LoggerFactory.make();
+
+	//maximum number of queued tasks. Merges wait for the writer when the queue is full
+	private static final int QUEUE_CAPACITY = 1024;
+
+	private static final BlockingQueue<LogTask> QUEUE = new ArrayBlockingQueue<LogTask>(QUEUE_CAPACITY);
+
+	//writes of the tasks already run and not yet written, per file, in the order the files were first written.
+	//only used by the writer thread
+	private static final Map<File, List<Write>> PENDING = new LinkedHashMap<File, List<Write>>();
+
+	//maximum number of tasks run before their writes are done
+	private static final int BATCH_SIZE = 64;
+
+	private static volatile Thread writer;
+
+	//first failure of the tasks run, or of their writes, since it was last taken
+	private static final AtomicReference<Exception> FAILURE = new AtomicReference<Exception>();
+
+	private LogWriter() {
+	}
+
+	/**
+	 * Logging task, run by the writer thread.
+	 */
+	interface LogTask {
+		void run() throws Exception;
+	}
+
+	/**
+	 * Queues the given task, starting the writer thread if needed.
+	 * @param task
+	 */
+	static void submit(LogTask task) {
+		start();
+		if (Thread.currentThread() == writer) { //tasks submitted by tasks run right away
+			run(task);
+			return;
+		}
+		try {
+			QUEUE.put(task);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Waits until all tasks submitted so far are run and their writes are done.
+	 */
+	static void flush() {
+		if (writer == null) {
+			return;
+		}
+		if (Thread.currentThread() == writer) {
+			writePending();
+			return;
+		}
+		CountDownLatch written = new CountDownLatch(1);
+		submit(() -> {
+			writePending();
+			written.countDown();
+		});
+		try {
+			written.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Runs the given task by the writer thread, after the tasks submitted so far, and waits until it is run and its writes are done.
+	 * @param task
+	 * @throws Exception thrown by the task
+	 */
+	static void execute(LogTask task) throws Exception {
+		Exception[] failure = new Exception[1];
+		submit(() -> {
+			try {
+				task.run();
+			} catch (Exception e) {
+				failure[0] = e;
+			}
+		});
+		flush();
+		if (failure[0] != null) {
+			throw failure[0];
+		}
+	}
+
+	/**
+	 * Returns the first failure of the tasks run, or of their writes, since the last call, so that merges report the logs that could not be written.
+	 * @return the failure, or <b>null</b> if the tasks did not fail.
+	 */
+	static Exception takeFailure() {
+		return FAILURE.getAndSet(null);
+	}
+
+	/**
+	 * Appends the given content to a file, as an encrypted record if required.
+	 * Must be called by tasks.
+	 */
+	static void append(File file, String content, boolean encrypted) {
+		List<Write> writes = PENDING.computeIfAbsent(file, f -> new ArrayList<Write>(1));
+		Write last = writes.isEmpty() ? null : writes.get(writes.size() - 1);
+		if (last != null && last.append && last.encrypted == encrypted) {
+			last.content.append(content);
+		} else {
+			writes.add(new Write(content, true, encrypted));
+		}
+	}
+
+	/**
+	 * Replaces the content of a file, discarding its previous pending writes.
+	 * Must be called by tasks.
+	 */
+	static void write(File file, String content) {
+		List<Write> writes = PENDING.computeIfAbsent(file, f -> new ArrayList<Write>(1));
+		writes.clear();
+		writes.add(new Write(content, false, false));
+	}
+
+	/**
+	 * @return <b>true</b> if the file has pending writes, <b>false</b> otherwise.
+	 * Must be called by tasks.
+	 */
+	static boolean isPending(File file) {
+		return PENDING.containsKey(file);
+	}
+
+	/**
+	 * @return <b>true</b> if the file exists or has pending writes, <b>false</b> otherwise.
+	 * Must be called by tasks.
+	 */
+	static boolean exists(File file) {
+		return file.exists() || PENDING.containsKey(file);
+	}
+
+	/**
+	 * Writes the pending writes of the tasks run so far.
+	 * Must be called by tasks before reading, renaming or deleting log files.
+	 */
+	static void writePending() {
+		for (Map.Entry<File, List<Write>> pending : PENDING.entrySet()) {
+			File file = pending.getKey();
+			for (Write write : pending.getValue()) {
+				try {
+					if (write.encrypted) {
+						EncryptedLog.append(file, write.content.toString());
+					} else {
+						FileUtils.write(file, write.content, write.append);
+					}
+				} catch (IOException | CryptoException e) {
+					LOGGER.log(Level.SEVERE, "Error writing " + file, e);
+					FAILURE.compareAndSet(null, e);
+				}
+			}
+		}
+		PENDING.clear();
+	}
+
+	private static synchronized void start() {
+		if (writer == null) {
+			writer = new Thread(LogWriter::runTasks, "jfstmerge-log-writer");
+			writer.setDaemon(true);
+			writer.start();
+			//writing queued logs when the JVM exits, even through System.exit
+			Runtime.getRuntime().addShutdownHook(new Thread(LogWriter::flush));
+		}
+	}
+
+	private static void runTasks() {
+		while (true) {
+			try {
+				run(QUEUE.take());
+				LogTask task;
+				for (int i = 1; i < BATCH_SIZE && (task = QUEUE.poll()) != null; i++) {
+					run(task);
+				}
+				writePending();
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	private static void run(LogTask task) {
+		try {
+			task.run();
+		} catch (Exception e) {
+			LOGGER.log(Level.SEVERE, "", e);
+			FAILURE.compareAndSet(null, e);
+		}
+	}
+
+	private static final class Write {
+		private final StringBuilder content;
+		private final boolean append;
+		private final boolean encrypted;
+
+		Write(String content, boolean append, boolean encrypted) {
+			this.content = new StringBuilder(content);
+			this.append = append;
+			this.encrypted = encrypted;
+		}
+	}
+}
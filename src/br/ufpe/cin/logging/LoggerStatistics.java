@@ -1,17 +1,25 @@
 package br.ufpe.cin.logging;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-import org.apache.commons.io.FileUtils;
 
 import br.ufpe.cin.app.JFSTMerge;
 import br.ufpe.cin.crypto.CryptoUtils;
+import br.ufpe.cin.crypto.EncryptedLog;
 import br.ufpe.cin.exceptions.CryptoException;
 import br.ufpe.cin.exceptions.ExceptionUtils;
 import br.ufpe.cin.exceptions.PrintException;
@@ -24,55 +32,86 @@ public class LoggerStatistics {
 	//variable to avoid infinite recursion when trying to fix cryptographic issues 
 	public static int numberOfCriptographyFixAttempts = 0;
 
+	//maximum size of the stored contents, checked when the files log is backed up
+	private static final long MAX_SNAPSHOTS_SIZE = 256L * 1024 * 1024;
+
+	//aggregates of the statistics logs, per record, kept while their records have pending writes. Only used by the log writer
+	private static final Map<File, StatisticsAggregate> aggregates = new HashMap<File, StatisticsAggregate>();
+
 	//managing enable/disable of cryptography
 	static{ 
 		if(!JFSTMerge.isCryptographed){
-			try {
-				String logpath   = System.getProperty("user.home")+ File.separator + ".jfstmerge" + File.separator;
-
-				logpath = logpath + "jfstmerge.statistics";
-				File file = new File(logpath);
-				CryptoUtils.decrypt(file, file);
+			String logpath   = System.getProperty("user.home")+ File.separator + ".jfstmerge" + File.separator;
+			decryptLog(new File(logpath + "jfstmerge.statistics"));
+			decryptLog(new File(logpath + "jfstmerge.files"));
+		}
+	}
 
-				logpath = logpath + "jfstmerge.files";
-				file = new File(logpath);
+	private static void decryptLog(File file){
+		try {
+			if(file.length() > 0 && EncryptedLog.isFramed(file)){
+				EncryptedLog.decrypt(file, file);
+			} else {
 				CryptoUtils.decrypt(file, file);
-
-			} catch (CryptoException e) {
-				// the files are already decrypted, no need for further action
 			}
+		} catch (CryptoException e) {
+			// the file is already decrypted, no need for further action
 		}
 	}
 
+	/**
+	 * Logs the statistics of a merged file in background, see {@link LogWriter}.
+	 * The log folder, the logging options and the contents of the merged files are read right away,
+	 * so the log is written as it would be when the file was merged.
+	 * @param msg statistics of the merged file
+	 * @param context of the merged file
+	 * @throws PrintException in case an earlier log could not be written. 
+	 * Logs still queued when the last merge returns are only reported in the log of activities.
+	 */
 	public static void logContext(String msg, MergeContext context) throws PrintException{
+		String timeStamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(Calendar.getInstance().getTime());
+		Settings settings = new Settings();
+		List<LoggedFile> files = new ArrayList<LoggedFile>(3);
+		if(settings.logFiles){
+			addLoggedFile(files, context.getLeft(), context.getLeftContent());
+			addLoggedFile(files, context.getBase(), context.getBaseContent());
+			addLoggedFile(files, context.getRight(), context.getRightContent());
+		}
+		LogWriter.submit(() -> logContext(settings, timeStamp, msg, files));
+
+		Exception failure = LogWriter.takeFailure();
+		if(failure != null){
+			throw new PrintException(ExceptionUtils.getCauseMessage(failure));
+		}
+	}
+
+	private static void addLoggedFile(List<LoggedFile> files, File file, String content){
+		if(!content.isEmpty()){
+			files.add(new LoggedFile(file.getAbsolutePath(), content));
+		}
+	}
+
+	private static void logContext(Settings settings, String timeStamp, String msg, List<LoggedFile> files) throws PrintException{
 		try{
-			initializeLogger();
+			initializeLogger(settings);
 
 			//logging
-			String timeStamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(Calendar.getInstance().getTime());
-			String logpath   = System.getProperty("user.home")+ File.separator + ".jfstmerge" + File.separator;
 			String logentry	 = timeStamp+","+msg+"\n";
-			logpath = logpath + "jfstmerge.statistics";
-			File statisticsLog = new File(logpath);
-
-			if(JFSTMerge.isCryptographed){
-				CryptoUtils.decrypt(statisticsLog, statisticsLog);
-			}
+			File statisticsLog = new File(settings.logpath + "jfstmerge.statistics");
 
-			FileUtils.write(statisticsLog, logentry, true);
+			appendLog(statisticsLog, logentry, settings.cryptographed);
+			logSummary(settings, logentry);
 
-			if(JFSTMerge.logFiles){
+			if(!files.isEmpty()){
 				//logging merged files for further analysis
-				logFiles(timeStamp,context);
+				logFiles(settings, timeStamp, files);
 			}
-			
-			logSummary();
 		}
 		catch (CryptoException c)
 		{
-			String logpath   = System.getProperty("user.home")+ File.separator + ".jfstmerge" + File.separator;
-			logpath = logpath + "jfstmerge.statistics";
+			String logpath = settings.logpath + "jfstmerge.statistics";
 			File log = new File(logpath);
+			LogWriter.writePending();
 			if (log.exists())
 			{
 				File log_defect = new File(logpath+"_defect"+System.currentTimeMillis());
@@ -82,7 +121,7 @@ public class LoggerStatistics {
 			if(numberOfCriptographyFixAttempts < 1)
 			{
 				numberOfCriptographyFixAttempts++;
-				logContext(msg,context);
+				logContext(settings,timeStamp,msg,files);
 			}
 		}
 		catch(Exception e){
@@ -90,8 +129,16 @@ public class LoggerStatistics {
 		}
 	}
 
-	public static void logScenario(String loggermsg) throws IOException {
-		String logpath = System.getProperty("user.home")+ File.separator + ".jfstmerge" + File.separator;
+	/**
+	 * Logs the statistics of a merge scenario in background, see {@link LogWriter}.
+	 * @param loggermsg statistics of the merge scenario
+	 */
+	public static void logScenario(String loggermsg) {
+		Settings settings = new Settings();
+		LogWriter.submit(() -> writeScenario(settings.logpath, loggermsg));
+	}
+
+	private static void writeScenario(String logpath, String loggermsg) {
 		new File(logpath).mkdirs(); //ensuring that the directories exists	
 		logpath = logpath + "jfstmerge.statistics.scenarios";
 
@@ -100,187 +147,171 @@ public class LoggerStatistics {
 				+ "ssmergeinitlblocksconfs,ssmergeacidentalconfs,unmergeconfs,unmergeloc,unmergetime,ssmergetime,unmergeduplicateddeclarationerrors,"
 				+ "unmergeorderingconfs,equalconfs\n";
 		File statisticsLog = new File(logpath);
-		if(!statisticsLog.exists()){
-			FileUtils.write(statisticsLog, header, true);
+		if(!LogWriter.exists(statisticsLog)){
+			LogWriter.append(statisticsLog, header, false);
 		}
 
-		FileUtils.write(statisticsLog, loggermsg, true);
+		LogWriter.append(statisticsLog, loggermsg, false);
 	}
 
-	public static void logConflicts(List<MergeConflict> conflicts, Source source) throws IOException {
-		String logpath = System.getProperty("user.home")+ File.separator + ".jfstmerge" + File.separator;
-		new File(logpath).mkdirs(); //ensuring that the directories exists	
+	/**
+	 * Logs the given conflicts in background, see {@link LogWriter}.
+	 * @param conflicts
+	 * @param source of the conflicts, or <b>null</b> for conflicts reported by both merge tools.
+	 */
+	public static void logConflicts(List<MergeConflict> conflicts, Source source) {
+		Settings settings = new Settings();
+		List<String> entries = new ArrayList<String>(conflicts.size());
 		for(MergeConflict mc : conflicts){
 			String origin =  ((mc.leftOriginFile != null) ? mc.leftOriginFile.getAbsolutePath() : "<empty left>") 
 					+ ";" + ((mc.baseOriginFile  != null) ? mc.baseOriginFile.getAbsolutePath() : "<empty base>") 
 					+ ";" + ((mc.rightOriginFile != null) ? mc.rightOriginFile.getAbsolutePath(): "<empty right>");
+			entries.add(origin+'\n'+mc.body+'\n');
 			if(source == null){
-				File f = new File(logpath + "conflicts.equals");
-				FileUtils.write(f,(origin+'\n'+mc.body+'\n'),true);
 				break;
+			}
+		}
+		LogWriter.submit(() -> writeConflicts(settings.logpath, entries, source));
+	}
+
+	private static void writeConflicts(String logpath, List<String> entries, Source source) {
+		new File(logpath).mkdirs(); //ensuring that the directories exists	
+		for(String entry : entries){
+			if(source == null){
+				File f = new File(logpath + "conflicts.equals");
+				LogWriter.append(f,entry,false);
 			}else {
 				switch (source) {
 				case UNSTRUCTURED:
 					File f = new File(logpath + "conflicts.unstructured");
-					FileUtils.write(f,(origin+'\n'+mc.body+'\n'),true);
+					LogWriter.append(f,entry,false);
 					break;
 				case SEMISTRUCTURED:
 					f = new File(logpath + "conflicts.semistructured");
-					FileUtils.write(f,(origin+'\n'+mc.body+'\n'),true);
+					LogWriter.append(f,entry,false);
 					break;
 				}
 			}
 		}
 	}
 
-	@SuppressWarnings("unused")
-	private static void logSummary() throws IOException{
-		try{
-			//retrieving statistics
-			String logpath   = System.getProperty("user.home")+ File.separator + ".jfstmerge" + File.separator;
-			new File(logpath).mkdirs(); //ensuring that the directories exists	
-			File statistics = new File(logpath+ "jfstmerge.statistics");
-			if(statistics.exists()){
-				int ssmergeconfs = 0;
-				int ssmergeloc = 0;
-				int ssmergerenamingconfs = 0;
-				int ssmergedeletionconfs = 0;
-				int ssmergetaeconfs = 0;
-				int ssmergenereoconfs = 0;
-				int ssmergeinitlblocksconfs = 0;
-				int ssmergeacidentalconfs = 0;
-				int unmergeconfs = 0;
-				int unmergeloc = 0;
-				long unmergetime = 0;
-				long ssmergetime = 0;
-				int duplicateddeclarationerrors = 0;
-				int unmergeorderingconfs = 0;
-				int equalconfs = 0;
-
-				List<String> lines = Files.readAllLines(statistics.toPath());
-				for(int i = 1; i <lines.size(); i++){
-					String[] columns = lines.get(i).split(",");
-
-					ssmergeconfs += Integer.valueOf(columns[2]);
-					ssmergeloc 	 += Integer.valueOf(columns[3]);
-					ssmergerenamingconfs += Integer.valueOf(columns[4]);
-					ssmergedeletionconfs += Integer.valueOf(columns[5]);
-					ssmergetaeconfs   += Integer.valueOf(columns[6]);
-					ssmergenereoconfs += Integer.valueOf(columns[7]);
-					ssmergeinitlblocksconfs += Integer.valueOf(columns[8]);
-					ssmergeacidentalconfs 	+= Integer.valueOf(columns[9]);
-					unmergeconfs += Integer.valueOf(columns[10]);
-					unmergeloc 	 += Integer.valueOf(columns[11]);
-					unmergetime  += Long.parseLong(columns[12]);
-					ssmergetime  += Long.parseLong((columns[13]));
-					duplicateddeclarationerrors += Integer.valueOf(columns[14]);
-					unmergeorderingconfs += Integer.valueOf(columns[15]);
-					equalconfs 	 += Integer.valueOf(columns[16]);
-				}
-
-				if(JFSTMerge.isCryptographed){
-					CryptoUtils.encrypt(statistics, statistics);
-				}
-
-				//summarizing retrieved statistics
-				int JAVA_FILES = lines.size() -1;
-				//int FP_UN = (unmergeconfs - ssmergeconfs) + duplicateddeclarationerrors - (ssmergetaeconfs + ssmergenereoconfs + ssmergeinitlblocksconfs);FP_UN=(FP_UN>0)?FP_UN:0;
-				int FP_UN = unmergeorderingconfs;
-				int FN_UN = duplicateddeclarationerrors;
-				int FP_SS = ssmergerenamingconfs;
-				int FN_SS = (ssmergetaeconfs + ssmergenereoconfs + ssmergeinitlblocksconfs) + ssmergeacidentalconfs;
-				double M = ((double)ssmergetime / 1000000000);
-				double N = ((double)unmergetime / 1000000000);
-
-				StringBuilder summary = fillSummaryMsg(ssmergeconfs, ssmergeloc,
-						unmergeconfs, unmergeloc, equalconfs, JAVA_FILES, FP_UN,
-						FN_UN, FP_SS, FN_SS, M, N);
-
-				//print summary
-				File fsummary = new File(logpath+ "jfstmerge.summary");
-				if(!fsummary.exists()){
-					fsummary.createNewFile();
-				}
-
-				FileUtils.write(fsummary, summary.toString(),false);
-			}
-		}
-		catch(CryptoException c)
-		{
-			String logpath   = System.getProperty("user.home")+ File.separator + ".jfstmerge" + File.separator;
-			logpath = logpath + "jfstmerge.statistics";
-			File log = new File(logpath);
-			if (log.exists())
-			{
-				File log_defect = new File(logpath+"_defect"+System.currentTimeMillis());
-				log.renameTo(log_defect);
-			}
-			if(numberOfCriptographyFixAttempts < 1)
-			{
-				numberOfCriptographyFixAttempts++;
-				logSummary();
+	/**
+	 * Adds the given entry of the statistics log to the persisted aggregate, and updates the summary from it.
+	 * Without a valid aggregate, it is rebuilt from the statistics log, which must already have the entry.
+	 * The persisted aggregate is read again once its pending writes are done, as other processes may update it.
+	 * @param logentry
+	 * @throws IOException
+	 */
+	private static void logSummary(Settings settings, String logentry) throws IOException, CryptoException{
+		File record = new File(settings.logpath + "jfstmerge.statistics.aggregate");
+		StatisticsAggregate current = LogWriter.isPending(record) ? aggregates.get(record) : StatisticsAggregate.read(record);
+		if(current == null){
+			LogWriter.writePending();
+			current = readStatistics(new File(settings.logpath + "jfstmerge.statistics"), settings.cryptographed);
+		} else {
+			long[] values = StatisticsAggregate.parseEntry(logentry);
+			if(values != null){
+				current.add(values);
 			}
 		}
+		aggregates.put(record, current);
+		LogWriter.write(record, current.format());
+		writeSummary(settings.logpath, current);
 	}
 
-	private static void logFiles(String timeStamp, MergeContext context) throws IOException {
-		try{
-			//initialization
-			String logpath = System.getProperty("user.home")+ File.separator + ".jfstmerge" + File.separator;
-			new File(logpath).mkdirs(); //ensuring that the directories exists	
-			logpath = logpath + "jfstmerge.files";
-			manageLogBuffer(logpath);
-			File logfiles = new File(logpath);
-
-			if(!logfiles.exists()){
-				logfiles.createNewFile();
-
-				if(JFSTMerge.isCryptographed){
-					CryptoUtils.encrypt(logfiles, logfiles);
-				}
-			}
-
-			if(JFSTMerge.isCryptographed){
-				CryptoUtils.decrypt(logfiles, logfiles); 
-			}
-
-			//writing source code content
-			//left
-			String leftcontent = context.getLeftContent();
-			if(!leftcontent.isEmpty()){
+	/**
+	 * Rebuilds the persisted aggregate and the summary from the whole statistics log, 
+	 * to migrate logs written before the aggregate existed, or to repair an aggregate out of sync with its log.
+	 * It waits for the statistics logged so far, and for the rebuilt aggregate and summary to be written.
+	 * @throws Exception
+	 */
+	public static void rebuildSummary() throws Exception{
+		Settings settings = new Settings();
+		LogWriter.execute(() -> {
+			new File(settings.logpath).mkdirs(); //ensuring that the directories exists	
+			LogWriter.writePending();
+			File record = new File(settings.logpath + "jfstmerge.statistics.aggregate");
+			StatisticsAggregate aggregate = readStatistics(new File(settings.logpath+ "jfstmerge.statistics"), settings.cryptographed);
+			aggregates.put(record, aggregate);
+			LogWriter.write(record, aggregate.format());
+			writeSummary(settings.logpath, aggregate);
+		});
+	}
 
-				FileUtils.write(logfiles, timeStamp+","+context.getLeft().getAbsolutePath()+"\n", true);
-				FileUtils.write(logfiles, leftcontent + "\n", true);
-				FileUtils.write(logfiles, "!@#$%\n", true); //separator
-			}
+	/**
+	 * Waits until the statistics logged so far are written.
+	 */
+	public static void flush(){
+		LogWriter.flush();
+	}
 
-			//base
-			String basecontent = context.getBaseContent();
-			if(!basecontent.isEmpty()){
+	/**
+	 * Computes the aggregate of the statistics log, streaming it without decrypting it to disk.
+	 */
+	private static StatisticsAggregate readStatistics(File statistics, boolean cryptographed) throws IOException, CryptoException{
+		if(!statistics.exists()){
+			return StatisticsAggregate.of(new StringReader(""));
+		}
+		try(Reader log = cryptographed 
+				? new InputStreamReader(EncryptedLog.open(statistics), StandardCharsets.UTF_8) 
+				: new InputStreamReader(new FileInputStream(statistics), Charset.defaultCharset())){
+			return StatisticsAggregate.of(log);
+		}
+	}
 
-				FileUtils.write(logfiles, timeStamp+","+context.getBase().getAbsolutePath()+"\n", true);
-				FileUtils.write(logfiles, basecontent + "\n", true);
-				FileUtils.write(logfiles, "!@#$%\n", true); 
-			}
+	/**
+	 * Appends the given entry to a log, as an encrypted record if cryptography is enabled.
+	 */
+	private static void appendLog(File log, String entry, boolean cryptographed) throws CryptoException{
+		if(cryptographed){
+			EncryptedLog.prepare(log);
+		}
+		LogWriter.append(log, entry, cryptographed);
+	}
 
-			//right
-			String rightcontent = context.getRightContent();
-			if(!rightcontent.isEmpty()){
+	private static void writeSummary(String logpath, StatisticsAggregate aggregate) throws IOException{
+		//summarizing retrieved statistics
+		long JAVA_FILES = aggregate.getFiles();
+		long FP_UN = aggregate.get(StatisticsAggregate.UNMERGE_ORDERING_CONFS);
+		long FN_UN = aggregate.get(StatisticsAggregate.DUPLICATED_DECLARATION_ERRORS);
+		long FP_SS = aggregate.get(StatisticsAggregate.SSMERGE_RENAMING_CONFS);
+		long FN_SS = (aggregate.get(StatisticsAggregate.SSMERGE_TAE_CONFS) + aggregate.get(StatisticsAggregate.SSMERGE_NEREO_CONFS) 
+				+ aggregate.get(StatisticsAggregate.SSMERGE_INITLBLOCKS_CONFS)) + aggregate.get(StatisticsAggregate.SSMERGE_ACIDENTAL_CONFS);
+		double M = ((double)aggregate.get(StatisticsAggregate.SSMERGE_TIME) / 1000000000);
+		double N = ((double)aggregate.get(StatisticsAggregate.UNMERGE_TIME) / 1000000000);
+
+		StringBuilder summary = fillSummaryMsg(aggregate.get(StatisticsAggregate.SSMERGE_CONFS), aggregate.get(StatisticsAggregate.SSMERGE_LOC),
+				aggregate.get(StatisticsAggregate.UNMERGE_CONFS), aggregate.get(StatisticsAggregate.UNMERGE_LOC), aggregate.get(StatisticsAggregate.EQUAL_CONFS), 
+				JAVA_FILES, FP_UN, FN_UN, FP_SS, FN_SS, M, N);
+
+		//print summary
+		File fsummary = new File(logpath+ "jfstmerge.summary");
+		LogWriter.write(fsummary, summary.toString());
+	}
 
-				FileUtils.write(logfiles, timeStamp+","+context.getRight().getAbsolutePath()+"\n", true);
-				FileUtils.write(logfiles, rightcontent + "\n", true);
-				FileUtils.write(logfiles, "!@#$%\n", true); 
+	private static void logFiles(Settings settings, String timeStamp, List<LoggedFile> files) throws IOException {
+		try{
+			//initialization
+			new File(settings.logpath).mkdirs(); //ensuring that the directories exists	
+			String logpath = settings.logpath + "jfstmerge.files";
+			SnapshotStore snapshots = new SnapshotStore(new File(settings.logpath + "snapshots"));
+			if(manageLogBuffer(logpath)){
+				snapshots.prune(MAX_SNAPSHOTS_SIZE);
 			}
+			File logfiles = new File(logpath);
 
-			if(JFSTMerge.isCryptographed){
-				CryptoUtils.encrypt(logfiles, logfiles); 
+			//storing source code content of left, base and right, and referencing them in the log
+			StringBuilder entry = new StringBuilder();
+			for(LoggedFile file : files){
+				appendReference(entry, timeStamp, file, snapshots, settings.cryptographed);
 			}
+			appendLog(logfiles, entry.toString(), settings.cryptographed);
 		}
 		catch (CryptoException c)
 		{
-			String logpath   = System.getProperty("user.home")+ File.separator + ".jfstmerge" + File.separator;
-			logpath = logpath + "jfstmerge.files";
+			String logpath = settings.logpath + "jfstmerge.files";
 			File log = new File(logpath);
+			LogWriter.writePending();
 			if (log.exists())
 			{
 				File log_defect = new File(logpath+"_defect"+System.currentTimeMillis());
@@ -289,15 +320,23 @@ public class LoggerStatistics {
 			if(numberOfCriptographyFixAttempts < 1)
 			{
 				numberOfCriptographyFixAttempts++;
-				logFiles(timeStamp,context);
+				logFiles(settings,timeStamp,files);
 			}
 		}
 	}
 
-	private static void initializeLogger() throws IOException, CryptoException {
-		String logpath = System.getProperty("user.home")+ File.separator + ".jfstmerge" + File.separator;
-		new File(logpath).mkdirs(); //ensuring that the directories exists	
-		logpath = logpath + "jfstmerge.statistics";
+	/**
+	 * Stores the content of the given file, and appends to the entry a reference to it (timestamp, hash of the content, file path).
+	 * {@link FilesLogReader} reconstructs the contents of the log.
+	 */
+	private static void appendReference(StringBuilder entry, String timeStamp, LoggedFile file, SnapshotStore snapshots, boolean cryptographed) throws IOException, CryptoException {
+		String hash = snapshots.store(file.content, cryptographed);
+		entry.append(timeStamp).append(',').append(hash).append(',').append(file.path).append('\n');
+	}
+
+	private static void initializeLogger(Settings settings) throws IOException, CryptoException {
+		new File(settings.logpath).mkdirs(); //ensuring that the directories exists	
+		String logpath = settings.logpath + "jfstmerge.statistics";
 
 		//manageLogBuffer(logpath);
 
@@ -306,35 +345,41 @@ public class LoggerStatistics {
 				+ "unmergeorderingconfs,equalconfs\n";
 
 		//reading the log file to see if it is not empty neither contains the header
-		if(!new File(logpath).exists()){
+		if(!LogWriter.exists(new File(logpath))){
 			File statisticsLog = new File(logpath);
-			FileUtils.write(statisticsLog, header, true);
+			appendLog(statisticsLog, header, settings.cryptographed);
 
-			if(JFSTMerge.isCryptographed){
-				CryptoUtils.encrypt(statisticsLog, statisticsLog);
-			}
+			//the aggregate of a previous log does not summarize the new one
+			StatisticsAggregate aggregate = new StatisticsAggregate();
+			File record = new File(logpath + ".aggregate");
+			aggregates.put(record, aggregate);
+			LogWriter.write(record, aggregate.format());
 		}
 	}
 
 	/**
 	 * When log's size reaches 4 megabytes,a new empty log is started, and the previous one is backup.
 	 * @param logpath
+	 * @return <b>true</b> if a new log was started, <b>false</b> otherwise.
 	 * @throws CryptoException 
 	 */
-	private static void manageLogBuffer(String logpath) throws CryptoException {
+	private static boolean manageLogBuffer(String logpath) throws CryptoException {
 		File log = new File(logpath);
 		if(log.exists()){
 			long logSizeMB = log.length() / (1024 * 1024);
 			if(logSizeMB >= 4){
 				File newLog = new File(logpath+System.currentTimeMillis());
+				LogWriter.writePending();
 				log.renameTo(newLog);
+				return true;
 			}
 		}
+		return false;
 	}
 
-	private static StringBuilder fillSummaryMsg(int ssmergeconfs,
-			int ssmergeloc, int unmergeconfs, int unmergeloc, int equalconfs,
-			int JAVA_FILES, int FP_UN, int FN_UN, int FP_SS, int FN_SS,
+	private static StringBuilder fillSummaryMsg(long ssmergeconfs,
+			long ssmergeloc, long unmergeconfs, long unmergeloc, long equalconfs,
+			long JAVA_FILES, long FP_UN, long FN_UN, long FP_SS, long FN_SS,
 			double M, double N) {
 		StringBuilder summary = new StringBuilder();
 		summary.append("s3m was invoked in " +JAVA_FILES+ " JAVA files so far.\n");
@@ -407,4 +452,26 @@ public class LoggerStatistics {
 		return summary;
 	}
 
+	/**
+	 * Log folder and logging options of a merge, read when the merge submits its logs.
+	 */
+	private static final class Settings {
+		private final String logpath = System.getProperty("user.home")+ File.separator + ".jfstmerge" + File.separator;
+		private final boolean cryptographed = JFSTMerge.isCryptographed;
+		private final boolean logFiles = JFSTMerge.logFiles;
+	}
+
+	/**
+	 * Path and content of a merged file, to be logged.
+	 */
+	private static final class LoggedFile {
+		private final String path;
+		private final String content;
+
+		LoggedFile(String path, String content) {
+			this.path = path;
+			this.content = content;
+		}
+	}
+
 }
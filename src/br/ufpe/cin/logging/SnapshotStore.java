@@ -0,0 +1,160 @@
+package br.ufpe.cin.logging;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.commons.io.IOUtils;
+
+import br.ufpe.cin.crypto.EncryptedLog;
+import br.ufpe.cin.exceptions.CryptoException;
+
+/**
+ * Content-addressed store of the contents of merged files. Each distinct content is kept once, compressed with deflate,
+ * in a file named by the SHA-256 hash of the content, so contents merged again and again, as base versions and unchanged
+ * sides, take no more space. Contents are encrypted when cryptography is enabled, as an {@link EncryptedLog} of one entry.
+ * The least recently stored contents are removed when the store grows too big, see {@link #prune(long)}.
+ */
+public final class SnapshotStore {
+
+	private final File directory;
+
+	/**
+	 * @param directory of the store, created on the first stored content.
+	 */
+	public SnapshotStore(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Stores the given content, unless it is already stored. A content stored in plain text is encrypted when stored again encrypted.
+	 * @param content
+	 * @param encrypted if the content must be stored encrypted
+	 * @return hash of the content, that identifies it in the store.
+	 * @throws IOException
+	 * @throws CryptoException
+	 */
+	public String store(String content, boolean encrypted) throws IOException, CryptoException {
+		byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+		String hash = hash(bytes);
+		File snapshot = file(hash);
+		if (snapshot.exists() && (!encrypted || EncryptedLog.isFramed(snapshot))) {
+			snapshot.setLastModified(System.currentTimeMillis()); //stored again, so kept longer by prune
+		} else {
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4 + 64);
+			try (OutputStream deflater = new DeflaterOutputStream(compressed, new Deflater(Deflater.BEST_COMPRESSION))) {
+				deflater.write(bytes);
+			}
+
+			//writing to a temporary file first, so a stored content is always complete, even with concurrent merges
+			snapshot.getParentFile().mkdirs();
+			File tmp = File.createTempFile(hash, ".tmp", snapshot.getParentFile());
+			try {
+				if (encrypted) {
+					EncryptedLog.append(tmp, compressed.toByteArray());
+				} else {
+					Files.write(tmp.toPath(), compressed.toByteArray());
+				}
+				Files.move(tmp.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				tmp.delete();
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * Reads a stored content, encrypted or not.
+	 * @param hash of the content
+	 * @return the content
+	 * @throws IOException if there is no content with the given hash
+	 * @throws CryptoException
+	 */
+	public String read(String hash) throws IOException, CryptoException {
+		File snapshot = file(hash);
+		if (!snapshot.isFile()) {
+			throw new IOException("Missing snapshot " + hash);
+		}
+		boolean encrypted = EncryptedLog.isFramed(snapshot);
+		try (InputStream input = new InflaterInputStream(encrypted ? EncryptedLog.open(snapshot) : new FileInputStream(snapshot))) {
+			return new String(IOUtils.toByteArray(input), StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * @param hash of a content
+	 * @return <b>true</b> if the content is stored, <b>false</b> otherwise.
+	 */
+	public boolean contains(String hash) {
+		return file(hash).isFile();
+	}
+
+	/**
+	 * Removes the least recently stored contents, until the stored contents take at most the given size.
+	 * Logs referencing removed contents can no longer be fully reconstructed, see {@link FilesLogReader}.
+	 * @param maxSize in bytes
+	 */
+	public void prune(long maxSize) {
+		List<File> snapshots = new ArrayList<File>();
+		Map<File, Long> storedTimes = new HashMap<File, Long>();
+		long size = 0;
+		File[] folders = directory.listFiles();
+		if (folders != null) {
+			for (File folder : folders) {
+				File[] files = folder.listFiles();
+				if (files != null) {
+					for (File snapshot : files) {
+						if (snapshot.isFile() && !snapshot.getName().endsWith(".tmp")) { //contents being stored are skipped
+							snapshots.add(snapshot);
+							storedTimes.put(snapshot, snapshot.lastModified());
+							size += snapshot.length();
+						}
+					}
+				}
+			}
+		}
+		snapshots.sort(Comparator.comparing(storedTimes::get));
+		for (int i = 0; i < snapshots.size() && size > maxSize; i++) {
+			long length = snapshots.get(i).length();
+			if (snapshots.get(i).delete()) {
+				size -= length;
+			}
+		}
+	}
+
+	/**
+	 * Stored contents are spread in subdirectories named by the first two characters of their hashes.
+	 */
+	private File file(String hash) {
+		return new File(directory, hash.substring(0, 2) + File.separator + hash);
+	}
+
+	private static String hash(byte[] content) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+			StringBuilder hex = new StringBuilder(digest.length * 2);
+			for (byte b : digest) {
+				hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e); //every Java platform supports SHA-256
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package br.ufpe.cin.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.LineIterator;
+
+/**
+ * Running totals of the counters and times of the <i>jfstmerge.statistics</i> log, persisted in a small record
+ * so the summary is updated with each merged file without reading the whole log again.
+ * The record has a header line and a line with the number of logged files followed by the 15 totals,
+ * in the same order of the columns of the log.
+ */
+final class StatisticsAggregate {
+
+	static final String HEADER = "files,ssmergeconfs,ssmergeloc,ssmergerenamingconfs,ssmergedeletionconfs,ssmergetaeconfs,ssmergenereoconfs,"
+			+ "ssmergeinitlblocksconfs,ssmergeacidentalconfs,unmergeconfs,unmergeloc,unmergetime,ssmergetime,unmergeduplicateddeclarationerrors,"
+			+ "unmergeorderingconfs,equalconfs";
+
+	//number of counters and times of each log entry, the last columns of the entry
+	static final int COLUMNS = 15;
+
+	//positions of the totals, following the order of the log columns
+	static final int SSMERGE_CONFS = 0;
+	static final int SSMERGE_LOC = 1;
+	static final int SSMERGE_RENAMING_CONFS = 2;
+	static final int SSMERGE_DELETION_CONFS = 3;
+	static final int SSMERGE_TAE_CONFS = 4;
+	static final int SSMERGE_NEREO_CONFS = 5;
+	static final int SSMERGE_INITLBLOCKS_CONFS = 6;
+	static final int SSMERGE_ACIDENTAL_CONFS = 7;
+	static final int UNMERGE_CONFS = 8;
+	static final int UNMERGE_LOC = 9;
+	static final int UNMERGE_TIME = 10;
+	static final int SSMERGE_TIME = 11;
+	static final int DUPLICATED_DECLARATION_ERRORS = 12;
+	static final int UNMERGE_ORDERING_CONFS = 13;
+	static final int EQUAL_CONFS = 14;
+
+	private long files;
+	private final long[] totals = new long[COLUMNS];
+
+	/**
+	 * Computes the totals of all entries of the given statistics log, reading it line by line.
+	 * Lines that are not valid entries, as the header, are skipped.
+	 * @param statistics log, decrypted
+	 * @return aggregate of the log
+	 * @throws IOException
+	 */
+	static StatisticsAggregate of(Reader statistics) throws IOException {
+		StatisticsAggregate aggregate = new StatisticsAggregate();
+		LineIterator lines = new LineIterator(statistics);
+		while (lines.hasNext()) {
+			long[] values = parseEntry(lines.nextLine());
+			if (values != null) {
+				aggregate.add(values);
+			}
+		}
+		return aggregate;
+	}
+
+	/**
+	 * Reads a persisted aggregate.
+	 * @param record
+	 * @return aggregate, or <b>null</b> if there is no record, or if it is not valid.
+	 * @throws IOException
+	 */
+	static StatisticsAggregate read(File record) throws IOException {
+		if (!record.exists()) {
+			return null;
+		}
+		List<String> lines = FileUtils.readLines(record);
+		if (lines.size() < 2 || !lines.get(0).equals(HEADER)) {
+			return null;
+		}
+		String[] columns = lines.get(1).split(",");
+		if (columns.length != COLUMNS + 1) {
+			return null;
+		}
+		try {
+			StatisticsAggregate aggregate = new StatisticsAggregate();
+			aggregate.files = Long.parseLong(columns[0]);
+			for (int i = 0; i < COLUMNS; i++) {
+				aggregate.totals[i] = Long.parseLong(columns[i + 1]);
+			}
+			return aggregate;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return the record of the aggregate, as read by {@link #read(File)}.
+	 */
+	String format() {
+		StringBuilder values = new StringBuilder().append(files);
+		for (long total : totals) {
+			values.append(',').append(total);
+		}
+		return HEADER + "\n" + values + "\n";
+	}
+
+	/**
+	 * Parses the counters and times of a log entry, that is, its last 15 columns.
+	 * @param entry line of the statistics log
+	 * @return values of the entry, or <b>null</b> if the line is not a valid entry.
+	 */
+	static long[] parseEntry(String entry) {
+		String[] columns = entry.trim().split(",");
+		if (columns.length < COLUMNS + 1) {
+			return null;
+		}
+		long[] values = new long[COLUMNS];
+		try {
+			for (int i = 0; i < COLUMNS; i++) {
+				values[i] = Long.parseLong(columns[columns.length - COLUMNS + i]);
+			}
+		} catch (NumberFormatException e) {
+			return null;
+		}
+		return values;
+	}
+
+	/**
+	 * Adds the values of one more logged file to the totals.
+	 * @param values as given by {@link #parseEntry(String)}
+	 */
+	void add(long[] values) {
+		files++;
+		for (int i = 0; i < COLUMNS; i++) {
+			totals[i] += values[i];
+		}
+	}
+
+	long getFiles() {
+		return files;
+	}
+
+	long get(int column) {
+		return totals[column];
+	}
+}
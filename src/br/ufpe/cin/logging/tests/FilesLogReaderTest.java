@@ -0,0 +1,104 @@
+package br.ufpe.cin.logging.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.ufpe.cin.crypto.EncryptedLog;
+import br.ufpe.cin.logging.FilesLogReader;
+import br.ufpe.cin.logging.SnapshotStore;
+
+/**
+ * The files log must be reconstructed in its format before the snapshot store: for each file, a line with the timestamp
+ * and the path of the file, the content of the file, and a separator line.
+ */
+public class FilesLogReaderTest {
+
+	private static final String LEFT = "public class A {\n\tint a;\n}";
+	private static final String BASE = "public class A {\n}";
+
+	//entry of a merged file in the former format
+	private static final String OLD_ENTRY = "20170101_120000,/project/left/Old.java\nclass Old {\n}\n!@#$%\n";
+
+	private File directory;
+	private SnapshotStore snapshots;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("jfstmerge-fileslog").toFile();
+		snapshots = new SnapshotStore(new File(directory, "snapshots"));
+	}
+
+	@After
+	public void tearDown() {
+		FileUtils.deleteQuietly(directory);
+	}
+
+	@Test
+	public void testReferencesReconstructed() throws Exception {
+		File log = new File(directory, "jfstmerge.files");
+		FileUtils.write(log, references(false));
+		assertEquals(expected(), read(log));
+	}
+
+	@Test
+	public void testEncryptedLogReconstructed() throws Exception {
+		File log = new File(directory, "jfstmerge.files");
+		EncryptedLog.append(log, references(true));
+		assertEquals(expected(), read(log));
+	}
+
+	@Test
+	public void testOldEntriesCopied() throws Exception {
+		File log = new File(directory, "jfstmerge.files");
+		EncryptedLog.append(log, OLD_ENTRY);
+		EncryptedLog.append(log, references(true));
+		EncryptedLog.append(log, OLD_ENTRY);
+		assertEquals(OLD_ENTRY + expected() + OLD_ENTRY, read(log));
+	}
+
+	@Test
+	public void testPrunedContentsSkipped() throws Exception {
+		File log = new File(directory, "jfstmerge.files");
+		String references = references(false);
+		snapshots.prune(0);
+		FileUtils.write(log, references + OLD_ENTRY);
+		assertEquals(OLD_ENTRY, read(log));
+	}
+
+	@Test
+	public void testEmptyLog() throws Exception {
+		File log = new File(directory, "jfstmerge.files");
+		log.createNewFile();
+		assertEquals("", read(log));
+	}
+
+	/**
+	 * References to the left, base and right contents of a merged file, as logged. The right content is the same as the base.
+	 */
+	private String references(boolean encrypted) throws Exception {
+		return "20170102_130000," + snapshots.store(LEFT, encrypted) + ",/project/left/A.java\n"
+				+ "20170102_130000," + snapshots.store(BASE, encrypted) + ",/project/base/A.java\n"
+				+ "20170102_130000," + snapshots.store(BASE, encrypted) + ",/project/right/A.java\n";
+	}
+
+	private static String expected() {
+		return "20170102_130000,/project/left/A.java\n" + LEFT + "\n!@#$%\n"
+				+ "20170102_130000,/project/base/A.java\n" + BASE + "\n!@#$%\n"
+				+ "20170102_130000,/project/right/A.java\n" + BASE + "\n!@#$%\n";
+	}
+
+	private String read(File log) throws Exception {
+		StringWriter output = new StringWriter();
+		new FilesLogReader().read(log, snapshots, output);
+		return output.toString();
+	}
+}
@@ -0,0 +1,97 @@
+package br.ufpe.cin.logging.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.ufpe.cin.app.JFSTMerge;
+import br.ufpe.cin.exceptions.PrintException;
+import br.ufpe.cin.logging.LoggerStatistics;
+import br.ufpe.cin.mergers.util.MergeContext;
+
+/**
+ * Logs must be written to the home folder, and with the options, of the merge that logged them,
+ * even if they change before the logs are written.
+ */
+public class LoggerStatisticsTest {
+
+	private String userHome;
+	private File directory;
+
+	@Before
+	public void setUp() throws IOException {
+		userHome = System.getProperty("user.home");
+		directory = Files.createTempDirectory("jfstmerge-statistics").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		LoggerStatistics.flush();
+		System.setProperty("user.home", userHome);
+		JFSTMerge.isCryptographed = true;
+		JFSTMerge.logFiles = true;
+		FileUtils.deleteQuietly(directory);
+	}
+
+	@Test
+	public void testLogsWrittenWithTheOptionsOfTheMerge() throws Exception {
+		File home = new File(directory, "home");
+		File otherHome = new File(directory, "other");
+		System.setProperty("user.home", home.getAbsolutePath());
+		JFSTMerge.isCryptographed = false;
+		JFSTMerge.logFiles = true;
+
+		LoggerStatistics.logContext("merged", context());
+		System.setProperty("user.home", otherHome.getAbsolutePath());
+		JFSTMerge.isCryptographed = true;
+		JFSTMerge.logFiles = false;
+		LoggerStatistics.flush();
+
+		File logs = new File(home, ".jfstmerge");
+		assertTrue(FileUtils.readFileToString(new File(logs, "jfstmerge.statistics")).contains(",merged\n"));
+		List<String> references = FileUtils.readLines(new File(logs, "jfstmerge.files"));
+		assertEquals(3, references.size());
+		assertTrue(references.get(0).endsWith(new File(directory, "left.txt").getAbsolutePath()));
+		assertTrue(new File(logs, "snapshots").isDirectory());
+		assertFalse(otherHome.exists());
+	}
+
+	@Test
+	public void testFailuresReportedToTheNextMerge() throws Exception {
+		File notAFolder = new File(directory, "file");
+		notAFolder.createNewFile();
+		System.setProperty("user.home", notAFolder.getAbsolutePath());
+		JFSTMerge.isCryptographed = false;
+		LoggerStatistics.logScenario("rev_a-b,0\n");
+		LoggerStatistics.flush();
+
+		System.setProperty("user.home", new File(directory, "home").getAbsolutePath());
+		try {
+			LoggerStatistics.logContext("merged", context());
+			fail("failure not reported");
+		} catch (PrintException e) {
+			//the log of this merge is still written
+			LoggerStatistics.flush();
+			assertTrue(new File(directory, "home" + File.separator + ".jfstmerge" + File.separator + "jfstmerge.statistics").isFile());
+		}
+		LoggerStatistics.logContext("merged", context());
+	}
+
+	private MergeContext context() throws IOException {
+		for (String revision : new String[] { "left", "base", "right" }) {
+			FileUtils.write(new File(directory, revision + ".txt"), "class A { int " + revision + "; }");
+		}
+		return new MergeContext(new File(directory, "left.txt"), new File(directory, "base.txt"), new File(directory, "right.txt"), null);
+	}
+}
@@ -0,0 +1,140 @@
+package br.ufpe.cin.logging.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.ufpe.cin.crypto.EncryptedLog;
+import br.ufpe.cin.logging.SnapshotStore;
+
+/**
+ * Contents must be read back as stored, encrypted or not, and each distinct content must be stored once.
+ */
+public class SnapshotStoreTest {
+
+	private File directory;
+	private SnapshotStore snapshots;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("jfstmerge-snapshots").toFile();
+		snapshots = new SnapshotStore(new File(directory, "snapshots"));
+	}
+
+	@After
+	public void tearDown() {
+		FileUtils.deleteQuietly(directory);
+	}
+
+	@Test
+	public void testStoreAndRead() throws Exception {
+		String content = "public class A {\r\n\tString s = \"\u00e7\";\r\n}";
+		String hash = snapshots.store(content, false);
+		assertEquals(64, hash.length());
+		assertEquals(content, snapshots.read(hash));
+
+		String empty = snapshots.store("", false);
+		assertEquals("", snapshots.read(empty));
+	}
+
+	@Test
+	public void testStoreEncrypted() throws Exception {
+		String content = "class A {}";
+		String hash = snapshots.store(content, true);
+		File snapshot = new File(directory, "snapshots" + File.separator + hash.substring(0, 2) + File.separator + hash);
+		assertTrue(snapshot.isFile());
+		assertTrue(EncryptedLog.isFramed(snapshot));
+		assertEquals(content, snapshots.read(hash));
+	}
+
+	@Test
+	public void testDistinctContentsStoredOnce() throws Exception {
+		String hash = snapshots.store("class A {}", false);
+		assertEquals(hash, snapshots.store(new String("class A {}"), true)); //already stored, encrypted now
+		assertNotEquals(hash, snapshots.store("class B {}", false));
+		assertEquals("class A {}", snapshots.read(hash));
+
+		Collection<File> stored = FileUtils.listFiles(new File(directory, "snapshots"), null, true);
+		assertEquals(2, stored.size());
+		for (File snapshot : stored) {
+			assertEquals(snapshot.getName().substring(0, 2), snapshot.getParentFile().getName());
+		}
+	}
+
+	@Test
+	public void testPlainContentEncryptedWhenStoredEncrypted() throws Exception {
+		String hash = snapshots.store("class A {}", false);
+		File snapshot = snapshot(hash);
+		assertFalse(EncryptedLog.isFramed(snapshot));
+
+		snapshots.store("class A {}", true);
+		assertTrue(EncryptedLog.isFramed(snapshot));
+		snapshots.store("class A {}", false); //encrypted contents are not stored in plain text again
+		assertTrue(EncryptedLog.isFramed(snapshot));
+		assertEquals("class A {}", snapshots.read(hash));
+	}
+
+	@Test
+	public void testPruneLeastRecentlyStored() throws Exception {
+		String first = snapshots.store("class A {}", false);
+		String second = snapshots.store("class B {}", false);
+		String third = snapshots.store("class C {}", false);
+		long now = System.currentTimeMillis();
+		snapshot(first).setLastModified(now - 3000);
+		snapshot(second).setLastModified(now - 2000);
+		snapshot(third).setLastModified(now - 1000);
+		snapshots.store("class A {}", false); //stored again, so the most recently stored
+
+		long size = FileUtils.sizeOfDirectory(new File(directory, "snapshots"));
+		snapshots.prune(size);
+		assertTrue(snapshots.contains(first) && snapshots.contains(second) && snapshots.contains(third));
+
+		snapshots.prune(size - 1);
+		assertTrue(snapshots.contains(first));
+		assertFalse(snapshots.contains(second));
+		assertTrue(snapshots.contains(third));
+
+		snapshots.prune(0);
+		assertFalse(snapshots.contains(first) || snapshots.contains(third));
+	}
+
+	@Test
+	public void testMissingContent() throws Exception {
+		String hash = snapshots.store("class A {}", false);
+		FileUtils.deleteQuietly(new File(directory, "snapshots"));
+		try {
+			snapshots.read(hash);
+			fail("missing content read");
+		} catch (IOException e) {
+			assertTrue(e.getMessage().contains(hash));
+		}
+	}
+
+	@Test
+	public void testLargeContent() throws Exception {
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			content.append("\tint field").append(i).append(";\n");
+		}
+		String hash = snapshots.store(content.toString(), true);
+		assertEquals(content.toString(), snapshots.read(hash));
+		assertTrue(FileUtils.sizeOfDirectory(new File(directory, "snapshots")) < content.toString().getBytes(StandardCharsets.UTF_8).length / 4);
+	}
+
+	private File snapshot(String hash) {
+		return new File(directory, "snapshots" + File.separator + hash.substring(0, 2) + File.separator + hash);
+	}
+}
@@ -0,0 +1,244 @@
+package br.ufpe.cin.mergers;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.diff.EditList;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.diff.RawTextComparator;
+import org.eclipse.jgit.lib.Constants;
+
+/**
+ * In-process three-way merge in the <i>diff3</i> style, that is, conflicts also show the
+ * base version of the conflicting lines (<i>|||||||</i> section). It mirrors the rules of
+ * <i>git merge-file --diff3</i> (xdiff at the <i>eager</i> level: identical changes in both
+ * sides are not conflicts), so nodes can be merged without creating temporary files and
+ * forking a <i>git</i> process per conflicting node.
+ */
+final class Diff3Merge {
+
+	static final String MINE_LABEL  = "MINE";
+	static final String BASE_LABEL  = "BASE";
+	static final String YOURS_LABEL = "YOURS";
+
+	private static final int MARKER_SIZE = 7;
+
+	//merge modes, as in xdiff: 0 is a conflict, 1 is a change from left, 2 is a change from right
+	private static final int CONFLICT = 0;
+	private static final int FROM_LEFT = 1;
+	private static final int FROM_RIGHT = 2;
+
+	private Diff3Merge(){}
+
+	/**
+	 * Merges textually three strings, reporting conflicts in the <i>diff3</i> style.
+	 * The contents are treated as the temporary files used by {@link TextualMerge#createTempFiles(String, String, String)},
+	 * and the result as read by {@link TextualMerge#readLeftFile(java.io.File)}, so the output is the same of calling
+	 * <i>git merge-file --diff3 -L MINE -L BASE -L YOURS</i> on these files.
+	 * @param leftContent
+	 * @param baseContent
+	 * @param rightContent
+	 * @return merged string, with diff3 style conflicts if any.
+	 * @throws IOException
+	 */
+	static String merge(String leftContent, String baseContent, String rightContent) throws IOException {
+		RawText left = toRawText(leftContent);
+		RawText base = toRawText(baseContent);
+		RawText right= toRawText(rightContent);
+
+		EditList leftEdits  = LineDiff.diff(base, left);
+		EditList rightEdits = LineDiff.diff(base, right);
+
+		List<Hunk> hunks = computeHunks(leftEdits, rightEdits, left, right);
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		fillMergeBuffer(output, left, base, right, hunks);
+
+		return normalizeLines(new String(output.toByteArray(), Constants.CHARACTER_ENCODING));
+	}
+
+	/**
+	 * Walks both edit scripts (base to left, and base to right) at the same time,
+	 * grouping overlapping or adjacent changes in conflicting hunks.
+	 */
+	private static List<Hunk> computeHunks(EditList leftEdits, EditList rightEdits, RawText left, RawText right) {
+		List<Hunk> hunks = new ArrayList<Hunk>();
+		int l = 0;
+		int r = 0;
+		while (l < leftEdits.size() && r < rightEdits.size()) {
+			Edit el = leftEdits.get(l);
+			Edit er = rightEdits.get(r);
+			if (el.getEndA() < er.getBeginA()) { //change only in left
+				appendHunk(hunks, FROM_LEFT, el.getBeginA(), el.getLengthA(), el.getBeginB(), el.getLengthB(),
+						er.getBeginB() - er.getBeginA() + el.getBeginA(), el.getLengthA());
+				l++;
+				continue;
+			}
+			if (er.getEndA() < el.getBeginA()) { //change only in right
+				appendHunk(hunks, FROM_RIGHT, er.getBeginA(), er.getLengthA(), el.getBeginB() - el.getBeginA() + er.getBeginA(),
+						er.getLengthA(), er.getBeginB(), er.getLengthB());
+				r++;
+				continue;
+			}
+			if (el.getBeginA() != er.getBeginA() || el.getLengthA() != er.getLengthA() || el.getLengthB() != er.getLengthB()
+					|| !sameLines(left, el.getBeginB(), right, er.getBeginB(), el.getLengthB())) { //both changed the same area differently
+				int off = el.getBeginA() - er.getBeginA();
+				int ffo = off + el.getLengthA() - er.getLengthA();
+				int i0 = el.getBeginA();
+				int i1 = el.getBeginB();
+				int i2 = er.getBeginB();
+				if (off > 0) {
+					i0 -= off;
+					i1 -= off;
+				} else {
+					i2 += off;
+				}
+				int chg0 = el.getEndA() - i0;
+				int chg1 = el.getEndB() - i1;
+				int chg2 = er.getEndB() - i2;
+				if (ffo < 0) {
+					chg0 -= ffo;
+					chg1 -= ffo;
+				} else {
+					chg2 += ffo;
+				}
+				appendHunk(hunks, CONFLICT, i0, chg0, i1, chg1, i2, chg2);
+			}
+			//identical changes in both sides are taken from left, as any unchanged line
+			if (el.getEndA() >= er.getEndA()) r++;
+			if (er.getEndA() >= el.getEndA()) l++;
+		}
+		for (; l < leftEdits.size(); l++) {
+			Edit el = leftEdits.get(l);
+			int shift = (rightEdits.isEmpty()) ? 0 : lastShift(rightEdits);
+			appendHunk(hunks, FROM_LEFT, el.getBeginA(), el.getLengthA(), el.getBeginB(), el.getLengthB(),
+					el.getBeginA() + shift, el.getLengthA());
+		}
+		for (; r < rightEdits.size(); r++) {
+			Edit er = rightEdits.get(r);
+			int shift = (leftEdits.isEmpty()) ? 0 : lastShift(leftEdits);
+			appendHunk(hunks, FROM_RIGHT, er.getBeginA(), er.getLengthA(), er.getBeginA() + shift, er.getLengthA(),
+					er.getBeginB(), er.getLengthB());
+		}
+		return hunks;
+	}
+
+	/**
+	 * Offset between base and the changed version after the last edit of a script.
+	 */
+	private static int lastShift(EditList edits) {
+		Edit last = edits.get(edits.size() - 1);
+		return last.getEndB() - last.getEndA();
+	}
+
+	/**
+	 * Appends a hunk, coalescing it with the previous one when they overlap or touch each other
+	 * in one of the versions (in this case, hunks from different sides become a conflict).
+	 */
+	private static void appendHunk(List<Hunk> hunks, int mode, int i0, int chg0, int i1, int chg1, int i2, int chg2) {
+		Hunk last = hunks.isEmpty() ? null : hunks.get(hunks.size() - 1);
+		if (last != null && (i1 <= last.i1 + last.chg1 || i2 <= last.i2 + last.chg2)) {
+			if (mode != last.mode) {
+				last.mode = CONFLICT;
+			}
+			last.chg0 = i0 + chg0 - last.i0;
+			last.chg1 = i1 + chg1 - last.i1;
+			last.chg2 = i2 + chg2 - last.i2;
+		} else {
+			hunks.add(new Hunk(mode, i0, chg0, i1, chg1, i2, chg2));
+		}
+	}
+
+	private static void fillMergeBuffer(ByteArrayOutputStream output, RawText left, RawText base, RawText right, List<Hunk> hunks) throws IOException {
+		int i = 0;
+		for (Hunk h : hunks) {
+			copyLines(output, left, i, h.i1 - i, false);
+			if (h.mode == CONFLICT) {
+				writeMarker(output, '<', MINE_LABEL);
+				copyLines(output, left, h.i1, h.chg1, true);
+				writeMarker(output, '|', BASE_LABEL);
+				copyLines(output, base, h.i0, h.chg0, true);
+				writeMarker(output, '=', null);
+				copyLines(output, right, h.i2, h.chg2, true);
+				writeMarker(output, '>', YOURS_LABEL);
+			} else if (h.mode == FROM_LEFT) {
+				copyLines(output, left, h.i1, h.chg1, false);
+			} else {
+				copyLines(output, right, h.i2, h.chg2, false);
+			}
+			i = h.i1 + h.chg1;
+		}
+		copyLines(output, left, i, left.size() - i, false);
+	}
+
+	private static void copyLines(ByteArrayOutputStream output, RawText text, int begin, int count, boolean addMissingNewline) throws IOException {
+		for (int line = begin; line < begin + count; line++) {
+			text.writeLine(output, line);
+			if (line < text.size() - 1 || !text.isMissingNewlineAtEnd() || addMissingNewline) {
+				output.write('\n');
+			}
+		}
+	}
+
+	private static void writeMarker(ByteArrayOutputStream output, char marker, String label) throws IOException {
+		for (int i = 0; i < MARKER_SIZE; i++) {
+			output.write(marker);
+		}
+		if (label != null) {
+			output.write(' ');
+			output.write(Constants.encode(label));
+		}
+		output.write('\n');
+	}
+
+	private static boolean sameLines(RawText a, int beginA, RawText b, int beginB, int count) {
+		for (int i = 0; i < count; i++) {
+			if (!RawTextComparator.DEFAULT.equals(a, beginA + i, b, beginB + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Content as written in a temporary file by {@link TextualMerge#createTempFiles(String, String, String)}.
+	 */
+	private static RawText toRawText(String content) {
+		return new RawText(Constants.encode((content.length() == 0) ? content : content + "\n"));
+	}
+
+	/**
+	 * Line endings as read by {@link TextualMerge#readLeftFile(java.io.File)}.
+	 */
+	private static String normalizeLines(String content) throws IOException {
+		StringBuilder normalized = new StringBuilder(content.length() + 1);
+		BufferedReader reader = new BufferedReader(new StringReader(content));
+		String line;
+		while ((line = reader.readLine()) != null) {
+			normalized.append(line).append('\n');
+		}
+		return normalized.toString();
+	}
+
+	/**
+	 * A merged region, described by its start and size in the base, left, and right versions.
+	 */
+	private static class Hunk {
+		int mode;
+		int i0, chg0;
+		int i1, chg1;
+		int i2, chg2;
+
+		Hunk(int mode, int i0, int chg0, int i1, int chg1, int i2, int chg2) {
+			this.mode = mode;
+			this.i0 = i0; this.chg0 = chg0;
+			this.i1 = i1; this.chg1 = chg1;
+			this.i2 = i2; this.chg2 = chg2;
+		}
+	}
+}
@@ -0,0 +1,472 @@
+package br.ufpe.cin.mergers;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.diff.EditList;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.diff.RawTextComparator;
+
+/**
+ * Line based diff following the algorithm of git's <i>xdiff</i> library (Myers' divide and conquer
+ * with git's heuristics, discarding of unmatched lines, and compaction of changed groups).
+ * Different diff implementations might align ambiguous changes (e.g. repeated lines) differently,
+ * so this class is what allows {@link Diff3Merge} to produce the same conflicts of <i>git merge-file</i>.
+ */
+final class LineDiff {
+
+	private static final int MAX_COST_MIN  = 256;
+	private static final int HEUR_MIN_COST = 256;
+	private static final int SNAKE_CNT 	   = 20;
+	private static final int K_HEUR 	   = 4;
+	private static final int MAX_EQLIMIT   = 1024;
+	private static final int SIMSCAN_WINDOW= 100;
+	private static final int KPDIS_RUN 	   = 4;
+	private static final int LINE_MAX 	   = Integer.MAX_VALUE;
+
+	//version being diffed
+	private final RawText text;
+	private final int nrec;
+	//equivalence class of each line, shared between the two versions
+	private final int[] classes;
+	//changed lines flags, with a sentinel unchanged line before and after the version
+	private final boolean[] changed;
+	//lines that take part in the diff, that is, neither trimmed nor discarded
+	private int[] rindex;
+	private int[] ha;
+	private int nreff;
+	private int dstart;
+	private int dend;
+
+	private LineDiff(RawText text, int[] classes) {
+		this.text = text;
+		this.nrec = text.size();
+		this.classes = classes;
+		this.changed = new boolean[nrec + 2];
+	}
+
+	/**
+	 * Computes the edits transforming <i>a</i> into <i>b</i>.
+	 * @param a
+	 * @param b
+	 * @return list of edits
+	 */
+	static EditList diff(RawText a, RawText b) {
+		//classifying lines
+		Map<LineKey, int[]> counts = new HashMap<LineKey, int[]>();
+		int[] classesA = classify(a, counts, 0);
+		int[] classesB = classify(b, counts, 1);
+		int[][] occurrences = new int[counts.size()][];
+		for (int[] count : counts.values()) {
+			occurrences[count[2]] = count;
+		}
+
+		LineDiff xdf1 = new LineDiff(a, classesA);
+		LineDiff xdf2 = new LineDiff(b, classesB);
+		trimEnds(xdf1, xdf2);
+		xdf1.cleanupRecords(occurrences, 1);
+		xdf2.cleanupRecords(occurrences, 0);
+
+		int ndiags = xdf1.nreff + xdf2.nreff + 3;
+		int[] kvdf = new int[ndiags + 2];
+		int[] kvdb = new int[ndiags + 2];
+		int koff = xdf2.nreff + 1;
+		int mxcost = Math.max(bogosqrt(ndiags), MAX_COST_MIN);
+		recsCmp(xdf1, 0, xdf1.nreff, xdf2, 0, xdf2.nreff, kvdf, kvdb, koff, false, mxcost);
+
+		xdf1.compact(xdf2);
+		xdf2.compact(xdf1);
+		return buildScript(xdf1, xdf2);
+	}
+
+	private static int[] classify(RawText text, Map<LineKey, int[]> counts, int pass) {
+		int[] classes = new int[text.size()];
+		for (int i = 0; i < text.size(); i++) {
+			LineKey key = new LineKey(text, i);
+			int[] count = counts.get(key);
+			if (count == null) {
+				//occurrences in first version, occurrences in second version, class index
+				count = new int[] {0, 0, counts.size()};
+				counts.put(key, count);
+			}
+			count[pass]++;
+			classes[i] = count[2];
+		}
+		return classes;
+	}
+
+	private static void trimEnds(LineDiff xdf1, LineDiff xdf2) {
+		int lim = Math.min(xdf1.nrec, xdf2.nrec);
+		int i = 0;
+		while (i < lim && xdf1.classes[i] == xdf2.classes[i]) i++;
+		xdf1.dstart = xdf2.dstart = i;
+
+		lim -= i;
+		i = 0;
+		while (i < lim && xdf1.classes[xdf1.nrec - 1 - i] == xdf2.classes[xdf2.nrec - 1 - i]) i++;
+		xdf1.dend = xdf1.nrec - i - 1;
+		xdf2.dend = xdf2.nrec - i - 1;
+	}
+
+	/**
+	 * Discards lines without match in the other version, and lines with too many matches
+	 * in the middle of unmatched lines. They are flagged as changed upfront.
+	 * @param occurrences per line class
+	 * @param otherPass index of the other version in the occurrences
+	 */
+	private void cleanupRecords(int[][] occurrences, int otherPass) {
+		byte[] dis = new byte[nrec + 1];
+		int mlim = Math.min(bogosqrt(nrec), MAX_EQLIMIT);
+		for (int i = dstart; i <= dend; i++) {
+			int nm = occurrences[classes[i]][otherPass];
+			dis[i] = (byte) ((nm == 0) ? 0 : (nm >= mlim) ? 2 : 1);
+		}
+
+		rindex = new int[nrec + 1];
+		ha = new int[nrec + 1];
+		nreff = 0;
+		for (int i = dstart; i <= dend; i++) {
+			if (dis[i] == 1 || (dis[i] == 2 && !cleanMmatch(dis, i, dstart, dend))) {
+				rindex[nreff] = i;
+				ha[nreff] = classes[i];
+				nreff++;
+			} else {
+				changed[i + 1] = true;
+			}
+		}
+	}
+
+	private static boolean cleanMmatch(byte[] dis, int i, int s, int e) {
+		if (i - s > SIMSCAN_WINDOW) s = i - SIMSCAN_WINDOW;
+		if (e - i > SIMSCAN_WINDOW) e = i + SIMSCAN_WINDOW;
+
+		int r, rdis0, rpdis0, rdis1, rpdis1;
+		for (r = 1, rdis0 = 0, rpdis0 = 1; (i - r) >= s; r++) {
+			if (dis[i - r] == 0) rdis0++;
+			else if (dis[i - r] == 2) rpdis0++;
+			else break;
+		}
+		if (rdis0 == 0) return false;
+		for (r = 1, rdis1 = 0, rpdis1 = 1; (i + r) <= e; r++) {
+			if (dis[i + r] == 0) rdis1++;
+			else if (dis[i + r] == 2) rpdis1++;
+			else break;
+		}
+		if (rdis1 == 0) return false;
+		rdis1 += rdis0;
+		rpdis1 += rpdis0;
+		return rpdis1 * KPDIS_RUN < (rpdis1 + rdis1);
+	}
+
+	private static void recsCmp(LineDiff dd1, int off1, int lim1, LineDiff dd2, int off2, int lim2,
+			int[] kvdf, int[] kvdb, int koff, boolean needMin, int mxcost) {
+		int[] ha1 = dd1.ha;
+		int[] ha2 = dd2.ha;
+
+		//shrinking the box by walking through each diagonal snake
+		for (; off1 < lim1 && off2 < lim2 && ha1[off1] == ha2[off2]; off1++, off2++);
+		for (; off1 < lim1 && off2 < lim2 && ha1[lim1 - 1] == ha2[lim2 - 1]; lim1--, lim2--);
+
+		if (off1 == lim1) {
+			for (; off2 < lim2; off2++) dd2.changed[dd2.rindex[off2] + 1] = true;
+		} else if (off2 == lim2) {
+			for (; off1 < lim1; off1++) dd1.changed[dd1.rindex[off1] + 1] = true;
+		} else {
+			int[] spl = split(ha1, off1, lim1, ha2, off2, lim2, kvdf, kvdb, koff, needMin, mxcost);
+			recsCmp(dd1, off1, spl[0], dd2, off2, spl[1], kvdf, kvdb, koff, spl[2] == 1, mxcost);
+			recsCmp(dd1, spl[0], lim1, dd2, spl[1], lim2, kvdf, kvdb, koff, spl[3] == 1, mxcost);
+		}
+	}
+
+	/**
+	 * Finds the middle snake of the box, or a good enough split point when the edit cost gets too high.
+	 * @return split point in both versions, and whether each half needs a minimal diff
+	 */
+	private static int[] split(int[] ha1, int off1, int lim1, int[] ha2, int off2, int lim2,
+			int[] kvdf, int[] kvdb, int koff, boolean needMin, int mxcost) {
+		int dmin = off1 - lim2, dmax = lim1 - off2;
+		int fmid = off1 - off2, bmid = lim1 - lim2;
+		boolean odd = ((fmid - bmid) & 1) != 0;
+		int fmin = fmid, fmax = fmid;
+		int bmin = bmid, bmax = bmid;
+		int i1, i2, prev1, d;
+
+		kvdf[koff + fmid] = off1;
+		kvdb[koff + bmid] = lim1;
+
+		for (int ec = 1;; ec++) {
+			boolean gotSnake = false;
+
+			if (fmin > dmin) kvdf[koff + --fmin - 1] = -1;
+			else ++fmin;
+			if (fmax < dmax) kvdf[koff + ++fmax + 1] = -1;
+			else --fmax;
+
+			for (d = fmax; d >= fmin; d -= 2) {
+				if (kvdf[koff + d - 1] >= kvdf[koff + d + 1]) i1 = kvdf[koff + d - 1] + 1;
+				else i1 = kvdf[koff + d + 1];
+				prev1 = i1;
+				i2 = i1 - d;
+				for (; i1 < lim1 && i2 < lim2 && ha1[i1] == ha2[i2]; i1++, i2++);
+				if (i1 - prev1 > SNAKE_CNT) gotSnake = true;
+				kvdf[koff + d] = i1;
+				if (odd && bmin <= d && d <= bmax && kvdb[koff + d] <= i1) {
+					return new int[] {i1, i2, 1, 1};
+				}
+			}
+
+			if (bmin > dmin) kvdb[koff + --bmin - 1] = LINE_MAX;
+			else ++bmin;
+			if (bmax < dmax) kvdb[koff + ++bmax + 1] = LINE_MAX;
+			else --bmax;
+
+			for (d = bmax; d >= bmin; d -= 2) {
+				if (kvdb[koff + d - 1] < kvdb[koff + d + 1]) i1 = kvdb[koff + d - 1];
+				else i1 = kvdb[koff + d + 1] - 1;
+				prev1 = i1;
+				i2 = i1 - d;
+				for (; i1 > off1 && i2 > off2 && ha1[i1 - 1] == ha2[i2 - 1]; i1--, i2--);
+				if (prev1 - i1 > SNAKE_CNT) gotSnake = true;
+				kvdb[koff + d] = i1;
+				if (!odd && fmin <= d && d <= fmax && i1 <= kvdf[koff + d]) {
+					return new int[] {i1, i2, 1, 1};
+				}
+			}
+
+			if (needMin) continue;
+
+			//the edit cost is high but we got a good snake: sampling diagonals for an interesting path
+			if (gotSnake && ec > HEUR_MIN_COST) {
+				int best = 0;
+				int[] spl = null;
+				for (d = fmax; d >= fmin; d -= 2) {
+					int dd = d > fmid ? d - fmid : fmid - d;
+					i1 = kvdf[koff + d];
+					i2 = i1 - d;
+					int v = (i1 - off1) + (i2 - off2) - dd;
+					if (v > K_HEUR * ec && v > best && off1 + SNAKE_CNT <= i1 && i1 < lim1 && off2 + SNAKE_CNT <= i2 && i2 < lim2) {
+						for (int k = 1; ha1[i1 - k] == ha2[i2 - k]; k++) {
+							if (k == SNAKE_CNT) {
+								best = v;
+								spl = new int[] {i1, i2, 1, 0};
+								break;
+							}
+						}
+					}
+				}
+				if (best > 0) return spl;
+
+				best = 0;
+				for (d = bmax; d >= bmin; d -= 2) {
+					int dd = d > bmid ? d - bmid : bmid - d;
+					i1 = kvdb[koff + d];
+					i2 = i1 - d;
+					int v = (lim1 - i1) + (lim2 - i2) - dd;
+					if (v > K_HEUR * ec && v > best && off1 < i1 && i1 <= lim1 - SNAKE_CNT && off2 < i2 && i2 <= lim2 - SNAKE_CNT) {
+						for (int k = 0; ha1[i1 + k] == ha2[i2 + k]; k++) {
+							if (k == SNAKE_CNT - 1) {
+								best = v;
+								spl = new int[] {i1, i2, 0, 1};
+								break;
+							}
+						}
+					}
+				}
+				if (best > 0) return spl;
+			}
+
+			//enough is enough: collecting the furthest reaching path
+			if (ec >= mxcost) {
+				int fbest = -1, fbest1 = -1;
+				for (d = fmax; d >= fmin; d -= 2) {
+					i1 = Math.min(kvdf[koff + d], lim1);
+					i2 = i1 - d;
+					if (lim2 < i2) {
+						i1 = lim2 + d;
+						i2 = lim2;
+					}
+					if (fbest < i1 + i2) {
+						fbest = i1 + i2;
+						fbest1 = i1;
+					}
+				}
+				int bbest = LINE_MAX, bbest1 = LINE_MAX;
+				for (d = bmax; d >= bmin; d -= 2) {
+					i1 = Math.max(off1, kvdb[koff + d]);
+					i2 = i1 - d;
+					if (i2 < off2) {
+						i1 = off2 + d;
+						i2 = off2;
+					}
+					if (i1 + i2 < bbest) {
+						bbest = i1 + i2;
+						bbest1 = i1;
+					}
+				}
+				if ((lim1 + lim2) - bbest < fbest - (off1 + off2)) {
+					return new int[] {fbest1, fbest - fbest1, 1, 0};
+				} else {
+					return new int[] {bbest1, bbest - bbest1, 0, 1};
+				}
+			}
+		}
+	}
+
+	/**
+	 * Slides groups of changed lines as far down as possible, and then up again only
+	 * to line up with a change in the other version (xdiff's <i>change compact</i>).
+	 * @param other version of the diff
+	 */
+	private void compact(LineDiff other) {
+		Group g  = new Group(this);
+		Group go = new Group(other);
+		while (true) {
+			if (g.end != g.start) {
+				int groupsize;
+				int earliestEnd;
+				int endMatchingOther;
+				do {
+					groupsize = g.end - g.start;
+					endMatchingOther = -1;
+					while (g.slideUp()) {
+						go.previous();
+					}
+					earliestEnd = g.end;
+					if (go.end > go.start) {
+						endMatchingOther = g.end;
+					}
+					while (g.slideDown()) {
+						go.next();
+						if (go.end > go.start) {
+							endMatchingOther = g.end;
+						}
+					}
+				} while (groupsize != g.end - g.start);
+
+				if (g.end != earliestEnd && endMatchingOther != -1) {
+					while (go.end == go.start) {
+						g.slideUp();
+						go.previous();
+					}
+				}
+			}
+			if (!g.next()) {
+				break;
+			}
+			go.next();
+		}
+	}
+
+	private static EditList buildScript(LineDiff xdf1, LineDiff xdf2) {
+		EditList edits = new EditList();
+		int i1 = xdf1.nrec;
+		int i2 = xdf2.nrec;
+		while (i1 >= 0 || i2 >= 0) {
+			if ((i1 > 0 && xdf1.changed[i1]) || (i2 > 0 && xdf2.changed[i2])) {
+				int l1 = i1;
+				int l2 = i2;
+				while (i1 > 0 && xdf1.changed[i1]) i1--;
+				while (i2 > 0 && xdf2.changed[i2]) i2--;
+				edits.add(0, new Edit(i1, l1, i2, l2));
+			}
+			i1--;
+			i2--;
+		}
+		return edits;
+	}
+
+	private static int bogosqrt(int n) {
+		int i = 1;
+		for (; n > 0; n >>= 2) i <<= 1;
+		return i;
+	}
+
+	/**
+	 * A maximal run of changed lines [start, end) in one version.
+	 * Flags are shifted by one position due to the sentinel line.
+	 */
+	private static class Group {
+		final LineDiff xdf;
+		int start;
+		int end;
+
+		Group(LineDiff xdf) {
+			this.xdf = xdf;
+			while (xdf.changed[end + 1]) end++;
+		}
+
+		boolean next() {
+			if (end == xdf.nrec) {
+				return false;
+			}
+			start = end + 1;
+			end = start;
+			while (xdf.changed[end + 1]) end++;
+			return true;
+		}
+
+		boolean previous() {
+			if (start == 0) {
+				return false;
+			}
+			end = start - 1;
+			start = end;
+			while (xdf.changed[start]) start--;
+			return true;
+		}
+
+		boolean slideDown() {
+			if (end < xdf.nrec && xdf.classes[start] == xdf.classes[end]) {
+				xdf.changed[start + 1] = false;
+				xdf.changed[end + 1] = true;
+				start++;
+				end++;
+				while (xdf.changed[end + 1]) end++;
+				return true;
+			}
+			return false;
+		}
+
+		boolean slideUp() {
+			if (start > 0 && xdf.classes[start - 1] == xdf.classes[end - 1]) {
+				xdf.changed[start] = true;
+				xdf.changed[end] = false;
+				start--;
+				end--;
+				while (xdf.changed[start]) start--;
+				return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Hash key of a line, comparing its raw bytes.
+	 */
+	private static class LineKey {
+		final RawText text;
+		final int line;
+		final int hash;
+
+		LineKey(RawText text, int line) {
+			this.text = text;
+			this.line = line;
+			this.hash = RawTextComparator.DEFAULT.hash(text, line);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj instanceof LineKey) {
+				LineKey other = (LineKey) obj;
+				return hash == other.hash && RawTextComparator.DEFAULT.equals(text, line, other.text, other.line);
+			}
+			return false;
+		}
+	}
+}
@@ -10,11 +10,16 @@ import org.apache.commons.lang3.tuple.Pair;
 import br.ufpe.cin.exceptions.ExceptionUtils;
 import br.ufpe.cin.exceptions.SemistructuredMergeException;
 import br.ufpe.cin.exceptions.TextualMergeException;
+import br.ufpe.cin.files.ContentFingerprint;
+import br.ufpe.cin.files.FileContent;
 import br.ufpe.cin.files.FilesManager;
 import br.ufpe.cin.mergers.handlers.ConflictsHandler;
+import br.ufpe.cin.mergers.util.ChildrenIndex;
 import br.ufpe.cin.mergers.util.MergeContext;
+import br.ufpe.cin.mergers.util.MergePhase;
 import br.ufpe.cin.parser.JParser;
 import br.ufpe.cin.printers.Prettyprinter;
+import br.ufpe.cin.printers.SourceLayout;
 import cide.gparser.ParseException;
 import cide.gparser.TokenMgrError;
 import de.ovgu.cide.fstgen.ast.FSTNode;
@@ -58,9 +63,9 @@ public class SemistructuredMerge extends Observable
 			//#conflictsAnalyzer
 			// parsing the files to be merged
 			JParser parser = new JParser();
-			FSTNode leftTree = parser.parse(left);
-			FSTNode baseTree = parser.parse(base);
-			FSTNode rightTree = parser.parse(right);
+			FSTNode leftTree = parse(parser, left, context.getLeftFileContent(), MergePhase.PARSE_LEFT, context);
+			FSTNode baseTree = parse(parser, base, context.getBaseFileContent(), MergePhase.PARSE_BASE, context);
+			FSTNode rightTree = parse(parser, right, context.getRightFileContent(), MergePhase.PARSE_RIGHT, context);
 
 			// merging
 			context.join(merge(leftTree, baseTree, rightTree, filePath));
@@ -81,8 +86,26 @@ public class SemistructuredMerge extends Observable
 			throw new SemistructuredMergeException(message, context);
 		}
 
-		// during the parsing process, code indentation is typically lost, so we reindent the code
-		return FilesManager.indentCode(Prettyprinter.print(context.superImposedTree));
+		// during the parsing process, code indentation is typically lost, so we reindent the code with the layout of the merged files
+		context.profile.start(MergePhase.PRINT);
+		String printedCode = Prettyprinter.print(context.superImposedTree);
+		context.profile.stop(MergePhase.PRINT);
+		context.profile.start(MergePhase.INDENT);
+		String indentedCode = SourceLayout.of(context.getLeftContent(), context.getBaseContent(), context.getRightContent()).indent(printedCode);
+		context.profile.stop(MergePhase.INDENT);
+		return indentedCode;
+	}
+
+	/**
+	 * Parses one of the merged files, timing it as the given merge phase.
+	 */
+	private FSTNode parse(JParser parser, File file, FileContent content, MergePhase phase, MergeContext context) throws FileNotFoundException, UnsupportedEncodingException, ParseException, TokenMgrError {
+		context.profile.start(phase);
+		try {
+			return parser.parse(file, content);
+		} finally {
+			context.profile.stop(phase);
+		}
 	}
 
 	/**
@@ -92,7 +115,7 @@ public class SemistructuredMerge extends Observable
 	 * @param right tree
 	 * @throws TextualMergeException
 	 */
-	private MergeContext merge(FSTNode left, FSTNode base, FSTNode right, String filePath) throws TextualMergeException {
+	MergeContext merge(FSTNode left, FSTNode base, FSTNode right, String filePath) throws TextualMergeException {
 		// indexes are necessary to a proper matching between nodes
 		left.index 	= 0;
 		base.index 	= 1;
@@ -103,16 +126,24 @@ public class SemistructuredMerge extends Observable
 		context.baseTree  = base;
 		context.rightTree = right;
 		
+		context.profile.start(MergePhase.SUPERIMPOSE_LEFT_BASE);
 		FSTNode mergeLeftBase = superimpose(left, base, null, context, true);
+		context.profile.stop(MergePhase.SUPERIMPOSE_LEFT_BASE);
+		context.profile.start(MergePhase.SUPERIMPOSE_RIGHT);
 		FSTNode mergeLeftBaseRight = superimpose(mergeLeftBase, right, null, context, false);
+		context.profile.stop(MergePhase.SUPERIMPOSE_RIGHT);
 		
+		context.profile.start(MergePhase.REMOVE_BASE_NODES);
 		removeRemainingBaseNodes(mergeLeftBaseRight, context);
+		context.profile.stop(MergePhase.REMOVE_BASE_NODES);
 
 		//#conflictsAnalyzer
 		setChanged();
 		notifyObservers(context);
 		//#conflictsAnalyzer
+		context.profile.start(MergePhase.MERGE_MATCHED_CONTENT);
 		mergeMatchedContent(mergeLeftBaseRight, context, filePath);
+		context.profile.stop(MergePhase.MERGE_MATCHED_CONTENT);
 
 		context.superImposedTree = mergeLeftBaseRight;
 		
@@ -129,7 +160,7 @@ public class SemistructuredMerge extends Observable
 	 * @param isProcessingBaseTree
 	 * @return superimposed tree
 	 */
-	private FSTNode superimpose(FSTNode nodeA, FSTNode nodeB, FSTNonTerminal parent, MergeContext context, boolean isProcessingBaseTree) {
+	FSTNode superimpose(FSTNode nodeA, FSTNode nodeB, FSTNonTerminal parent, MergeContext context, boolean isProcessingBaseTree) {
 		if (nodeA.compatibleWith(nodeB)) {
 			FSTNode composed = nodeA.getShallowClone();
 			composed.index = nodeB.index;
@@ -140,11 +171,15 @@ public class SemistructuredMerge extends Observable
 				FSTNonTerminal nonterminalB = (FSTNonTerminal) nodeB;
 				FSTNonTerminal nonterminalComposed = (FSTNonTerminal) composed;
 
+				//children matching by identity (type and name), avoiding a scan of all children per lookup
+				ChildrenIndex childrenA = new ChildrenIndex(nonterminalA);
+				ChildrenIndex childrenB = new ChildrenIndex(nonterminalB);
+
 				/*
 				 * nodes from base or right
 				 */
 				for (FSTNode childB : nonterminalB.getChildren()) { 	
-					FSTNode childA = nonterminalA.getCompatibleChild(childB);
+					FSTNode childA = childrenA.getCompatibleChild(childB);
 					if (childA == null) { 								// means that a base node was deleted by left, or that a right node was added
 						FSTNode cloneB = childB.getDeepClone();
 						if (childB.index == -1)
@@ -177,7 +212,7 @@ public class SemistructuredMerge extends Observable
 				 * nodes from left or leftBase
 				 */
 				for (FSTNode childA : nonterminalA.getChildren()) { 	
-					FSTNode childB = nonterminalB.getCompatibleChild(childA);
+					FSTNode childB = childrenB.getCompatibleChild(childA);
 					if (childB == null) { 								// is a new node from left, or a deleted base node in right
 						FSTNode cloneA = childA.getDeepClone();
 						if (childA.index == -1)
@@ -250,13 +285,11 @@ public class SemistructuredMerge extends Observable
 	private void removeRemainingBaseNodes(FSTNode mergedTree, MergeContext context) {
 		boolean removed = false;
 		if (!context.deletedBaseNodes.isEmpty()) {
-			for (FSTNode loneBaseNode : context.deletedBaseNodes) {
-				if (mergedTree == loneBaseNode) {
-					FSTNonTerminal parent = (FSTNonTerminal) mergedTree.getParent();
-					if (parent != null) {
-						parent.removeChild(mergedTree);
-						removed = true;
-					}
+			if (context.deletedBaseNodes.contains(mergedTree)) { //lone base node
+				FSTNonTerminal parent = (FSTNonTerminal) mergedTree.getParent();
+				if (parent != null) {
+					parent.removeChild(mergedTree);
+					removed = true;
 				}
 			}
 			if (!removed && mergedTree instanceof FSTNonTerminal) {
@@ -292,7 +325,7 @@ public class SemistructuredMerge extends Observable
 				String rightContent = splittedBodyContent[2].trim();
 				
 				//#conflictsAnalyzer
-				String mergedBodyContent = TextualMerge.mergeGit(leftContent, baseContent, rightContent, (FSTTerminal)node);
+				String mergedBodyContent = TextualMerge.mergeGit(leftContent, baseContent, rightContent, (FSTTerminal)node, context.profile);
 				//#conflictsAnalyzer
 				
 				((FSTTerminal) node).setBody(mergedBodyContent);
@@ -333,14 +366,14 @@ public class SemistructuredMerge extends Observable
 	 */
 	private void identifyPossibleNodesDeletionOrRenamings(FSTNode node, MergeContext context, String leftContent,
 			String baseContent, String rightContent) {
-		String leftContenttrim = FilesManager.getStringContentIntoSingleLineNoSpacing(leftContent);
-		String baseContenttrim = FilesManager.getStringContentIntoSingleLineNoSpacing(baseContent);
-		String rightContenttrim = FilesManager.getStringContentIntoSingleLineNoSpacing(rightContent);
+		ContentFingerprint leftContenttrim = ContentFingerprint.of(leftContent);
+		ContentFingerprint baseContenttrim = ContentFingerprint.of(baseContent);
+		ContentFingerprint rightContenttrim = ContentFingerprint.of(rightContent);
 		if (!baseContenttrim.isEmpty()) {
-			if (!baseContenttrim.equals(leftContenttrim) && rightContenttrim.isEmpty()) {
+			if (!baseContenttrim.isEquivalentTo(leftContenttrim) && rightContenttrim.isEmpty()) {
 				Pair<String, FSTNode> tuple = Pair.of(baseContent, node);
 				context.possibleRenamedRightNodes.add(tuple);
-			} else if (!baseContenttrim.equals(rightContenttrim) && leftContenttrim.isEmpty()) {
+			} else if (!baseContenttrim.isEquivalentTo(rightContenttrim) && leftContenttrim.isEmpty()) {
 				Pair<String, FSTNode> tuple = Pair.of(baseContent, node);
 				context.possibleRenamedLeftNodes.add(tuple);
 			}
@@ -358,13 +391,13 @@ public class SemistructuredMerge extends Observable
 	 */
 	private void identifyNodesEditedInOnlyOneVersion(FSTNode node, MergeContext context, String leftContent,
 			String baseContent, String rightContent) {
-		String leftContenttrim = FilesManager.getStringContentIntoSingleLineNoSpacing(leftContent);
-		String baseContenttrim = FilesManager.getStringContentIntoSingleLineNoSpacing(baseContent);
-		String rightContenttrim = FilesManager.getStringContentIntoSingleLineNoSpacing(rightContent);
+		ContentFingerprint leftContenttrim = ContentFingerprint.of(leftContent);
+		ContentFingerprint baseContenttrim = ContentFingerprint.of(baseContent);
+		ContentFingerprint rightContenttrim = ContentFingerprint.of(rightContent);
 		if (!baseContenttrim.isEmpty()) {
-			if (baseContenttrim.equals(leftContenttrim) && !rightContenttrim.equals(leftContenttrim)) {
+			if (baseContenttrim.isEquivalentTo(leftContenttrim) && !rightContenttrim.isEquivalentTo(leftContenttrim)) {
 				context.editedRightNodes.add(node);
-			} else if (baseContenttrim.equals(rightContenttrim) && !leftContenttrim.equals(rightContenttrim)) {
+			} else if (baseContenttrim.isEquivalentTo(rightContenttrim) && !leftContenttrim.isEquivalentTo(rightContenttrim)) {
 				context.editedLeftNodes.add(node);
 			}
 		}
@@ -16,9 +16,12 @@ import org.eclipse.jgit.merge.MergeAlgorithm;
 import org.eclipse.jgit.merge.MergeFormatter;
 import org.eclipse.jgit.merge.MergeResult;
 
+import br.ufpe.cin.app.JFSTMerge;
 import br.ufpe.cin.exceptions.ExceptionUtils;
 import br.ufpe.cin.exceptions.TextualMergeException;
 import br.ufpe.cin.files.FilesManager;
+import br.ufpe.cin.mergers.util.MergePhase;
+import br.ufpe.cin.mergers.util.MergeProfile;
 import de.ovgu.cide.fstgen.ast.FSTTerminal;
 
 /**
@@ -92,6 +95,24 @@ public final class TextualMerge {
 		return textualMergeResult;
 	}
 	
+	/**
+	 * Merges textually three strings in the <i>diff3</i> style, that is, conflicts also show the base content.
+	 * The result is the same of merging these strings with <i>git merge-file --diff3</i>, 
+	 * see {@link #callGitMerge(File[])}, but computed in-process.
+	 * @param leftContent
+	 * @param baseContent
+	 * @param rightContent
+	 * @return merged string.
+	 * @throws TextualMergeException
+	 */
+	public static String mergeDiff3(String leftContent, String baseContent, String rightContent) throws TextualMergeException{
+		try{
+			return Diff3Merge.merge(leftContent, baseContent, rightContent);
+		}catch(Exception e){
+			throw new TextualMergeException(ExceptionUtils.getCauseMessage(e), leftContent,baseContent,rightContent);
+		}
+	}
+	
 	//#conflictsAnalyzer
 	/*
 	 * this commented code uses the gnu diff3 which is not supported on windows plaftorm. 
@@ -198,19 +219,38 @@ public final class TextualMerge {
 	 * to get the code base version
 	 * */
 	public static String mergeGit(String leftContent, String baseContent, String rightContent, FSTTerminal node) {
+		return mergeGit(leftContent, baseContent, rightContent, node, new MergeProfile());
+	}
+
+	/**
+	 * Same as {@link #mergeGit(String, String, String, FSTTerminal)}, timing the jgit merge 
+	 * and its diff3 fallback in the given profile.
+	 */
+	public static String mergeGit(String leftContent, String baseContent, String rightContent, FSTTerminal node, MergeProfile profile) {
 		String textualMergeResult = "";
 		try {
 			//call jgit merge
+			profile.start(MergePhase.NODES_MERGE_JGIT);
 			textualMergeResult = merge(leftContent, baseContent, rightContent, true);
+			profile.stop(MergePhase.NODES_MERGE_JGIT);
 			if(textualMergeResult.contains(SemistructuredMerge.DIFF3MERGE_SEPARATOR)) {
-				//create temp files
-				File[] files = TextualMerge.createTempFiles(leftContent, baseContent, rightContent); 
-				//call git merge
-				int result = TextualMerge.callGitMerge(files);
-				//read left file content
-				textualMergeResult = TextualMerge.readLeftFile(files[0]);
-				// delete temp files
-				TextualMerge.deleteTempFiles(files);
+				if(JFSTMerge.useGitMergeFile){
+					profile.start(MergePhase.NODES_MERGE_GIT_MERGE_FILE);
+					//create temp files
+					File[] files = TextualMerge.createTempFiles(leftContent, baseContent, rightContent); 
+					//call git merge
+					int result = TextualMerge.callGitMerge(files);
+					//read left file content
+					textualMergeResult = TextualMerge.readLeftFile(files[0]);
+					// delete temp files
+					TextualMerge.deleteTempFiles(files);
+					profile.stop(MergePhase.NODES_MERGE_GIT_MERGE_FILE);
+				} else {
+					//same output of git merge-file, without temp files and a process per node
+					profile.start(MergePhase.NODES_MERGE_DIFF3);
+					textualMergeResult = mergeDiff3(leftContent, baseContent, rightContent);
+					profile.stop(MergePhase.NODES_MERGE_DIFF3);
+				}
 			}
 		} catch (TextualMergeException e) {
 			// TODO Auto-generated catch block
@@ -271,7 +311,9 @@ public final class TextualMerge {
 	
 	public static int callGitMerge(File[] files) {
 		int result = -1;
-		String mergeCmd = "git merge-file --diff3 \"" + files[0].getPath() + "\" \"" +  files[1].getPath() + "\" \"" + files[2].getPath() + "\"";
+		String[] mergeCmd = {"git", "merge-file", "--diff3", 
+				"-L", Diff3Merge.MINE_LABEL, "-L", Diff3Merge.BASE_LABEL, "-L", Diff3Merge.YOURS_LABEL,
+				files[0].getPath(), files[1].getPath(), files[2].getPath()};
 		Runtime run = Runtime.getRuntime();
 		try {
 			Process pr = run.exec(mergeCmd);
@@ -1,11 +1,15 @@
 package br.ufpe.cin.mergers.handlers;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.LinkedList;
 import java.util.stream.Collectors;
 
+import br.ufpe.cin.app.JFSTMerge;
 import br.ufpe.cin.exceptions.TextualMergeException;
 import br.ufpe.cin.mergers.util.MergeContext;
+import br.ufpe.cin.mergers.util.MergePhase;
+import br.ufpe.cin.mergers.util.MergeProfile;
 import br.ufpe.cin.printers.Prettyprinter;
 import de.ovgu.cide.fstgen.ast.FSTNode;
 import de.ovgu.cide.fstgen.ast.FSTTerminal;
@@ -18,45 +22,96 @@ import de.ovgu.cide.fstgen.ast.FSTTerminal;
 final public class ConflictsHandler {
 
 	public static void handle(MergeContext context) throws TextualMergeException{
-		context.semistructuredOutput = Prettyprinter.print(context.superImposedTree); //partial result of semistructured merge is necessary for further processing
+		MergeProfile profile = context.profile;
+		profile.start(MergePhase.PRINT);
+		try {
+			context.semistructuredOutput = Prettyprinter.print(context.superImposedTree); //partial result of semistructured merge is necessary for further processing
+		} finally {
+			profile.stop(MergePhase.PRINT);
+		}
 		
-		findAndDetectTypeAmbiguityErrors(context);
-		findAndDetectNewElementReferencingEditedOne(context);
-		findAndResolveRenamingOrDeletionConflicts(context);
-		findAndDetectInitializationBlocks(context);
-		findAndDetectDeletionsOfHighLevelElements(context);
-		findAndAccountDuplicatedDeclarationErrors(context);
+		profile.start(MergePhase.TYPE_AMBIGUITY_ERRORS_HANDLER);
+		try {
+			findAndDetectTypeAmbiguityErrors(context);
+		} finally {
+			profile.stop(MergePhase.TYPE_AMBIGUITY_ERRORS_HANDLER);
+		}
+
+		profile.start(MergePhase.NEW_ELEMENT_REFERENCING_EDITED_ONE_HANDLER);
+		try {
+			findAndDetectNewElementReferencingEditedOne(context);
+		} finally {
+			profile.stop(MergePhase.NEW_ELEMENT_REFERENCING_EDITED_ONE_HANDLER);
+		}
+
+		profile.start(MergePhase.RENAMING_OR_DELETION_HANDLER);
+		try {
+			findAndResolveRenamingOrDeletionConflicts(context);
+		} finally {
+			profile.stop(MergePhase.RENAMING_OR_DELETION_HANDLER);
+		}
+
+		profile.start(MergePhase.INITIALIZATION_BLOCKS_HANDLER);
+		try {
+			findAndDetectInitializationBlocks(context);
+		} finally {
+			profile.stop(MergePhase.INITIALIZATION_BLOCKS_HANDLER);
+		}
+
+		profile.start(MergePhase.DELETIONS_HANDLER);
+		try {
+			findAndDetectDeletionsOfHighLevelElements(context);
+		} finally {
+			profile.stop(MergePhase.DELETIONS_HANDLER);
+		}
+
+		if(!JFSTMerge.isProduction){ //duplicated declaration errors are only accounted for statistics
+			profile.start(MergePhase.DUPLICATED_DECLARATION_HANDLER);
+			try {
+				findAndAccountDuplicatedDeclarationErrors(context);
+			} finally {
+				profile.stop(MergePhase.DUPLICATED_DECLARATION_HANDLER);
+			}
+		}
 	}
 
-	private static void findAndDetectTypeAmbiguityErrors(MergeContext context) {
+	private static void findAndDetectTypeAmbiguityErrors(MergeContext context) throws TextualMergeException {
 		LinkedList<FSTNode> leftImportStatements  = new LinkedList<FSTNode>();
 		LinkedList<FSTNode> rightImportStatements = new LinkedList<FSTNode>();
 
 		//identifying the import statements added by left and right
-		for(int i = 0; i < context.addedLeftNodes.size();i++){
-			FSTNode leftNode = context.addedLeftNodes.get(i);
+		Iterator<FSTNode> leftNodes = context.addedLeftNodes.iterator();
+		while(leftNodes.hasNext()){
+			FSTNode leftNode = leftNodes.next();
 			if((leftNode instanceof FSTTerminal) && leftNode.getType().contains("ImportDeclaration")){
 				leftImportStatements.add(leftNode);
-				context.addedLeftNodes.remove(i); //to not interfere with the others handlers
+				leftNodes.remove(); //to not interfere with the others handlers
+				if(leftNodes.hasNext()){
+					leftNodes.next(); //as when removing by index, the node after a removed one is not visited
+				}
 			}
 		}
-		for(int i = 0; i<context.addedRightNodes.size();i++){
-			FSTNode rightNode = context.addedRightNodes.get(i);
+		Iterator<FSTNode> rightNodes = context.addedRightNodes.iterator();
+		while(rightNodes.hasNext()){
+			FSTNode rightNode = rightNodes.next();
 			if((rightNode instanceof FSTTerminal) && rightNode.getType().contains("ImportDeclaration")){
 				rightImportStatements.add(rightNode);
-				context.addedRightNodes.remove(i);
+				rightNodes.remove();
+				if(rightNodes.hasNext()){
+					rightNodes.next();
+				}
 			}
 		}
 		//invoking the specific handler for type ambiguity errors
 		TypeAmbiguityErrorHandler.handle(context, leftImportStatements, rightImportStatements);
 	}
 
-	private static void findAndDetectNewElementReferencingEditedOne(MergeContext context) {
+	private static void findAndDetectNewElementReferencingEditedOne(MergeContext context) throws TextualMergeException {
 		//invoking the specific handler for new element referencing edited one
 		NewElementReferencingEditedOneHandler.handle(context);
 	}
 	
-	private static void findAndResolveRenamingOrDeletionConflicts(MergeContext context) {
+	private static void findAndResolveRenamingOrDeletionConflicts(MergeContext context) throws TextualMergeException {
 		//invoking the specific handler for renaming and deletion conflicts
 		RenamingOrDeletionConflictsHandler.handle(context);
 	}
@@ -76,7 +131,7 @@ final public class ConflictsHandler {
 		InitializationBlocksHandler.handle(context, leftInitlBlocks, baseInitlBlocks, rightInitlBlocks);		
 	}
 	
-	private static void findAndAccountDuplicatedDeclarationErrors(MergeContext context) {
+	private static void findAndAccountDuplicatedDeclarationErrors(MergeContext context) throws TextualMergeException {
 		//invoking the specific handler for duplicated declaration errors
 		DuplicatedDeclarationHandler.handle(context);
 	}
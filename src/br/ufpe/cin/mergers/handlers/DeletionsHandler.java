@@ -1,7 +1,7 @@
 package br.ufpe.cin.mergers.handlers;
 
-import br.ufpe.cin.files.FilesManager;
 import br.ufpe.cin.mergers.util.MergeContext;
+import br.ufpe.cin.mergers.util.TreeIndex;
 import de.ovgu.cide.fstgen.ast.FSTNode;
 import de.ovgu.cide.fstgen.ast.FSTNonTerminal;
 import de.ovgu.cide.fstgen.ast.FSTTerminal;
@@ -19,14 +19,14 @@ public class DeletionsHandler {
 
 	public static void handle(MergeContext context) {
 		for(FSTNode deletedLeft : context.nodesDeletedByLeft){
-			manageDeletions(context, deletedLeft, context.rightTree);
+			manageDeletions(context, deletedLeft, context.getRightTreeIndex());
 		}
 		for(FSTNode deletedRight : context.nodesDeletedByRight){
-			manageDeletions(context, deletedRight, context.leftTree);
+			manageDeletions(context, deletedRight, context.getLeftTreeIndex());
 		}
 	}
 
-	private static void manageDeletions(MergeContext context, FSTNode deletedNode, FSTNode source) {
+	private static void manageDeletions(MergeContext context, FSTNode deletedNode, TreeIndex source) {
 		if(deletedNode instanceof FSTNonTerminal){ //high-level elements are FSTNonTerminal nodes
 			//1. search node's ID
 			String identifier = null;
@@ -38,29 +38,29 @@ public class DeletionsHandler {
 			}
 			//2. search corresponding nodes through the ID above
 			if(identifier != null){
-				FSTNode correspondingInMerged = FilesManager.findNodeByID(context.superImposedTree, identifier);
-				FSTNode correspondingInSource  = FilesManager.findNodeByID(source, identifier);
+				FSTNode correspondingInMerged = context.getSuperImposedTreeIndex().findNodeByID(identifier);
+				FSTNode correspondingInSource  = source.findNodeByID(identifier);
 				
 				//3. update merged node
 				if(correspondingInMerged!= null && correspondingInSource!=null){
 					correspondingInMerged = correspondingInMerged.getParent();
 					correspondingInSource = correspondingInSource.getParent();
-					updateMergedTree(correspondingInMerged, correspondingInSource);
+					updateMergedTree(context.getSuperImposedTreeIndex(), correspondingInMerged, correspondingInSource);
 				}
 			}
 		}
 	}
 
-	private static void updateMergedTree(FSTNode merged, FSTNode source) {
+	private static void updateMergedTree(TreeIndex mergedIndex, FSTNode merged, FSTNode source) {
 		if (merged.compatibleWith(source)) {
 			for (FSTNode childB : ((FSTNonTerminal) source).getChildren()) { 
 				FSTNode childA = ((FSTNonTerminal) merged).getCompatibleChild(childB);
 				if (childA == null) { 								
 				} else {
 					if(childA instanceof FSTTerminal){
-						((FSTTerminal) childA).setBody(((FSTTerminal) childB).getBody());
+						mergedIndex.setBody((FSTTerminal) childA, ((FSTTerminal) childB).getBody());
 					} else {
-				          updateMergedTree(childA, childB);
+				          updateMergedTree(mergedIndex, childA, childB);
 			        }
 				}
 			}
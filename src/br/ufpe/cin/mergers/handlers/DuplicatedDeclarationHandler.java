@@ -5,7 +5,7 @@ import java.util.List;
 
 import org.eclipse.jdt.core.compiler.IProblem;
 
-import br.ufpe.cin.files.FilesManager;
+import br.ufpe.cin.exceptions.TextualMergeException;
 import br.ufpe.cin.mergers.util.JavaCompiler;
 import br.ufpe.cin.mergers.util.MergeConflict;
 import br.ufpe.cin.mergers.util.MergeContext;
@@ -19,10 +19,8 @@ import br.ufpe.cin.mergers.util.Source;
  */
 public final class DuplicatedDeclarationHandler {
 
-	public static void handle(MergeContext context){
+	public static void handle(MergeContext context) throws TextualMergeException {
 		int duplicatedDeclarationErrors = 0;
-		
-		long t0 = System.nanoTime();
 
 		//1. compile unstructured merge output
 		JavaCompiler compiler = new JavaCompiler();
@@ -42,11 +40,6 @@ public final class DuplicatedDeclarationHandler {
 				}
 			}
 		}
-		
-		//excluding handler execution time to not bias peformance evaluation as it is not required to original semistructured merge time
-		long tf = System.nanoTime();
-		long tt = tf-t0;
-		context.semistructuredMergeTime = context.semistructuredMergeTime - tt;
 
 		context.duplicatedDeclarationErrors = duplicatedDeclarationErrors;
 	}
@@ -79,8 +72,8 @@ public final class DuplicatedDeclarationHandler {
 	 * @param context
 	 * @param sourceLOCs
 	 */
-	private static boolean isConflictingLOC(MergeContext context, List<Integer> sourceLOCs) {
-		List<MergeConflict> conflicts = FilesManager.extractMergeConflicts(context.unstructuredOutput);
+	private static boolean isConflictingLOC(MergeContext context, List<Integer> sourceLOCs) throws TextualMergeException {
+		List<MergeConflict> conflicts = context.getUnstructuredMergeConflicts();
 		for(int sourceLOC : sourceLOCs){
 			for(MergeConflict mc : conflicts){
 				if((mc.startLOC <= sourceLOC) && (mc.endLOC >= sourceLOC)){
@@ -1,8 +1,12 @@
 package br.ufpe.cin.mergers.handlers;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
-import br.ufpe.cin.files.FilesManager;
+import br.ufpe.cin.exceptions.TextualMergeException;
+import br.ufpe.cin.files.ContentFingerprint;
+import br.ufpe.cin.mergers.util.IdentifiersMatcher;
 import br.ufpe.cin.mergers.util.MergeConflict;
 import br.ufpe.cin.mergers.util.MergeContext;
 import de.ovgu.cide.fstgen.ast.FSTNode;
@@ -14,7 +18,7 @@ import de.ovgu.cide.fstgen.ast.FSTTerminal;
  */
 public final class NewElementReferencingEditedOneHandler {
 
-	public static void handle(MergeContext context) {
+	public static void handle(MergeContext context) throws TextualMergeException {
 		/*
 		 * using unstructured merge output as guide to ensure that semistructured merge is not worse than unstructured merge.
 		 * if there is a conflict with the investigated elements in unstructured merge output, we flag the elements as conflicting
@@ -23,60 +27,109 @@ public final class NewElementReferencingEditedOneHandler {
 		 */
 		if((!context.editedLeftNodes.isEmpty() && !context.addedRightNodes.isEmpty()) ||
 		   (!context.editedRightNodes.isEmpty()&& !context.addedLeftNodes.isEmpty())){
-		List<MergeConflict> unstructuredMergeConflicts = FilesManager.extractMergeConflicts(context.unstructuredOutput);
-		for(FSTNode addedLeftNode : context.addedLeftNodes){
-			if(isValidNode(addedLeftNode)){
-				for(FSTNode editedRightNode : context.editedRightNodes){
-					if(isValidNode(editedRightNode)){
-						String newElementContent 	  = ((FSTTerminal) addedLeftNode).getBody();
-						String editedElementContent   = getEditedElementContent(editedRightNode);
-						String editedElementIdentfier = getElementIdentifier(editedRightNode);
-						if(thereIsUnstructuredConflictWithAddedAndEditedElements(unstructuredMergeConflicts, newElementContent, editedElementContent)){
-							if(addedElementRefersToEditedOne(newElementContent,editedElementIdentfier)){
-								generateConflictWithAddedAndEditedElements(context, ((FSTTerminal)editedRightNode).getBody(),newElementContent);
-							}
-						}
-					}
-				}
+		List<MergeConflict> unstructuredMergeConflicts = context.getUnstructuredMergeConflicts();
+		handle(context, unstructuredMergeConflicts, context.addedLeftNodes, context.editedRightNodes);
+		handle(context, unstructuredMergeConflicts, context.addedRightNodes, context.editedLeftNodes);
+		}
+	}
+
+	/**
+	 * Looks for elements added by one version referring to elements edited by the other.
+	 * The identifiers of the edited elements are searched in each added element in a single pass, and the unstructured merge conflicts
+	 * are narrowed, once for each added element, to those containing it.
+	 */
+	private static void handle(MergeContext context, List<MergeConflict> unstructuredMergeConflicts, Set<FSTNode> addedNodes, Set<FSTNode> editedNodes) {
+		if(addedNodes.isEmpty() || editedNodes.isEmpty()){
+			return;
+		}
+		List<String> editedElementsIdentifiers = new ArrayList<String>();
+		for(FSTNode editedNode : editedNodes){
+			if(isValidNode(editedNode)){
+				editedElementsIdentifiers.add(getElementIdentifier(editedNode));
 			}
 		}
-		for(FSTNode addedRightNode : context.addedRightNodes){
-			if(isValidNode(addedRightNode)){
-				for(FSTNode editedLeftNode : context.editedLeftNodes){
-					if(isValidNode(editedLeftNode)){
-						String newElementContent 	  = ((FSTTerminal) addedRightNode).getBody();
-						String editedElementContent   = getEditedElementContent(editedLeftNode);
-						String editedElementIdentfier = getElementIdentifier(editedLeftNode);
-						if(thereIsUnstructuredConflictWithAddedAndEditedElements(unstructuredMergeConflicts, newElementContent, editedElementContent)){
-							if(addedElementRefersToEditedOne(newElementContent,editedElementIdentfier)){
-								generateConflictWithAddedAndEditedElements(context, ((FSTTerminal)editedLeftNode).getBody(),newElementContent);
+		IdentifiersMatcher matcher = new IdentifiersMatcher(editedElementsIdentifiers);
+
+		for(FSTNode addedNode : addedNodes){
+			if(isValidNode(addedNode)){
+				String scannedContent = null;
+				Set<String> referencedIdentifiers = null;
+				UnstructuredConflictsWithElement conflictsWithAddedElement = null;
+				for(FSTNode editedNode : editedNodes){
+					if(isValidNode(editedNode)){
+						String newElementContent 	  = ((FSTTerminal) addedNode).getBody();
+						String editedElementIdentfier = getElementIdentifier(editedNode);
+						if(newElementContent != scannedContent){ //scanning the added element once, unless a generated conflict changed it
+							scannedContent = newElementContent;
+							referencedIdentifiers = matcher.findReferences(newElementContent);
+							conflictsWithAddedElement = null;
+						}
+						if(addedElementRefersToEditedOne(newElementContent, editedElementIdentfier, referencedIdentifiers)){
+							if(conflictsWithAddedElement == null){
+								conflictsWithAddedElement = new UnstructuredConflictsWithElement(unstructuredMergeConflicts, newElementContent);
+							}
+							String editedElementContent = getEditedElementContent(editedNode);
+							if(conflictsWithAddedElement.containsEditedElement(editedElementContent)){
+								generateConflictWithAddedAndEditedElements(context, ((FSTTerminal)editedNode).getBody(),newElementContent);
 							}
 						}
 					}
 				}
 			}
 		}
-		}
 	}
 
 	/**
-	 * Given a list of unstructured merge conflicts, verifies if there is
-	 * a conflict containing the added and edited elements.
-	 * @param unstructuredMergeConflicts
-	 * @param added element
-	 * @param edited element
-	 * @return true if there is, false if not.
+	 * Unstructured merge conflicts containing an added element in one of their sides.
+	 * A conflict contains the added and an edited element when it contains one of them in each side,
+	 * so only these conflicts are searched for the edited elements.
 	 */
-	private static boolean thereIsUnstructuredConflictWithAddedAndEditedElements(List<MergeConflict> unstructuredMergeConflicts,String addedContent, String editedContent) {
-		for(MergeConflict mc : unstructuredMergeConflicts){
-			if(mc.contains(addedContent, editedContent) || mc.contains(editedContent,addedContent)){
-				return true;
+	private static final class UnstructuredConflictsWithElement {
+		private final List<MergeConflict> withElementInLeft  = new ArrayList<MergeConflict>();
+		private final List<MergeConflict> withElementInRight = new ArrayList<MergeConflict>();
+		private final boolean emptyElement;
+
+		UnstructuredConflictsWithElement(List<MergeConflict> unstructuredMergeConflicts, String addedContent) {
+			emptyElement = addedContent.isEmpty();
+			if(!emptyElement){
+				ContentFingerprint addedElement = ContentFingerprint.of(addedContent);
+				for(MergeConflict mc : unstructuredMergeConflicts){
+					if(ContentFingerprint.of(mc.left).contains(addedElement)){
+						withElementInLeft.add(mc);
+					}
+					if(ContentFingerprint.of(mc.right).contains(addedElement)){
+						withElementInRight.add(mc);
+					}
+				}
 			}
 		}
-		return false;
+
+		/**
+		 * @return <b>true</b> if there is a conflict containing the added element in one side, and the given edited element in the other.
+		 */
+		boolean containsEditedElement(String editedContent) {
+			if(emptyElement || editedContent.isEmpty()){
+				return false;
+			}
+			ContentFingerprint editedElement = ContentFingerprint.of(editedContent);
+			for(MergeConflict mc : withElementInLeft){
+				if(ContentFingerprint.of(mc.right).contains(editedElement)){
+					return true;
+				}
+			}
+			for(MergeConflict mc : withElementInRight){
+				if(ContentFingerprint.of(mc.left).contains(editedElement)){
+					return true;
+				}
+			}
+			return false;
+		}
 	}
-	
-	private static boolean addedElementRefersToEditedOne(String newElementContent, String editedElementIdentifier) {
+
+	private static boolean addedElementRefersToEditedOne(String newElementContent, String editedElementIdentifier, Set<String> referencedIdentifiers) {
+		if(IdentifiersMatcher.accepts(editedElementIdentifier)){
+			return referencedIdentifiers.contains(editedElementIdentifier);
+		}
 		return newElementContent.matches("(?s).*\\b"+editedElementIdentifier+"\\b.*");
 	}
 
@@ -112,8 +165,8 @@ public final class NewElementReferencingEditedOneHandler {
 		//first creates a conflict with the import statements
 		MergeConflict newConflict = new MergeConflict(editedElementContent+'\n', addedElementContent+'\n');
 		//second put the conflict in one of the nodes containing the import statements, and deletes the other node containing the orther import statement
-		FilesManager.findAndReplaceASTNodeContent(context.superImposedTree, editedElementContent, newConflict.body);
-		FilesManager.findAndDeleteASTNode(context.superImposedTree, addedElementContent);
+		context.getSuperImposedTreeIndex().findAndReplaceASTNodeContent(editedElementContent, newConflict.body);
+		context.getSuperImposedTreeIndex().findAndDeleteASTNode(addedElementContent);
 		
 		//statistics
 		context.newElementReferencingEditedOneConflicts++;
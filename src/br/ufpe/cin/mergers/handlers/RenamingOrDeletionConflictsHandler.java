@@ -1,11 +1,15 @@
 package br.ufpe.cin.mergers.handlers;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.tuple.Pair;
 
+import br.ufpe.cin.exceptions.TextualMergeException;
 import br.ufpe.cin.files.FilesManager;
 import br.ufpe.cin.mergers.util.MergeConflict;
 import br.ufpe.cin.mergers.util.MergeContext;
@@ -21,70 +25,48 @@ import de.ovgu.cide.fstgen.ast.FSTTerminal;
  */
 public final class RenamingOrDeletionConflictsHandler {
 
-	public static void handle(MergeContext context) {
+	//a typical value of 0.7 (up to 1.0) is used, increase it for a more accurate comparison, or decrease for a more relaxed one.
+	private static final double SIMILARITY_THRESHOLD = 0.7;
+
+	public static void handle(MergeContext context) throws TextualMergeException {
 		//possible renamings or deletions in left
 		if(!context.possibleRenamedLeftNodes.isEmpty() || !context.possibleRenamedRightNodes.isEmpty()){
+			RenamingIndex index = new RenamingIndex(context);
 			for(Pair<String,FSTNode> tuple: context.possibleRenamedLeftNodes){
-				List<Pair<Double,String>> similarNodes = new ArrayList<Pair<Double,String>>(); //list of possible nodes renaming a previous one
 				if(nodeHasConflict(tuple.getRight()) && isValidNode(tuple.getRight())){
 					String baseContent = tuple.getLeft();
 					String currentNodeContent= ((FSTTerminal) tuple.getRight()).getBody(); //node content with conflict
 					String editedNodeContent = FilesManager.extractMergeConflicts(currentNodeContent).get(0).right;
 
-					//1. getting similar nodes to fulfill renaming conflicts
-					for(FSTNode newNode : context.addedLeftNodes){ // a possible renamed node is seem as "new" node due to superimposition
-						if(isValidNode(newNode)){
-							String possibleRenamingContent = ((FSTTerminal) newNode).getBody();
-							double similarity  	  		   = FilesManager.computeStringSimilarity(baseContent, possibleRenamingContent);
-							if(similarity >= 0.7){ //a typical value of 0.7 (up to 1.0) is used, increase it for a more accurate comparison, or decrease for a more relaxed one.
-								Pair<Double,String> tp = Pair.of(similarity, possibleRenamingContent);
-								similarNodes.add(tp);
-							}
-						}
-					}
+					//1. getting similar nodes to fulfill renaming conflicts, a possible renamed node is seem as "new" node due to superimposition
+					List<Pair<Double,String>> similarNodes = index.getLeftCandidates().getSimilarNodes(baseContent); //list of possible nodes renaming a previous one
 
 					//2. checking if unstructured merge also reported the renaming conflict
 					String signature = getSignature(baseContent);
-					List<MergeConflict> unstructuredMergeConflictsHavingRenamedSignature = FilesManager.extractMergeConflicts(context.unstructuredOutput).stream()
-							.filter(mc -> FilesManager.getStringContentIntoSingleLineNoSpacing(mc.body).contains(signature))
-							.collect(Collectors.toList());
-					if(unstructuredMergeConflictsHavingRenamedSignature.size() > 0){
+					if(index.hasUnstructuredMergeConflictWith(signature)){
 						String possibleRenamingContent = getMostSimilarContent(similarNodes);
 						generateRenamingConflict(context, currentNodeContent, possibleRenamingContent, editedNodeContent,false);
 					} else { //do not report the renaming conflict
-						((FSTTerminal) tuple.getRight()).setBody(editedNodeContent);
+						context.getSuperImposedTreeIndex().setBody((FSTTerminal) tuple.getRight(), editedNodeContent);
 					}
 				}
 			}
 
 			//possible renamings or deletions in right
 			for(Pair<String,FSTNode> tuple: context.possibleRenamedRightNodes){
-				List<Pair<Double,String>> similarNodes = new ArrayList<Pair<Double,String>>(); //list of possible nodes renaming a previous one
 				if(nodeHasConflict(tuple.getRight()) && isValidNode(tuple.getRight())){
 					String baseContent = tuple.getLeft();
 					String currentNodeContent= ((FSTTerminal) tuple.getRight()).getBody(); //node content with conflict
 					String editedNodeContent = FilesManager.extractMergeConflicts(currentNodeContent).get(0).left;
 
-					for(FSTNode newNode : context.addedRightNodes){ // a possible renamed node is seem as "new" node due to superimposition
-						if(isValidNode(newNode)){
-							String possibleRenamingContent = ((FSTTerminal) newNode).getBody();
-							double similarity  	  		   = FilesManager.computeStringSimilarity(baseContent, possibleRenamingContent);
-							if(similarity >= 0.7){ //a typical value of 0.7 (up to 1.0) is used, increase it for a more accurate comparison, or decrease for a more relaxed one.
-								Pair<Double,String> tp = Pair.of(similarity, possibleRenamingContent);
-								similarNodes.add(tp);
-							}
-						}
-					}
+					List<Pair<Double,String>> similarNodes = index.getRightCandidates().getSimilarNodes(baseContent); //list of possible nodes renaming a previous one
 
 					String signature = getSignature(baseContent);
-					List<MergeConflict> unstructuredMergeConflictsHavingRenamedSignature = FilesManager.extractMergeConflicts(context.unstructuredOutput).stream()
-							.filter(mc -> FilesManager.getStringContentIntoSingleLineNoSpacing(mc.body).contains(signature))
-							.collect(Collectors.toList());
-					if(unstructuredMergeConflictsHavingRenamedSignature.size() > 0){
+					if(index.hasUnstructuredMergeConflictWith(signature)){
 						String possibleRenamingContent = getMostSimilarContent(similarNodes);
 						generateRenamingConflict(context, currentNodeContent, possibleRenamingContent, editedNodeContent,false);
 					} else { //do not report the renaming conflict
-						((FSTTerminal) tuple.getRight()).setBody(editedNodeContent);
+						context.getSuperImposedTreeIndex().setBody((FSTTerminal) tuple.getRight(), editedNodeContent);
 					}
 				}
 			}
@@ -141,12 +123,126 @@ public final class RenamingOrDeletionConflictsHandler {
 		//first creates a conflict 
 		MergeConflict newConflict = new MergeConflict(firstContent+'\n', secondContent+'\n');
 		//second put the conflict in one of the nodes containing the previous conflict, and deletes the other node containing the possible renamed version
-		FilesManager.findAndReplaceASTNodeContent(context.superImposedTree, currentNodeContent, newConflict.body);
+		context.getSuperImposedTreeIndex().findAndReplaceASTNodeContent(currentNodeContent, newConflict.body);
 		if(isLeftToRight){
-			FilesManager.findAndDeleteASTNode(context.superImposedTree, firstContent);
+			context.getSuperImposedTreeIndex().findAndDeleteASTNode(firstContent);
 		} else {
-			FilesManager.findAndDeleteASTNode(context.superImposedTree, secondContent);
+			context.getSuperImposedTreeIndex().findAndDeleteASTNode(secondContent);
+
+		}
+	}
+
+	/**
+	 * Data looked up for each possibly renamed node of a merge, built on demand, at most once per merge:
+	 * the candidates to renaming added by each side, and the normalized bodies of the unstructured merge conflicts.
+	 */
+	private static final class RenamingIndex {
+		private final MergeContext context;
+		private CandidatesIndex leftCandidates;
+		private CandidatesIndex rightCandidates;
+		private List<String> unstructuredMergeConflictsBodies;
+
+		RenamingIndex(MergeContext context) {
+			this.context = context;
+		}
+
+		CandidatesIndex getLeftCandidates() {
+			if(leftCandidates == null){
+				leftCandidates = new CandidatesIndex(context.addedLeftNodes);
+			}
+			return leftCandidates;
+		}
+
+		CandidatesIndex getRightCandidates() {
+			if(rightCandidates == null){
+				rightCandidates = new CandidatesIndex(context.addedRightNodes);
+			}
+			return rightCandidates;
+		}
+
+		boolean hasUnstructuredMergeConflictWith(String signature) throws TextualMergeException {
+			if(unstructuredMergeConflictsBodies == null){
+				unstructuredMergeConflictsBodies = context.getUnstructuredMergeConflicts().stream()
+						.map(mc -> FilesManager.getStringContentIntoSingleLineNoSpacing(mc.body))
+						.collect(Collectors.toList());
+			}
+			for(String body : unstructuredMergeConflictsBodies){
+				if(body.contains(signature)){
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Added methods and constructors, candidates to renaming, sorted by content length.
+	 * As the similarity of two contents is at most the ratio between their lengths, only candidates
+	 * whose lengths are close enough to the length of the renamed content are compared to it.
+	 */
+	private static final class CandidatesIndex {
+		private final String[] contents;
+		private final int[] positions; //in the iteration order of the added nodes, to keep the order of equally similar nodes
 
+		CandidatesIndex(Set<FSTNode> addedNodes) {
+			List<String> validContents = new ArrayList<String>();
+			for(FSTNode newNode : addedNodes){
+				if(isValidNode(newNode)){
+					validContents.add(((FSTTerminal) newNode).getBody());
+				}
+			}
+			Integer[] order = new Integer[validContents.size()];
+			for(int i = 0; i < order.length; i++){
+				order[i] = i;
+			}
+			Arrays.sort(order, Comparator.comparingInt(i -> validContents.get(i).length()));
+			contents  = new String[order.length];
+			positions = new int[order.length];
+			for(int i = 0; i < order.length; i++){
+				contents[i]  = validContents.get(order[i]);
+				positions[i] = order[i];
+			}
+		}
+
+		/**
+		 * @return candidates similar to the given content, paired with their similarity, in the iteration order of the added nodes.
+		 */
+		List<Pair<Double,String>> getSimilarNodes(String baseContent) {
+			//lengths range a bit wider than the similarity threshold allows, so rounding never discards a similar candidate
+			int minLength = (int) Math.floor(baseContent.length() * SIMILARITY_THRESHOLD) - 1;
+			int maxLength = (int) Math.ceil(baseContent.length() / SIMILARITY_THRESHOLD) + 1;
+			List<Integer> similar = new ArrayList<Integer>();
+			List<Double> similarities = new ArrayList<Double>();
+			for(int i = firstWithLength(minLength); i < contents.length && contents[i].length() <= maxLength; i++){
+				double similarity = FilesManager.computeStringSimilarity(baseContent, contents[i], SIMILARITY_THRESHOLD);
+				if(similarity >= SIMILARITY_THRESHOLD){
+					similar.add(i);
+					similarities.add(similarity);
+				}
+			}
+			List<Integer> byPosition = new ArrayList<Integer>();
+			for(int i = 0; i < similar.size(); i++){
+				byPosition.add(i);
+			}
+			byPosition.sort(Comparator.comparingInt(i -> positions[similar.get(i)]));
+			List<Pair<Double,String>> similarNodes = new ArrayList<Pair<Double,String>>();
+			for(int i : byPosition){
+				similarNodes.add(Pair.of(similarities.get(i), contents[similar.get(i)]));
+			}
+			return similarNodes;
+		}
+
+		private int firstWithLength(int minLength) {
+			int low = 0, high = contents.length;
+			while(low < high){
+				int middle = (low + high) >>> 1;
+				if(contents[middle].length() < minLength){
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			return low;
 		}
 	}
 
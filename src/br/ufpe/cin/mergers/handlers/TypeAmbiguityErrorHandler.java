@@ -5,7 +5,7 @@ import java.util.List;
 
 import org.eclipse.jdt.core.compiler.IProblem;
 
-import br.ufpe.cin.files.FilesManager;
+import br.ufpe.cin.exceptions.TextualMergeException;
 import br.ufpe.cin.files.GoogleTextDiffMatchPatch;
 import br.ufpe.cin.files.GoogleTextDiffMatchPatch.Diff;
 import br.ufpe.cin.mergers.util.JavaCompiler;
@@ -25,7 +25,7 @@ import de.ovgu.cide.fstgen.ast.FSTTerminal;
  */
 public final class TypeAmbiguityErrorHandler {
 
-	public static void handle(MergeContext context,	LinkedList<FSTNode> leftImportStatementsNodes, LinkedList<FSTNode> rightImportStatementsNodes) {
+	public static void handle(MergeContext context,	LinkedList<FSTNode> leftImportStatementsNodes, LinkedList<FSTNode> rightImportStatementsNodes) throws TextualMergeException {
 		/*
 		 * using unstructured merge output as guide to ensure that semistructured merge is not worse than unstructured merge.
 		 * if there is a conflict with the import statements in unstructured merge output, we flag the imports as conflicting
@@ -33,7 +33,6 @@ public final class TypeAmbiguityErrorHandler {
 		 * output to look for compilation problems. 
 		 */
 		if(!leftImportStatementsNodes.isEmpty() && !rightImportStatementsNodes.isEmpty()){
-			List<MergeConflict> unstructuredMergeConflicts = FilesManager.extractMergeConflicts(context.unstructuredOutput);
 			JavaCompiler compiler = new JavaCompiler();
 			compiler.compile(context, Source.SEMISTRUCTURED);	//compiling source code
 			while(!leftImportStatementsNodes.isEmpty()){
@@ -54,14 +53,14 @@ public final class TypeAmbiguityErrorHandler {
 						if(thereIsCompiltationProblemWithImportedStatements(compiler,context,leftImportStatement,rightImportStatement)){
 							generateConflictWithImportStatements(context,leftImportStatement,rightImportStatement); break;
 						} 
-						/*					else if(thereIsUnstructuredConflictWithImportedStatements(unstructuredMergeConflicts,leftImportStatement, rightImportStatement)){
+						/*					else if(thereIsUnstructuredConflictWithImportedStatements(context.getUnstructuredMergeConflicts(),leftImportStatement, rightImportStatement)){
 						generateConflictWithImportStatements(context,leftImportStatement,rightImportStatement); break;
 					}*/
 					}
 					
 					//possible behaviorial type ambiguity error: p.Z vs. q.*
 					else if(rightImportedMember.equals("*;") || leftImportedMember.equals("*;")) {	
-						if(thereIsUnstructuredConflictWithImportedStatements(unstructuredMergeConflicts,leftImportStatement, rightImportStatement)){
+						if(thereIsUnstructuredConflictWithImportedStatements(context.getUnstructuredMergeConflicts(),leftImportStatement, rightImportStatement)){
 							if(thereIsContributionUsingImportedMember(context,rightImportedMember, leftImportedMember)){
 								generateConflictWithImportStatements(context,leftImportStatement,rightImportStatement); break;
 							}
@@ -79,9 +78,9 @@ public final class TypeAmbiguityErrorHandler {
 	 * @param leftImportedMember
 	 */
 	private static boolean thereIsContributionUsingImportedMember(MergeContext context, String rightImportedMember,String leftImportedMember) {
-		String left = (context.getLeft()!=null)?FilesManager.readFileContent(context.getLeft()) :"";
-		String base = (context.getBase()!=null)?FilesManager.readFileContent(context.getBase()) :"";
-		String right=(context.getRight()!=null)?FilesManager.readFileContent(context.getRight()):"";
+		String left = context.getLeftContent();
+		String base = context.getBaseContent();
+		String right= context.getRightContent();
 		if(rightImportedMember.equals("*;")){
 			GoogleTextDiffMatchPatch differ = new GoogleTextDiffMatchPatch();
 			List<Diff> differences = (!base.equals(""))?differ.diffMainAtLineLevel(base,right):differ.diffMainAtLineLevel(left,right);
@@ -165,8 +164,8 @@ public final class TypeAmbiguityErrorHandler {
 		//first creates a conflict with the import statements
 		MergeConflict newConflict = new MergeConflict(leftImportStatement+'\n', rightImportStatement+'\n');
 		//second put the conflict in one of the nodes containing the import statements, and deletes the other node containing the orther import statement
-		FilesManager.findAndReplaceASTNodeContent(context.superImposedTree, leftImportStatement, newConflict.body);
-		FilesManager.findAndDeleteASTNode(context.superImposedTree, rightImportStatement);
+		context.getSuperImposedTreeIndex().findAndReplaceASTNodeContent(leftImportStatement, newConflict.body);
+		context.getSuperImposedTreeIndex().findAndDeleteASTNode(rightImportStatement);
 
 		//statistics
 		context.typeAmbiguityErrorsConflicts++;
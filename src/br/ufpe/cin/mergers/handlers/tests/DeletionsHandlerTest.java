@@ -27,7 +27,7 @@ public class DeletionsHandlerTest {
 	}
 
 	@Test
-	public void testInnerDeletionInLeft() {
+	public void testInnerDeletionInLeft() throws Exception {
 		MergeContext ctx = 	new JFSTMerge().mergeFiles(
 				new File("testfiles/deletioninnerinleft/left/Test.java"), 
 				new File("testfiles/deletioninnerinleft/base/Test.java"), 
@@ -40,7 +40,7 @@ public class DeletionsHandlerTest {
 	}
 
 	@Test
-	public void testInnerDeletionInRight() {
+	public void testInnerDeletionInRight() throws Exception {
 		MergeContext ctx = 	new JFSTMerge().mergeFiles(
 				new File("testfiles/deletioninnerinright/left/Test.java"), 
 				new File("testfiles/deletioninnerinright/base/Test.java"), 
@@ -1,11 +1,15 @@
 package br.ufpe.cin.mergers.handlers.tests;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.OutputStream;
 import java.io.PrintStream;
 
+import org.junit.After;
+import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
@@ -13,6 +17,9 @@ import br.ufpe.cin.app.JFSTMerge;
 import br.ufpe.cin.mergers.util.MergeContext;
 
 public class DuplicatedDeclarationErrorsHandlerTest {
+
+	//merge option changed by tests, restored after each test
+	private boolean isProduction;
 	
 	@BeforeClass
 	public static void setUpBeforeClass() throws Exception {
@@ -25,8 +32,18 @@ public class DuplicatedDeclarationErrorsHandlerTest {
 		System.setOut(hideStream);
 	}
 
+	@Before
+	public void setUp() {
+		isProduction = JFSTMerge.isProduction;
+	}
+
+	@After
+	public void tearDown() {
+		JFSTMerge.isProduction = isProduction;
+	}
+
 	@Test
-	public void testDuplicationErrorNoConflict() {
+	public void testDuplicationErrorNoConflict() throws Exception {
 		MergeContext ctx = 	new JFSTMerge().mergeFiles(
 				new File("testfiles/duplicationsnoconflict/left/Test.java"), 
 				new File("testfiles/duplicationsnoconflict/base/Test.java"), 
@@ -36,7 +53,7 @@ public class DuplicatedDeclarationErrorsHandlerTest {
 	}
 	
 	@Test
-	public void testConflictingDuplicationError() {
+	public void testConflictingDuplicationError() throws Exception {
 		MergeContext ctx = 	new JFSTMerge().mergeFiles(
 				new File("testfiles/duplicationsconflicting/left/Test.java"), 
 				new File("testfiles/duplicationsconflicting/base/Test.java"), 
@@ -44,4 +61,22 @@ public class DuplicatedDeclarationErrorsHandlerTest {
 				null);
 		assertTrue(ctx.duplicatedDeclarationErrors==0);
 	}
+
+	@Test
+	public void testDuplicationErrorNotAccountedInProduction() throws Exception {
+		String semistructuredOutput = new JFSTMerge().mergeFiles(
+				new File("testfiles/duplicationsnoconflict/left/Test.java"), 
+				new File("testfiles/duplicationsnoconflict/base/Test.java"), 
+				new File("testfiles/duplicationsnoconflict/right/Test.java"),
+				null).semistructuredOutput;
+		JFSTMerge.isProduction = true;
+		MergeContext ctx = 	new JFSTMerge().mergeFiles(
+				new File("testfiles/duplicationsnoconflict/left/Test.java"), 
+				new File("testfiles/duplicationsnoconflict/base/Test.java"), 
+				new File("testfiles/duplicationsnoconflict/right/Test.java"),
+				null);
+		assertTrue(ctx.duplicatedDeclarationErrors==0);
+		assertNull(ctx.unstructuredOutput); //no handler needed the unstructured merge
+		assertEquals(semistructuredOutput, ctx.semistructuredOutput);
+	}
 }
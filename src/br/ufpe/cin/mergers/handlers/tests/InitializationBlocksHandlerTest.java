@@ -27,7 +27,7 @@ public class InitializationBlocksHandlerTest {
 	}
 
 	@Test
-	public void testInitializationBlocksInThreeVersions() {
+	public void testInitializationBlocksInThreeVersions() throws Exception {
 		MergeContext ctx = 	new JFSTMerge().mergeFiles(
 				new File("testfiles/initlblocksthreeversions/left/Test.java"), 
 				new File("testfiles/initlblocksthreeversions/base/Test.java"), 
@@ -40,7 +40,7 @@ public class InitializationBlocksHandlerTest {
 	}
 
 	@Test
-	public void testInitializationBlocksNoBase() {
+	public void testInitializationBlocksNoBase() throws Exception {
 		MergeContext ctx = 	new JFSTMerge().mergeFiles(
 				new File("testfiles/initlblocksnobase/left/Test.java"), 
 				new File("testfiles/initlblocksnobase/base/Test.java"), 
@@ -53,7 +53,7 @@ public class InitializationBlocksHandlerTest {
 	}
 
 	@Test
-	public void testInitializationBlocksDistincts() {
+	public void testInitializationBlocksDistincts() throws Exception {
 		MergeContext ctx = 	new JFSTMerge().mergeFiles(
 				new File("testfiles/initlblocksdistincts/left/Test.java"), 
 				new File("testfiles/initlblocksdistincts/base/Test.java"), 
@@ -27,7 +27,7 @@ public class NewElementReferencingEditedOneHandlerTest {
 	}
 	
 	@Test
-	public void testNereoMethodField() {
+	public void testNereoMethodField() throws Exception {
 		MergeContext ctx = 	new JFSTMerge().mergeFiles(
 				new File("testfiles/nereomethodfield/left/Test.java"), 
 				new File("testfiles/nereomethodfield/base/Test.java"), 
@@ -42,7 +42,7 @@ public class NewElementReferencingEditedOneHandlerTest {
 	
 	
 	@Test
-	public void testNereoFieldMethod() {
+	public void testNereoFieldMethod() throws Exception {
 		MergeContext ctx = 	new JFSTMerge().mergeFiles(
 				new File("testfiles/nereofieldmethod/left/Test.java"), 
 				new File("testfiles/nereofieldmethod/base/Test.java"), 
@@ -55,7 +55,7 @@ public class NewElementReferencingEditedOneHandlerTest {
 	}
 	
 	@Test
-	public void testNereoFieldField() {
+	public void testNereoFieldField() throws Exception {
 		MergeContext ctx = 	new JFSTMerge().mergeFiles(
 				new File("testfiles/nereofieldfield/left/Test.java"), 
 				new File("testfiles/nereofieldfield/base/Test.java"), 
@@ -69,7 +69,7 @@ public class NewElementReferencingEditedOneHandlerTest {
 	
 	
 	@Test
-	public void testNereoMethodMethod() {
+	public void testNereoMethodMethod() throws Exception {
 		MergeContext ctx = 	new JFSTMerge().mergeFiles(
 				new File("testfiles/nereomethodmethod/left/Test.java"), 
 				new File("testfiles/nereomethodmethod/base/Test.java"), 
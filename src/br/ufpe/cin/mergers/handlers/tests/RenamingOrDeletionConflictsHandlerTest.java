@@ -27,7 +27,7 @@ public class RenamingOrDeletionConflictsHandlerTest {
 	}
 	
 	@Test
-	public void testConflictingRenamingInLeft() {
+	public void testConflictingRenamingInLeft() throws Exception {
 		MergeContext ctx = 	new JFSTMerge().mergeFiles(
 				new File("testfiles/renamingmethodleftconf/left.java"), 
 				new File("testfiles/renamingmethodleftconf/base.java"), 
@@ -40,7 +40,7 @@ public class RenamingOrDeletionConflictsHandlerTest {
 	}
 
 	@Test
-	public void testConflictingRenamingInRight() {
+	public void testConflictingRenamingInRight() throws Exception {
 		MergeContext ctx = 	new JFSTMerge().mergeFiles(
 				new File("testfiles/renamingmethodrightconf/left.java"), 
 				new File("testfiles/renamingmethodrightconf/base.java"), 
@@ -53,7 +53,7 @@ public class RenamingOrDeletionConflictsHandlerTest {
 	}
 	
 	@Test
-	public void testNoConflictingRenamingInLeft() {
+	public void testNoConflictingRenamingInLeft() throws Exception {
 		MergeContext ctx = 	new JFSTMerge().mergeFiles(
 				new File("testfiles/renamingmethodleftnoconf/left.java"), 
 				new File("testfiles/renamingmethodleftnoconf/base.java"), 
@@ -66,7 +66,7 @@ public class RenamingOrDeletionConflictsHandlerTest {
 	}
 
 	@Test
-	public void testNoConflictingRenamingInRight() {
+	public void testNoConflictingRenamingInRight() throws Exception {
 		MergeContext ctx = 	new JFSTMerge().mergeFiles(
 				new File("testfiles/renamingmethodrightnoconf/left.java"), 
 				new File("testfiles/renamingmethodrightnoconf/base.java"), 
@@ -27,7 +27,7 @@ public class TypeAmbiguityErrorHandlerTest {
 	}
 
 	@Test
-	public void testImportMemberMember() {
+	public void testImportMemberMember() throws Exception {
 		MergeContext ctx = 	new JFSTMerge().mergeFiles(
 				new File("testfiles/importmembermember/left/Test/src/Test.java"), 
 				new File("testfiles/importmembermember/base/Test/src/Test.java"), 
@@ -40,7 +40,7 @@ public class TypeAmbiguityErrorHandlerTest {
 	}
 	
 	@Test
-	public void testImportPackagePackage() {
+	public void testImportPackagePackage() throws Exception {
 		MergeContext ctx = 	new JFSTMerge().mergeFiles(
 				new File("testfiles/importpackagepackage/left/Test/src/Test.java"), 
 				new File("testfiles/importpackagepackage/base/Test/src/Test.java"), 
@@ -53,7 +53,7 @@ public class TypeAmbiguityErrorHandlerTest {
 	}
 	
 	@Test
-	public void testImportPackageMember() {
+	public void testImportPackageMember() throws Exception {
 		MergeContext ctx = 	new JFSTMerge().mergeFiles(
 				new File("testfiles/importpackagemember/left/Test/src/Test.java"), 
 				new File("testfiles/importpackagemember/base/Test/src/Test.java"), 
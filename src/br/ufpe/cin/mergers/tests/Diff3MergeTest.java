@@ -0,0 +1,168 @@
+package br.ufpe.cin.mergers.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import br.ufpe.cin.files.FilesManager;
+import br.ufpe.cin.mergers.TextualMerge;
+import br.ufpe.cin.mergers.util.MergeConflict;
+
+/**
+ * The in-process diff3 merge must give the same output of <i>git merge-file --diff3</i>,
+ * that is, of {@link TextualMerge#callGitMerge(File[])} on the files of {@link TextualMerge#createTempFiles(String, String, String)}.
+ * Expected outputs were produced by git.
+ */
+public class Diff3MergeTest {
+
+	@Test
+	public void testIdenticalChanges() throws Exception {
+		assertEquals("a\nB\nc\n", TextualMerge.mergeDiff3("a\nB\nc", "a\nb\nc", "a\nB\nc"));
+	}
+
+	@Test
+	public void testIdenticalAndConflictingChanges() throws Exception {
+		assertEquals("a\n<<<<<<< MINE\nB\nC1\n||||||| BASE\nb\nc\n=======\nB\nC2\n>>>>>>> YOURS\n",
+				TextualMerge.mergeDiff3("a\nB\nC1", "a\nb\nc", "a\nB\nC2"));
+	}
+
+	@Test
+	public void testAdjacentChanges() throws Exception {
+		assertEquals("a\n<<<<<<< MINE\nB\nc\n||||||| BASE\nb\nc\n=======\nb\nC\n>>>>>>> YOURS\nd\n",
+				TextualMerge.mergeDiff3("a\nB\nc\nd", "a\nb\nc\nd", "a\nb\nC\nd"));
+	}
+
+	@Test
+	public void testSeparatedChanges() throws Exception {
+		assertEquals("a\nB\nc\nD\ne\n", TextualMerge.mergeDiff3("a\nB\nc\nd\ne", "a\nb\nc\nd\ne", "a\nb\nc\nD\ne"));
+	}
+
+	@Test
+	public void testNewlineAtEndOfOneSide() throws Exception {
+		//contents are written with a newline at the end, so only the left version ends with an empty line
+		assertEquals("a\nb\n<<<<<<< MINE\n\n||||||| BASE\n=======\nc\n>>>>>>> YOURS\n", TextualMerge.mergeDiff3("a\nb\n", "a\nb", "a\nb\nc"));
+	}
+
+	@Test
+	public void testEmptyBase() throws Exception {
+		assertEquals("<<<<<<< MINE\nx\ny\n||||||| BASE\n=======\nx\nz\n>>>>>>> YOURS\n", TextualMerge.mergeDiff3("x\ny", "", "x\nz"));
+		assertEquals("x\ny\n", TextualMerge.mergeDiff3("x\ny", "", "x\ny"));
+	}
+
+	@Test
+	public void testDeletedAndEdited() throws Exception {
+		assertEquals("a\n<<<<<<< MINE\n||||||| BASE\nb\n=======\nB\n>>>>>>> YOURS\nc\n", TextualMerge.mergeDiff3("a\nc", "a\nb\nc", "a\nB\nc"));
+	}
+
+	@Test
+	public void testCarriageReturns() throws Exception {
+		assertEquals("a\n<<<<<<< MINE\nB\nc\n||||||| BASE\nb\nc\n=======\nb\nC\n>>>>>>> YOURS\n",
+				TextualMerge.mergeDiff3("a\r\nB\r\nc", "a\r\nb\r\nc", "a\r\nb\r\nC"));
+	}
+
+	@Test
+	public void testSameAsGitMergeFile() throws Exception {
+		assumeTrue(isGitAvailable());
+		Random random = new Random(42);
+		for (int i = 0; i < 200; i++) {
+			String base  = randomText(random, "");
+			String left  = edit(random, base);
+			String right = edit(random, base);
+			File[] files = TextualMerge.createTempFiles(left, base, right);
+			try {
+				TextualMerge.callGitMerge(files);
+				assertEquals("left: " + left + "\nbase: " + base + "\nright: " + right,
+						TextualMerge.readLeftFile(files[0]), TextualMerge.mergeDiff3(left, base, right));
+			} finally {
+				TextualMerge.deleteTempFiles(files);
+			}
+		}
+	}
+
+	@Test
+	public void testExtractDiff3Conflicts() throws Exception {
+		String merged = TextualMerge.mergeDiff3("a\nB\nc\nd\nE1", "a\nb\nc\nd\ne", "a\nb2\nc\nd\nE2");
+		List<MergeConflict> conflicts = FilesManager.extractMergeConflicts(merged);
+		assertEquals(2, conflicts.size());
+
+		assertEquals("B\n", conflicts.get(0).left);
+		assertEquals("b\n", conflicts.get(0).base);
+		assertEquals("b2\n", conflicts.get(0).right);
+		assertEquals(2, conflicts.get(0).startLOC);
+		assertEquals(8, conflicts.get(0).endLOC);
+
+		assertEquals("E1\n", conflicts.get(1).left);
+		assertEquals("e\n", conflicts.get(1).base);
+		assertEquals("E2\n", conflicts.get(1).right);
+	}
+
+	@Test
+	public void testConflictsLabelledMineBaseYours() throws Exception {
+		//git merge-file labels conflicts with the paths of the merged files, unless given labels, as the external merge is
+		String[] lines = TextualMerge.mergeDiff3("a\nB", "a\nb", "a\nb2").split("\n");
+		assertEquals("<<<<<<< MINE", lines[1]);
+		assertEquals("||||||| BASE", lines[3]);
+		assertEquals("=======", lines[5]);
+		assertEquals(">>>>>>> YOURS", lines[7]);
+	}
+
+	@Test
+	public void testBaseSectionNotInLeft() throws Exception {
+		//the base section used to be appended to the left content of the conflict
+		List<MergeConflict> conflicts = FilesManager.extractMergeConflicts("<<<<<<< MINE\nB\n||||||| BASE\nb\n=======\nb2\n>>>>>>> YOURS\n");
+		assertEquals(1, conflicts.size());
+		assertEquals("B\n", conflicts.get(0).left);
+		assertEquals("b\n", conflicts.get(0).base);
+		assertEquals("b2\n", conflicts.get(0).right);
+		assertFalse(conflicts.get(0).body.contains("BASE"));
+	}
+
+	@Test
+	public void testExtractConflictsWithoutBase() throws Exception {
+		List<MergeConflict> conflicts = FilesManager.extractMergeConflicts("a\r\n<<<<<<< MINE\r\nb1\r\n=======\r\nb2\r\n>>>>>>> YOURS\r\nc\r\n");
+		assertEquals(1, conflicts.size());
+		assertEquals("b1\n", conflicts.get(0).left);
+		assertEquals("", conflicts.get(0).base);
+		assertEquals("b2\n", conflicts.get(0).right);
+	}
+
+	private static String randomText(Random random, String prefix) {
+		StringBuilder text = new StringBuilder(prefix);
+		for (int i = random.nextInt(8); i > 0; i--) {
+			text.append(text.length() > 0 ? "\n" : "").append((char) ('a' + random.nextInt(4)));
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Replaces, inserts or deletes some lines of the given text.
+	 */
+	private static String edit(Random random, String text) {
+		StringBuilder edited = new StringBuilder();
+		for (String line : text.isEmpty() ? new String[0] : text.split("\n", -1)) {
+			int operation = random.nextInt(6);
+			if (operation == 0) { //deleted
+				continue;
+			}
+			edited.append(edited.length() > 0 ? "\n" : "").append(operation == 1 ? line.toUpperCase() : line);
+			if (operation == 2) {
+				edited.append("\n").append((char) ('a' + random.nextInt(4)));
+			}
+		}
+		return random.nextInt(4) == 0 ? randomText(random, edited.toString()) : edited.toString();
+	}
+
+	private static boolean isGitAvailable() {
+		try {
+			return new ProcessBuilder("git", "--version").start().waitFor() == 0;
+		} catch (Exception e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package br.ufpe.cin.mergers.util;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import de.ovgu.cide.fstgen.ast.FSTNode;
+import de.ovgu.cide.fstgen.ast.FSTNonTerminal;
+
+/**
+ * Index of the children of a non-terminal node by their identity (type and name).
+ * It answers the same as {@link FSTNonTerminal#getCompatibleChild(FSTNode)}, that is,
+ * the first child compatible with a given node, without scanning all children at each lookup.
+ * The index reflects the children at its creation, so it must not be used after the node is changed.
+ */
+public final class ChildrenIndex {
+
+	private final Map<Pair<String, String>, FSTNode> children;
+
+	public ChildrenIndex(FSTNonTerminal node) {
+		List<FSTNode> nodeChildren = node.getChildren();
+		this.children = new HashMap<Pair<String, String>, FSTNode>(nodeChildren.size() * 2);
+		for (FSTNode child : nodeChildren) {
+			//keeping the first compatible child, as getCompatibleChild does
+			this.children.putIfAbsent(identity(child), child);
+		}
+	}
+
+	/**
+	 * Returns the first indexed child with the same type and name of the given node.
+	 * @param node
+	 * @return compatible child, or <b>null</b> if there is no such child.
+	 */
+	public FSTNode getCompatibleChild(FSTNode node) {
+		return this.children.get(identity(node));
+	}
+
+	private static Pair<String, String> identity(FSTNode node) {
+		return Pair.of(node.getType(), node.getName());
+	}
+}
@@ -0,0 +1,130 @@
+package br.ufpe.cin.mergers.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Finds which of a set of identifiers a text refers to, as whole words, in a single pass over the text
+ * (Aho-Corasick automaton). A text refers to an identifier when it contains the identifier delimited by word boundaries,
+ * the same as matching the text against <i>(?s).*\bidentifier\b.*</i>.
+ * Only identifiers made of word characters (letters, digits and underscores) are matched, see {@link #accepts(String)}.
+ */
+public final class IdentifiersMatcher {
+
+	private final State root = new State();
+
+	/**
+	 * Builds the automaton of the given identifiers, ignoring those not accepted.
+	 * @param identifiers
+	 */
+	public IdentifiersMatcher(Iterable<String> identifiers) {
+		for (String identifier : identifiers) {
+			if (accepts(identifier)) {
+				add(identifier);
+			}
+		}
+		linkFailures();
+	}
+
+	/**
+	 * @param identifier
+	 * @return <b>true</b> if the identifier is made of word characters only, and can be matched, <b>false</b> otherwise.
+	 */
+	public static boolean accepts(String identifier) {
+		if (identifier.isEmpty()) {
+			return false;
+		}
+		for (int i = 0; i < identifier.length(); i++) {
+			if (!isWordCharacter(identifier.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param text
+	 * @return identifiers the given text refers to.
+	 */
+	public Set<String> findReferences(String text) {
+		Set<String> references = new HashSet<String>();
+		State state = root;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			while (state != root && !state.transitions.containsKey(c)) {
+				state = state.failure;
+			}
+			State next = state.transitions.get(c);
+			state = (next == null) ? root : next;
+			boolean endsWord = (i + 1 == text.length()) || !isWordCharacter(text.charAt(i + 1));
+			if (endsWord) {
+				for (String identifier : state.outputs) {
+					int start = i + 1 - identifier.length();
+					if (start == 0 || !isWordCharacter(text.charAt(start - 1))) {
+						references.add(identifier);
+					}
+				}
+			}
+		}
+		return references;
+	}
+
+	private void add(String identifier) {
+		State state = root;
+		for (int i = 0; i < identifier.length(); i++) {
+			char c = identifier.charAt(i);
+			State next = state.transitions.get(c);
+			if (next == null) {
+				next = new State();
+				state.transitions.put(c, next);
+			}
+			state = next;
+		}
+		if (!state.outputs.contains(identifier)) {
+			state.outputs.add(identifier);
+		}
+	}
+
+	private void linkFailures() {
+		Queue<State> queue = new LinkedList<State>();
+		root.failure = root;
+		for (State child : root.transitions.values()) {
+			child.failure = root;
+			queue.add(child);
+		}
+		while (!queue.isEmpty()) {
+			State state = queue.remove();
+			for (Map.Entry<Character, State> transition : state.transitions.entrySet()) {
+				char c = transition.getKey();
+				State child = transition.getValue();
+				State failure = state.failure;
+				while (failure != root && !failure.transitions.containsKey(c)) {
+					failure = failure.failure;
+				}
+				State target = failure.transitions.get(c);
+				child.failure = (target == null || target == child) ? root : target;
+				child.outputs.addAll(child.failure.outputs);
+				queue.add(child);
+			}
+		}
+	}
+
+	/**
+	 * Word characters, as considered by word boundaries (<i>\b</i>) in regular expressions.
+	 */
+	private static boolean isWordCharacter(char c) {
+		return c == '_' || Character.isLetterOrDigit(c);
+	}
+
+	private static final class State {
+		private final Map<Character, State> transitions = new HashMap<Character, State>(4);
+		private final List<String> outputs = new ArrayList<String>(1);
+		private State failure;
+	}
+}
@@ -3,11 +3,12 @@ package br.ufpe.cin.mergers.util;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 
-import org.apache.commons.io.FileUtils;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.core.dom.AST;
@@ -30,6 +31,7 @@ public class JavaCompiler {
 	 */
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	public CompilationUnit compile(MergeContext context, Source source){
+		context.profile.start(MergePhase.COMPILE);
 		String unitName 		= generateUnitName(context);
 		String[] sources 		= findResources(context,"java");
 		String[] classpaths 	= findResources(context,"jar");
@@ -48,6 +50,7 @@ public class JavaCompiler {
 		}
 		
 		this.compilationProblems= new ArrayList(Arrays.asList(cunit.getProblems()));
+		context.profile.stop(MergePhase.COMPILE);
 		return cunit;
 	}
 	/**
@@ -136,22 +139,19 @@ public class JavaCompiler {
 
 
 	/**
-	 * Gets a list o files path with the given extension, related to the given merge context. 
+	 * Gets a list o folders path containing files with the given extension, related to the given merge context. 
+	 * The projects are scanned once, and reused while not modified (see {@link ProjectEnvironment}).
 	 * @param context
 	 * @param fileExtension
-	 * @return list of files path
+	 * @return list of folders path
 	 */
 	private String[] findResources(MergeContext context, String fileExtension){
 		//String projectpath = FilesManager.estimateProjectFolderPath(context);
 		String[] projectpaths = FilesManager.estimateFilesProjectFolderPath(context);
-		List<String> filespath= new ArrayList<String>();
+		Set<String> filespath = new LinkedHashSet<String>();
 		for(String path : projectpaths){
 			if(!path.isEmpty()){
-				List<File> files = (List<File>) FileUtils.listFiles(new File(path),new String[]{fileExtension}, true);
-				for(File f: files){
-					if(!filespath.contains(f.getParent())) 
-						filespath.add(f.getParent());
-				}
+				filespath.addAll(ProjectEnvironment.of(path).getFolders(fileExtension));
 			}
 		}
 		return filespath.isEmpty()? (new String[] {""}) : filespath.toArray(new String[0]);
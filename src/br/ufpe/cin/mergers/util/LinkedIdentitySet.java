@@ -0,0 +1,66 @@
+package br.ufpe.cin.mergers.util;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Set that compares its elements by reference (==) instead of <i>equals</i>,
+ * and iterates over them in insertion order, as a list without duplicates would.
+ * Membership, insertion and removal take constant time.
+ */
+public final class LinkedIdentitySet<E> extends AbstractSet<E> {
+
+	private final LinkedHashMap<Identity, E> elements = new LinkedHashMap<Identity, E>();
+
+	@Override
+	public boolean add(E element) {
+		return this.elements.putIfAbsent(new Identity(element), element) == null;
+	}
+
+	@Override
+	public boolean contains(Object element) {
+		return this.elements.containsKey(new Identity(element));
+	}
+
+	@Override
+	public boolean remove(Object element) {
+		return this.elements.remove(new Identity(element)) != null;
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return this.elements.values().iterator();
+	}
+
+	@Override
+	public int size() {
+		return this.elements.size();
+	}
+
+	@Override
+	public void clear() {
+		this.elements.clear();
+	}
+
+	/**
+	 * Key wrapping an element, using its reference as identity.
+	 */
+	private static final class Identity {
+		private final Object element;
+
+		Identity(Object element) {
+			this.element = element;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(this.element);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return (other instanceof Identity) && ((Identity) other).element == this.element;
+		}
+	}
+}
@@ -2,6 +2,8 @@ package br.ufpe.cin.mergers.util;
 
 import java.io.File;
 
+import br.ufpe.cin.files.ContentFingerprint;
+
 /**
  * Class representing a textual merge conflict.
  * @author Guilherme
@@ -58,11 +60,9 @@ public class MergeConflict {
 		if(leftPattern.isEmpty() || rightPattern.isEmpty()){
 			return false;
 		} else {
-			leftPattern  = (leftPattern.replaceAll("\\r\\n|\\r|\\n","")).replaceAll("\\s+","");
-			rightPattern = (rightPattern.replaceAll("\\r\\n|\\r|\\n","")).replaceAll("\\s+","");
-			String lefttrim  = (this.left.replaceAll("\\r\\n|\\r|\\n","")).replaceAll("\\s+","");
-			String righttrim = (this.right.replaceAll("\\r\\n|\\r|\\n","")).replaceAll("\\s+","");
-			return (lefttrim.contains(leftPattern) && righttrim.contains(rightPattern));
+			ContentFingerprint lefttrim  = ContentFingerprint.of(this.left);
+			ContentFingerprint righttrim = ContentFingerprint.of(this.right);
+			return (lefttrim.contains(ContentFingerprint.of(leftPattern)) && righttrim.contains(ContentFingerprint.of(rightPattern)));
 		}
 	}
 	
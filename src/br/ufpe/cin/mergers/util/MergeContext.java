@@ -2,11 +2,16 @@ package br.ufpe.cin.mergers.util;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.lang3.tuple.Pair;
 
+import br.ufpe.cin.exceptions.TextualMergeException;
+import br.ufpe.cin.files.FileContent;
 import br.ufpe.cin.files.FilesManager;
+import br.ufpe.cin.mergers.TextualMerge;
 import de.ovgu.cide.fstgen.ast.FSTNode;
 
 /**
@@ -21,22 +26,29 @@ public class MergeContext {
 	File left;
 	String outputFilePath;
 	
-	String baseContent = "";
-	String leftContent = "";
-	String rightContent= "";
+	//texts of the files, decoded from their contents when first needed
+	String baseContent;
+	String leftContent;
+	String rightContent;
+
+	//files read once, shared by all merge steps
+	FileContent baseFileContent = FileContent.EMPTY;
+	FileContent leftFileContent = FileContent.EMPTY;
+	FileContent rightFileContent= FileContent.EMPTY;
 	
-	public List<FSTNode> addedLeftNodes = new ArrayList<FSTNode>();
-	public List<FSTNode> addedRightNodes= new ArrayList<FSTNode>();
+	//nodes are compared by reference and kept in the order they were found
+	public Set<FSTNode> addedLeftNodes = new LinkedIdentitySet<FSTNode>();
+	public Set<FSTNode> addedRightNodes= new LinkedIdentitySet<FSTNode>();
 	
-	public List<FSTNode> deletedBaseNodes = new ArrayList<FSTNode>();
-	public List<FSTNode> nodesDeletedByLeft = new ArrayList<FSTNode>(); 
-	public List<FSTNode> nodesDeletedByRight= new ArrayList<FSTNode>();
+	public Set<FSTNode> deletedBaseNodes = new LinkedIdentitySet<FSTNode>();
+	public Set<FSTNode> nodesDeletedByLeft = new LinkedIdentitySet<FSTNode>(); 
+	public Set<FSTNode> nodesDeletedByRight= new LinkedIdentitySet<FSTNode>();
 
 	public List<Pair<String,FSTNode>> possibleRenamedLeftNodes = new ArrayList<Pair<String,FSTNode>>();
 	public List<Pair<String,FSTNode>> possibleRenamedRightNodes= new ArrayList<Pair<String,FSTNode>>();
 
-	public List<FSTNode> editedLeftNodes = new ArrayList<FSTNode>(); 
-	public List<FSTNode> editedRightNodes= new ArrayList<FSTNode>();
+	public Set<FSTNode> editedLeftNodes = new LinkedIdentitySet<FSTNode>(); 
+	public Set<FSTNode> editedRightNodes= new LinkedIdentitySet<FSTNode>();
 	
 
 	public FSTNode leftTree;
@@ -62,6 +74,20 @@ public class MergeContext {
 	public int orderingConflicts 			   = 0;
 	public int duplicatedDeclarationErrors	   = 0;
 	public int equalConflicts     = 0;
+
+	//time spent in each merge phase
+	public MergeProfile profile = new MergeProfile();
+
+	//conflicts of the merge outputs, extracted once for each output
+	private String indexedSemistructuredOutput;
+	private String indexedUnstructuredOutput;
+	private List<MergeConflict> semistructuredMergeConflicts;
+	private List<MergeConflict> unstructuredMergeConflicts;
+
+	//indexes of the trees looked up by the handlers, built once for each tree
+	private TreeIndex superImposedTreeIndex;
+	private TreeIndex leftTreeIndex;
+	private TreeIndex rightTreeIndex;
 	
 	
 	public MergeContext(){
@@ -73,9 +99,11 @@ public class MergeContext {
 		this.right= right;
 		this.outputFilePath = outputFilePath;
 		
-		this.leftContent = FilesManager.readFileContent(this.left);
-		this.baseContent = FilesManager.readFileContent(this.base);
-		this.rightContent= FilesManager.readFileContent(this.right);
+		this.profile.start(MergePhase.FILES_READ);
+		this.leftFileContent = FileContent.read(this.left);
+		this.baseFileContent = FileContent.read(this.base);
+		this.rightFileContent= FileContent.read(this.right);
+		this.profile.stop(MergePhase.FILES_READ);
 	}
 
 	/**
@@ -101,6 +129,8 @@ public class MergeContext {
 		this.baseTree = otherContext.baseTree;
 		this.rightTree = otherContext.rightTree;
 		this.superImposedTree = otherContext.superImposedTree;
+
+		this.profile.add(otherContext.profile);
 		
 /*		this.renamingConflicts	+=	otherContext.renamingConflicts;
 		this.newElementReferencingEditedOneConflicts	+=	otherContext.newElementReferencingEditedOneConflicts;
@@ -136,6 +166,9 @@ public class MergeContext {
 	}
 
 	public String getBaseContent() {
+		if (baseContent == null) {
+			baseContent = baseFileContent.getText();
+		}
 		return baseContent;
 	}
 
@@ -144,6 +177,9 @@ public class MergeContext {
 	}
 
 	public String getLeftContent() {
+		if (leftContent == null) {
+			leftContent = leftFileContent.getText();
+		}
 		return leftContent;
 	}
 
@@ -152,10 +188,110 @@ public class MergeContext {
 	}
 
 	public String getRightContent() {
+		if (rightContent == null) {
+			rightContent = rightFileContent.getText();
+		}
 		return rightContent;
 	}
 
 	public void setRightContent(String rightContent) {
 		this.rightContent = rightContent;
 	}
+
+	/**
+	 * Returns the unstructured merge output of the merged files.
+	 * In the production merge profile the unstructured merge is not run upfront, 
+	 * so it is only run here, the first time a handler needs its output.
+	 * @return unstructured merge output
+	 * @throws TextualMergeException
+	 */
+	public String getUnstructuredOutput() throws TextualMergeException {
+		if (unstructuredOutput == null) {
+			long t0 = System.nanoTime();
+			profile.start(MergePhase.UNSTRUCTURED_MERGE);
+			try {
+				unstructuredOutput = TextualMerge.merge(getLeftContent(), getBaseContent(), getRightContent(), false);
+			} finally {
+				profile.stop(MergePhase.UNSTRUCTURED_MERGE);
+			}
+			unstructuredMergeTime = System.nanoTime() - t0;
+		}
+		return unstructuredOutput;
+	}
+
+	/**
+	 * Returns the index of the merged tree, built on the first call after the tree is set.
+	 * Handlers change the merged tree through the index, so it remains consistent.
+	 * @return index of the merged tree
+	 */
+	public TreeIndex getSuperImposedTreeIndex() {
+		if (superImposedTreeIndex == null || superImposedTreeIndex.getTree() != superImposedTree) {
+			superImposedTreeIndex = TreeIndex.of(superImposedTree);
+		}
+		return superImposedTreeIndex;
+	}
+
+	/**
+	 * @return index of the left tree, built on the first call after the tree is set.
+	 */
+	public TreeIndex getLeftTreeIndex() {
+		if (leftTreeIndex == null || leftTreeIndex.getTree() != leftTree) {
+			leftTreeIndex = TreeIndex.of(leftTree);
+		}
+		return leftTreeIndex;
+	}
+
+	/**
+	 * @return index of the right tree, built on the first call after the tree is set.
+	 */
+	public TreeIndex getRightTreeIndex() {
+		if (rightTreeIndex == null || rightTreeIndex.getTree() != rightTree) {
+			rightTreeIndex = TreeIndex.of(rightTree);
+		}
+		return rightTreeIndex;
+	}
+
+	/**
+	 * Returns the conflicts of the current semistructured output.
+	 * They are extracted only again when the output is replaced.
+	 * @return unmodifiable list of merge conflicts
+	 */
+	public List<MergeConflict> getSemistructuredMergeConflicts() {
+		if (semistructuredMergeConflicts == null || indexedSemistructuredOutput != semistructuredOutput) {
+			indexedSemistructuredOutput = semistructuredOutput;
+			semistructuredMergeConflicts = extractMergeConflicts(semistructuredOutput);
+		}
+		return semistructuredMergeConflicts;
+	}
+
+	/**
+	 * Returns the conflicts of the current unstructured output, running the unstructured merge if needed.
+	 * They are extracted only again when the output is replaced.
+	 * @return unmodifiable list of merge conflicts
+	 * @throws TextualMergeException
+	 */
+	public List<MergeConflict> getUnstructuredMergeConflicts() throws TextualMergeException {
+		String output = getUnstructuredOutput();
+		if (unstructuredMergeConflicts == null || indexedUnstructuredOutput != output) {
+			indexedUnstructuredOutput = output;
+			unstructuredMergeConflicts = extractMergeConflicts(output);
+		}
+		return unstructuredMergeConflicts;
+	}
+
+	private static List<MergeConflict> extractMergeConflicts(String output) {
+		return (output == null) ? Collections.<MergeConflict>emptyList() : Collections.unmodifiableList(FilesManager.extractMergeConflicts(output));
+	}
+
+	public FileContent getBaseFileContent() {
+		return baseFileContent;
+	}
+
+	public FileContent getLeftFileContent() {
+		return leftFileContent;
+	}
+
+	public FileContent getRightFileContent() {
+		return rightFileContent;
+	}
 }
@@ -0,0 +1,41 @@
+package br.ufpe.cin.mergers.util;
+
+/**
+ * Phases of the merge of a file, timed by the {@link MergeProfile}, in the order they run.
+ */
+public enum MergePhase {
+	FILES_READ("files read"),
+	UNSTRUCTURED_MERGE("unstructured merge"),
+	PARSE_LEFT("parse left"),
+	PARSE_BASE("parse base"),
+	PARSE_RIGHT("parse right"),
+	SUPERIMPOSE_LEFT_BASE("superimpose left and base"),
+	SUPERIMPOSE_RIGHT("superimpose right"),
+	REMOVE_BASE_NODES("remove remaining base nodes"),
+	MERGE_MATCHED_CONTENT("merge matched content"),
+	NODES_MERGE_JGIT("nodes textual merge (jgit)"),
+	NODES_MERGE_DIFF3("nodes textual merge (diff3)"),
+	NODES_MERGE_GIT_MERGE_FILE("nodes textual merge (git merge-file)"),
+	TYPE_AMBIGUITY_ERRORS_HANDLER("type ambiguity errors handler"),
+	NEW_ELEMENT_REFERENCING_EDITED_ONE_HANDLER("new element referencing edited one handler"),
+	RENAMING_OR_DELETION_HANDLER("renaming or deletion handler"),
+	INITIALIZATION_BLOCKS_HANDLER("initialization blocks handler"),
+	DELETIONS_HANDLER("deletions handler"),
+	DUPLICATED_DECLARATION_HANDLER("duplicated declaration handler"),
+	COMPILE("JDT compile"),
+	PRINT("print"),
+	INDENT("indent code"),
+	OUTPUT_WRITE("output write"),
+	STATISTICS("statistics");
+
+	private final String description;
+
+	private MergePhase(String description) {
+		this.description = description;
+	}
+
+	@Override
+	public String toString() {
+		return description;
+	}
+}
@@ -0,0 +1,126 @@
+package br.ufpe.cin.mergers.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Time spent by the merge of a file in each of its {@link MergePhase}s.
+ * Phases can be nested, as the compilation done by some handlers, or the unstructured merge
+ * run on demand by the first handler needing it. The time of a phase excludes the phases nested
+ * in it, so the time of all phases sums up to the time of the whole merge.
+ * Profiles are not thread-safe, each one is filled by the thread merging its file.
+ */
+public final class MergeProfile {
+
+	private final long[] nanos 		= new long[MergePhase.values().length];
+	private final long[] totalNanos = new long[MergePhase.values().length];
+	private final int[]  calls 		= new int[MergePhase.values().length];
+
+	//phases currently running, innermost first
+	private final Deque<RunningPhase> running = new ArrayDeque<RunningPhase>();
+
+	/**
+	 * Starts timing the given phase. Each call must be followed by a call to {@link #stop(MergePhase)},
+	 * typically in a <i>finally</i> block.
+	 * @param phase
+	 */
+	public void start(MergePhase phase) {
+		running.push(new RunningPhase(phase, System.nanoTime()));
+	}
+
+	/**
+	 * Stops timing the given phase, also stopping phases nested in it which were left running by an exception.
+	 * @param phase
+	 */
+	public void stop(MergePhase phase) {
+		long now = System.nanoTime();
+		while (!running.isEmpty()) {
+			RunningPhase finished = running.pop();
+			long elapsed = now - finished.start;
+			nanos[finished.phase.ordinal()] 	 += elapsed - finished.nestedNanos;
+			totalNanos[finished.phase.ordinal()] += elapsed;
+			calls[finished.phase.ordinal()]++;
+			if (!running.isEmpty()) {
+				running.peek().nestedNanos += elapsed;
+			}
+			if (finished.phase == phase) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * @return time spent in the given phase, excluding the phases nested in it, in nanoseconds.
+	 */
+	public long getNanos(MergePhase phase) {
+		return nanos[phase.ordinal()];
+	}
+
+	/**
+	 * @return time spent in the given phase, including the phases nested in it, in nanoseconds.
+	 */
+	public long getTotalNanos(MergePhase phase) {
+		return totalNanos[phase.ordinal()];
+	}
+
+	/**
+	 * @return number of times the given phase ran.
+	 */
+	public int getCalls(MergePhase phase) {
+		return calls[phase.ordinal()];
+	}
+
+	/**
+	 * @return time spent in all phases, in nanoseconds.
+	 */
+	public long getNanos() {
+		long sum = 0;
+		for (long phaseNanos : nanos) {
+			sum += phaseNanos;
+		}
+		return sum;
+	}
+
+	/**
+	 * Adds the times of another profile to this one, as when aggregating the profiles of all files of a merge scenario.
+	 * @param otherProfile
+	 * @return this profile
+	 */
+	public MergeProfile add(MergeProfile otherProfile) {
+		for (int i = 0; i < nanos.length; i++) {
+			this.nanos[i] 	   += otherProfile.nanos[i];
+			this.totalNanos[i] += otherProfile.totalNanos[i];
+			this.calls[i] 	   += otherProfile.calls[i];
+		}
+		return this;
+	}
+
+	/**
+	 * @return table with the calls, time and share of the whole merge time of each phase that ran.
+	 */
+	@Override
+	public String toString() {
+		double total = getNanos();
+		StringBuilder table = new StringBuilder();
+		table.append(String.format("%-45s%8s%14s%8s%n", "phase", "calls", "time(ms)", "%"));
+		for (MergePhase phase : MergePhase.values()) {
+			int i = phase.ordinal();
+			if (calls[i] > 0) {
+				table.append(String.format("%-45s%8d%14.3f%8.1f%n", phase, calls[i], nanos[i] / 1e6, (total > 0) ? 100 * nanos[i] / total : 0));
+			}
+		}
+		table.append(String.format("%-45s%8s%14.3f%8.1f%n", "total", "", total / 1e6, 100.0));
+		return table.toString();
+	}
+
+	private static final class RunningPhase {
+		private final MergePhase phase;
+		private final long start;
+		private long nestedNanos = 0;
+
+		RunningPhase(MergePhase phase, long start) {
+			this.phase = phase;
+			this.start = start;
+		}
+	}
+}
@@ -74,4 +74,17 @@ public class MergeScenario {
 		this.tuples = tuples;
 	}
 
+	/**
+	 * @return time spent in each merge phase by all merged files of this scenario.
+	 */
+	public MergeProfile getProfile() {
+		MergeProfile profile = new MergeProfile();
+		for (FilesTuple tuple : tuples) {
+			if (tuple.getContext() != null) {
+				profile.add(tuple.getContext().profile);
+			}
+		}
+		return profile;
+	}
+
 }
@@ -0,0 +1,99 @@
+package br.ufpe.cin.mergers.util;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Source folders and classpath folders of a project, used by the {@link JavaCompiler} to resolve bindings.
+ * Scanning a project is costly, so each project root is scanned once and its environment is reused
+ * by all files merged from this project (e.g. in directories or revisions merge),
+ * until one of the project directories is modified.
+ */
+final class ProjectEnvironment {
+
+	//the environments outlive merges, as in the merge server, so only the most recently used projects are kept
+	private static final int MAX_ENVIRONMENTS = 8;
+	private static final Map<String, ProjectEnvironment> environments = Collections.synchronizedMap(
+			new LinkedHashMap<String, ProjectEnvironment>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, ProjectEnvironment> eldest) {
+					return size() > MAX_ENVIRONMENTS;
+				}
+			});
+
+	//folders containing .java and .jar files, in the order they were found
+	private final Set<String> sourceFolders 	= new LinkedHashSet<String>();
+	private final Set<String> classpathFolders 	= new LinkedHashSet<String>();
+
+	//last modification time of the scanned directories, to detect added or removed files
+	private final Map<File, Long> directoriesTimestamps = new HashMap<File, Long>();
+
+	private ProjectEnvironment(File projectRoot) {
+		scan(projectRoot);
+	}
+
+	/**
+	 * Returns the environment of the project with the given root folder,
+	 * scanning the project only if it was not scanned before, or if it was modified since then.
+	 * @param projectRootPath
+	 * @return project environment
+	 */
+	static ProjectEnvironment of(String projectRootPath) {
+		ProjectEnvironment environment = environments.get(projectRootPath);
+		if (environment == null || environment.isOutdated()) {
+			environment = new ProjectEnvironment(new File(projectRootPath));
+			environments.put(projectRootPath, environment);
+		}
+		return environment;
+	}
+
+	/**
+	 * Returns the folders containing files with the given extension.
+	 * @param fileExtension <i>java</i> or <i>jar</i>
+	 * @return folders path
+	 */
+	Set<String> getFolders(String fileExtension) {
+		if (fileExtension.equals("java")) {
+			return Collections.unmodifiableSet(sourceFolders);
+		} else if (fileExtension.equals("jar")) {
+			return Collections.unmodifiableSet(classpathFolders);
+		} else {
+			throw new IllegalArgumentException("Unsupported file extension: " + fileExtension);
+		}
+	}
+
+	private void scan(File directory) {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			directoriesTimestamps.put(directory, directory.lastModified());
+			for (File file : files) {
+				if (file.isDirectory()) {
+					scan(file);
+				} else if (file.getName().endsWith(".java")) {
+					sourceFolders.add(file.getParent());
+				} else if (file.getName().endsWith(".jar")) {
+					classpathFolders.add(file.getParent());
+				}
+			}
+		}
+	}
+
+	/**
+	 * A file added, removed or renamed in the project changes the modification time of its directory.
+	 */
+	private boolean isOutdated() {
+		for (Map.Entry<File, Long> directory : directoriesTimestamps.entrySet()) {
+			if (directory.getKey().lastModified() != directory.getValue()) {
+				return true;
+			}
+		}
+		return directoriesTimestamps.isEmpty();
+	}
+}
@@ -0,0 +1,188 @@
+package br.ufpe.cin.mergers.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import br.ufpe.cin.files.ContentFingerprint;
+import br.ufpe.cin.files.FilesManager;
+import de.ovgu.cide.fstgen.ast.FSTNode;
+import de.ovgu.cide.fstgen.ast.FSTNonTerminal;
+import de.ovgu.cide.fstgen.ast.FSTTerminal;
+
+/**
+ * Index of the terminals of a tree by the whitespace-insensitive fingerprint of their content,
+ * and of its identifiers (<i>Id</i> terminals) by their content, built with a single walk of the tree.
+ * It answers the same as the tree searches of {@link FilesManager}, that is, the first matching node
+ * in the order of the tree, without walking the tree at each lookup.
+ * Changes to the tree must be made through the index to keep it consistent.
+ */
+public final class TreeIndex {
+
+	private final FSTNode tree;
+
+	//order of each terminal in the tree, to keep the terminals of each bucket in the tree order
+	private final Map<FSTTerminal, Integer> positions = new IdentityHashMap<FSTTerminal, Integer>();
+
+	private final Map<Long, List<FSTTerminal>> terminalsByContent = new HashMap<Long, List<FSTTerminal>>();
+	private final Map<String, List<FSTTerminal>> identifiers = new HashMap<String, List<FSTTerminal>>();
+
+	private TreeIndex(FSTNode tree) {
+		this.tree = tree;
+	}
+
+	/**
+	 * Indexes the given tree.
+	 * @param tree
+	 * @return index of the tree
+	 */
+	public static TreeIndex of(FSTNode tree) {
+		TreeIndex index = new TreeIndex(tree);
+		if (tree != null) {
+			index.add(tree);
+		}
+		return index;
+	}
+
+	private void add(FSTNode node) {
+		if (node instanceof FSTNonTerminal) {
+			for (FSTNode child : ((FSTNonTerminal) node).getChildren()) {
+				add(child);
+			}
+		} else if (node instanceof FSTTerminal) {
+			FSTTerminal terminal = (FSTTerminal) node;
+			positions.put(terminal, positions.size());
+			bucket(terminal.getBody()).add(terminal);
+			if (terminal.getType().equals("Id")) {
+				identifiers.computeIfAbsent(terminal.getBody(), id -> new ArrayList<FSTTerminal>(1)).add(terminal);
+			}
+		}
+	}
+
+	/**
+	 * @return the indexed tree.
+	 */
+	public FSTNode getTree() {
+		return tree;
+	}
+
+	/**
+	 * Finds the first terminal with the given content, ignoring whitespace.
+	 * @param content
+	 * @return terminal, or <b>null</b> if there is no such terminal.
+	 */
+	public FSTTerminal findTerminal(String content) {
+		ContentFingerprint fingerprint = ContentFingerprint.of(content);
+		List<FSTTerminal> bucket = terminalsByContent.get(fingerprint.getHash());
+		if (bucket != null) {
+			for (FSTTerminal terminal : bucket) {
+				if (ContentFingerprint.of(terminal.getBody()).isEquivalentTo(fingerprint)) {
+					return terminal;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Finds a node with the old content, and replaces its content with the new content,
+	 * as {@link FilesManager#findAndReplaceASTNodeContent(FSTNode, String, String)}.
+	 * @param oldContent
+	 * @param newContent
+	 * @return if the replacement was successful
+	 */
+	public boolean findAndReplaceASTNodeContent(String oldContent, String newContent) {
+		FSTTerminal terminal = findTerminal(oldContent);
+		if (terminal != null) {
+			setBody(terminal, newContent);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Finds a node with the given content and deletes it from the tree,
+	 * as {@link FilesManager#findAndDeleteASTNode(FSTNode, String)}.
+	 * @param content
+	 * @return if the deletion was successful
+	 */
+	public boolean findAndDeleteASTNode(String content) {
+		FSTTerminal terminal = findTerminal(content);
+		if (terminal != null) {
+			terminal.getParent().removeChild(terminal);
+			remove(terminal);
+			positions.remove(terminal);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the first identifier of the tree with the given id, as {@link FilesManager#findNodeByID(FSTNode, String)}.
+	 * @param id
+	 * @return identifier node, or <b>null</b> if there is no such node.
+	 */
+	public FSTNode findNodeByID(String id) {
+		List<FSTTerminal> nodes = identifiers.get(id);
+		if (nodes != null) {
+			for (FSTTerminal node : nodes) {
+				if (node.getBody().equals(id)) {
+					return node;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Sets the content of a terminal of the tree, updating the index.
+	 * @param terminal
+	 * @param body
+	 */
+	public void setBody(FSTTerminal terminal, String body) {
+		if (positions.containsKey(terminal)) {
+			remove(terminal);
+			terminal.setBody(body);
+			insert(bucket(body), terminal);
+			if (terminal.getType().equals("Id")) {
+				insert(identifiers.computeIfAbsent(body, id -> new ArrayList<FSTTerminal>(1)), terminal);
+			}
+		} else {
+			terminal.setBody(body);
+		}
+	}
+
+	private void insert(List<FSTTerminal> nodes, FSTTerminal terminal) {
+		int position = positions.get(terminal);
+		int i = nodes.size();
+		while (i > 0 && positions.get(nodes.get(i - 1)) > position) {
+			i--;
+		}
+		nodes.add(i, terminal);
+	}
+
+	/**
+	 * Removes the given terminal from its buckets, keeping its position for a later insertion.
+	 */
+	private void remove(FSTTerminal terminal) {
+		removeIdentical(terminalsByContent.get(ContentFingerprint.of(terminal.getBody()).getHash()), terminal);
+		removeIdentical(identifiers.get(terminal.getBody()), terminal);
+	}
+
+	private static void removeIdentical(List<FSTTerminal> nodes, FSTTerminal terminal) {
+		if (nodes != null) {
+			for (int i = 0; i < nodes.size(); i++) {
+				if (nodes.get(i) == terminal) {
+					nodes.remove(i);
+					return;
+				}
+			}
+		}
+	}
+
+	private List<FSTTerminal> bucket(String content) {
+		return terminalsByContent.computeIfAbsent(ContentFingerprint.of(content).getHash(), hash -> new ArrayList<FSTTerminal>(1));
+	}
+}
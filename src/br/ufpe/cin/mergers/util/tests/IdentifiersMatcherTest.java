@@ -0,0 +1,88 @@
+package br.ufpe.cin.mergers.util.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import br.ufpe.cin.mergers.util.IdentifiersMatcher;
+
+/**
+ * References found by the matcher must be the identifiers matched by <i>(?s).*\bidentifier\b.*</i>,
+ * as formerly checked by the new element referencing edited one handler.
+ */
+public class IdentifiersMatcherTest {
+
+	@Test
+	public void testWordBoundaries() {
+		IdentifiersMatcher matcher = new IdentifiersMatcher(Arrays.asList("m", "mm", "a_1", "count"));
+		assertEquals(set("m"), matcher.findReferences("m();"));
+		assertEquals(set("mm", "count"), matcher.findReferences("int i = mm(count);"));
+		assertEquals(set(), matcher.findReferences("mmm(); counts; _m; m1; a_1b"));
+		assertEquals(set("a_1", "m"), matcher.findReferences("this.a_1 = m\n"));
+		assertEquals(set(), matcher.findReferences(""));
+	}
+
+	@Test
+	public void testOverlappingIdentifiers() {
+		IdentifiersMatcher matcher = new IdentifiersMatcher(Arrays.asList("ab", "b", "abc", "bc", "c"));
+		assertEquals(set("abc"), matcher.findReferences("abc"));
+		assertEquals(set("ab", "bc", "c"), matcher.findReferences("ab+bc.c"));
+		assertEquals(set("b"), matcher.findReferences("aab b"));
+	}
+
+	@Test
+	public void testNonAsciiLetters() {
+		//letters and digits of any script are word characters, as for \b up to Java 18
+		IdentifiersMatcher matcher = new IdentifiersMatcher(Arrays.asList("a\u00e7ao", "x"));
+		assertEquals(set("a\u00e7ao"), matcher.findReferences("a\u00e7ao();"));
+		assertEquals(set(), matcher.findReferences("\u00e9x \u00e7a\u00e7ao"));
+	}
+
+	@Test
+	public void testAcceptedIdentifiers() {
+		assertTrue(IdentifiersMatcher.accepts("a_1"));
+		assertFalse(IdentifiersMatcher.accepts(""));
+		assertFalse(IdentifiersMatcher.accepts("m()"));
+		assertFalse(IdentifiersMatcher.accepts("a.b"));
+		assertEquals(set("m"), new IdentifiersMatcher(Arrays.asList("m", "m()", "")).findReferences("m() m"));
+	}
+
+	@Test
+	public void testSameAsRegularExpressions() {
+		Random random = new Random(5);
+		for (int i = 0; i < 3000; i++) {
+			Set<String> identifiers = new HashSet<String>();
+			for (int j = 1 + random.nextInt(6); j > 0; j--) {
+				identifiers.add(randomString(random, "ab_1", 1 + random.nextInt(3)));
+			}
+			String text = randomString(random, "ab_1 .(\n", random.nextInt(30));
+
+			Set<String> expected = new HashSet<String>();
+			for (String identifier : identifiers) {
+				if (text.matches("(?s).*\\b" + identifier + "\\b.*")) {
+					expected.add(identifier);
+				}
+			}
+			assertEquals(identifiers + " in " + text, expected, new IdentifiersMatcher(identifiers).findReferences(text));
+		}
+	}
+
+	private static String randomString(Random random, String alphabet, int length) {
+		StringBuilder string = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			string.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		}
+		return string.toString();
+	}
+
+	private static Set<String> set(String... identifiers) {
+		return new HashSet<String>(Arrays.asList(identifiers));
+	}
+}
@@ -1,13 +1,11 @@
 package br.ufpe.cin.parser;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 
 import br.ufpe.cin.app.JFSTMerge;
-import br.ufpe.cin.files.FilesManager;
+import br.ufpe.cin.files.FileContent;
 import br.ufpe.cin.generated.Java18MergeParser;
 import cide.gparser.OffsetCharStream;
 import cide.gparser.ParseException;
@@ -34,12 +32,25 @@ public class JParser {
 	 * @throws UnsupportedEncodingException 
 	 */
 	public FSTNode parse(File javaFile) throws FileNotFoundException, UnsupportedEncodingException, ParseException, TokenMgrError  {
+		return parse(javaFile, FileContent.read(javaFile));
+	}
+
+	/**
+	 * Parses a given .java file whose content was already read.
+	 * @param javaFile
+	 * @param content of the file
+	 * @return ast representing the java file
+	 * @throws ParseException 
+	 * @throws FileNotFoundException 
+	 * @throws UnsupportedEncodingException 
+	 */
+	public FSTNode parse(File javaFile, FileContent content) throws FileNotFoundException, UnsupportedEncodingException, ParseException, TokenMgrError  {
 		FSTFeatureNode generatedAst = new FSTFeatureNode("");//root node
-		if(isValidFile(javaFile)){
+		if(isValidFile(javaFile, content)){
 			if(!JFSTMerge.isGit){
 				System.out.println("Parsing: " + javaFile.getAbsolutePath());
 			}
-			Java18MergeParser parser = new Java18MergeParser(new OffsetCharStream(new InputStreamReader(new FileInputStream(javaFile),"UTF8")));
+			Java18MergeParser parser = new Java18MergeParser(new OffsetCharStream(content.newReader()));
 			parser.CompilationUnit(false);
 			generatedAst.addChild(new FSTNonTerminal("Java-File", javaFile.getName()));
 			generatedAst.addChild(parser.getRoot());
@@ -50,13 +61,14 @@ public class JParser {
 	/**
 	 * Checks if the given file is adequate for parsing.
 	 * @param file to be parsed
+	 * @param content of the file
 	 * @return true if the file is appropriated, or false
 	 * @throws FileNotFoundException 
 	 * @throws ParseException 
 	 */
-	private boolean isValidFile(File file) throws FileNotFoundException, ParseException 
+	private boolean isValidFile(File file, FileContent content) throws FileNotFoundException, ParseException 
 	{
-		if(FilesManager.readFileContent(file).isEmpty()){
+		if(content.getText().isEmpty()){
 			throw new FileNotFoundException();
 		} else if(file != null && (isJavaFile(file) || JFSTMerge.isGit)){
 			return true;
@@ -5,6 +5,7 @@ import java.util.List;
 
 import br.ufpe.cin.app.JFSTMerge;
 import br.ufpe.cin.exceptions.PrintException;
+import br.ufpe.cin.exceptions.TextualMergeException;
 import br.ufpe.cin.files.FilesManager;
 import br.ufpe.cin.files.FilesTuple;
 import br.ufpe.cin.generated.SimplePrintVisitor;
@@ -54,8 +55,8 @@ public final class Prettyprinter {
 	}
 
 	/**
-	 * Prints the merged code result of both unstructured and semistructured merge in the given
-	 * output file.
+	 * Prints the merged code result of semistructured merge in the given output file.
+	 * The unstructured merge output is also printed, with the <i>.merge</i> extension, when requested with <i>--unstructured-output</i>.
 	 * @param context
 	 * @param outputFilePath of the merged file. 
 	 * @throws PrintException in case cannot write output file.
@@ -66,9 +67,14 @@ public final class Prettyprinter {
 			String semistructuredOutputFilePath 	= outputFilePath;
 			String semistructuredMergeOutputContent = context.semistructuredOutput;
 			boolean writeSucceed = FilesManager.writeContent(semistructuredOutputFilePath, semistructuredMergeOutputContent);
-			if(writeSucceed && !JFSTMerge.isGit){
+			if(writeSucceed && JFSTMerge.writeUnstructuredOutput && !JFSTMerge.isGit){
 				String unstructuredOutputFilePath  		= outputFilePath +".merge"; 
-				String unstructuredMergeOutputContent 	= context.unstructuredOutput;
+				String unstructuredMergeOutputContent;
+				try {
+					unstructuredMergeOutputContent = context.getUnstructuredOutput(); //in production, unstructured merge may not have run yet
+				} catch (TextualMergeException e) {
+					throw new PrintException(e.getMessage());
+				}
 				writeSucceed = FilesManager.writeContent(unstructuredOutputFilePath, unstructuredMergeOutputContent);
 			}
 			if(!writeSucceed){
@@ -0,0 +1,198 @@
+package br.ufpe.cin.printers;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import br.ufpe.cin.mergers.SemistructuredMerge;
+
+/**
+ * Layout (indentation) of the original versions of a merged file, used to lay out the code printed from the merged tree.
+ * The printer keeps the content of the tree terminals, but not the indentation of their first line,
+ * nor of the code printed around them. Instead of parsing the printed code again to pretty print it,
+ * each printed line takes the indentation it has in the original versions, so unchanged code keeps its original layout.
+ * Only lines not found in the original versions, found with different indentations, or printed at another nesting level,
+ * as merged or conflicting code, are indented according to their nesting level, with the indentation unit of the original versions.
+ */
+public final class SourceLayout {
+
+	private static final String DEFAULT_INDENTATION_UNIT = "\t";
+
+	//original indentation and nesting level of each trimmed line
+	private final Map<String, String> indentations = new HashMap<String, String>();
+	private final Map<String, Integer> depths = new HashMap<String, Integer>();
+
+	//trimmed lines found with different indentations, or at different nesting levels, in the original versions
+	private final Set<String> ambiguousLines = new HashSet<String>();
+
+	private String indentationUnit = null;
+
+	/**
+	 * Collects the layout of the given original versions of a file.
+	 * @param sources content of the original versions (left, base and right), empty in case of missing versions.
+	 * @return layout of the original versions
+	 */
+	public static SourceLayout of(String... sources) {
+		SourceLayout layout = new SourceLayout();
+		for (String source : sources) {
+			if (source != null && !source.isEmpty()) {
+				layout.collect(source);
+			}
+		}
+		if (layout.indentationUnit == null) {
+			layout.indentationUnit = DEFAULT_INDENTATION_UNIT;
+		}
+		return layout;
+	}
+
+	private void collect(String source) {
+		CodeScanner scanner = new CodeScanner();
+		int lineStart = 0;
+		while (lineStart <= source.length()) {
+			int lineEnd = source.indexOf('\n', lineStart);
+			if (lineEnd < 0) {
+				lineEnd = source.length();
+			}
+			String line = source.substring(lineStart, lineEnd);
+			String trimmed = line.trim();
+			if (!trimmed.isEmpty()) {
+				String indentation = line.substring(0, line.indexOf(trimmed.charAt(0)));
+				String known = indentations.putIfAbsent(trimmed, indentation);
+				Integer knownDepth = depths.putIfAbsent(trimmed, scanner.depth);
+				if (known != null && (!known.equals(indentation) || knownDepth.intValue() != scanner.depth)) {
+					ambiguousLines.add(trimmed);
+				}
+				//the indentation of the first member of a type gives the indentation unit
+				if (indentationUnit == null && scanner.depth == 1 && !scanner.inBlockComment && !indentation.isEmpty() && trimmed.charAt(0) != '}') {
+					indentationUnit = indentation;
+				}
+				scanner.scan(trimmed);
+			}
+			lineStart = lineEnd + 1;
+		}
+	}
+
+	/**
+	 * Indents the given printed code with the layout of the original versions.
+	 * Conflict markers are placed at the beginning of the line, as git does.
+	 * @param printedCode code printed from the merged tree
+	 * @return indented code
+	 */
+	public String indent(String printedCode) {
+		StringBuilder indented = new StringBuilder(printedCode.length() + printedCode.length() / 4);
+		CodeScanner scanner = new CodeScanner();
+
+		//nesting levels of the conflict being indented, each side of a conflict starts at the same level
+		int conflictStartDepth = -1;
+		int conflictMineEndDepth = -1;
+
+		int lineStart = 0;
+		while (lineStart <= printedCode.length()) {
+			int lineEnd = printedCode.indexOf('\n', lineStart);
+			boolean lastLine = lineEnd < 0;
+			if (lastLine) {
+				lineEnd = printedCode.length();
+			}
+			String trimmed = printedCode.substring(lineStart, lineEnd).trim();
+
+			if (trimmed.startsWith(SemistructuredMerge.DIFF3MERGE_SEPARATOR)) {
+				conflictStartDepth = scanner.depth;
+				conflictMineEndDepth = -1;
+				indented.append(trimmed);
+			} else if (conflictStartDepth >= 0 && (trimmed.startsWith(SemistructuredMerge.DIFF3MERGE_BASE) || trimmed.startsWith("======="))) {
+				if (conflictMineEndDepth < 0) {
+					conflictMineEndDepth = scanner.depth;
+				}
+				scanner.depth = conflictStartDepth;
+				indented.append(trimmed);
+			} else if (conflictStartDepth >= 0 && trimmed.startsWith(SemistructuredMerge.DIFF3MERGE_END)) {
+				if (conflictMineEndDepth >= 0) {
+					scanner.depth = conflictMineEndDepth;
+				}
+				conflictStartDepth = -1;
+				indented.append(trimmed);
+			} else if (!trimmed.isEmpty()) {
+				indented.append(indentationOf(trimmed, scanner)).append(trimmed);
+				scanner.scan(trimmed);
+			}
+
+			if (!lastLine) {
+				indented.append('\n');
+			}
+			lineStart = lineEnd + 1;
+		}
+		return indented.toString();
+	}
+
+	private String indentationOf(String trimmedLine, CodeScanner scanner) {
+		String known = indentations.get(trimmedLine);
+		if (known != null && !ambiguousLines.contains(trimmedLine) && depths.get(trimmedLine).intValue() == scanner.depth) {
+			return known;
+		}
+		int level = scanner.depth;
+		if (!scanner.inBlockComment && trimmedLine.charAt(0) == '}') {
+			level--;
+		}
+		if (scanner.parenthesesDepth > 0) {
+			level += 2; //continuation of a statement or declaration split in lines
+		}
+		StringBuilder indentation = new StringBuilder();
+		for (int i = 0; i < level; i++) {
+			indentation.append(indentationUnit);
+		}
+		if (scanner.inBlockComment && trimmedLine.charAt(0) == '*') {
+			indentation.append(' ');
+		}
+		return indentation.toString();
+	}
+
+	/**
+	 * Tracks the nesting level of code lines, ignoring braces and parentheses in comments, strings and characters.
+	 */
+	private static final class CodeScanner {
+		private int depth = 0;
+		private int parenthesesDepth = 0;
+		private boolean inBlockComment = false;
+
+		void scan(String line) {
+			int length = line.length();
+			for (int i = 0; i < length; i++) {
+				char c = line.charAt(i);
+				if (inBlockComment) {
+					if (c == '*' && i + 1 < length && line.charAt(i + 1) == '/') {
+						inBlockComment = false;
+						i++;
+					}
+				} else if (c == '/' && i + 1 < length && line.charAt(i + 1) == '/') {
+					return;
+				} else if (c == '/' && i + 1 < length && line.charAt(i + 1) == '*') {
+					inBlockComment = true;
+					i++;
+				} else if (c == '"' || c == '\'') {
+					i = skipLiteral(line, i, c);
+				} else if (c == '{') {
+					depth++;
+				} else if (c == '}') {
+					depth = Math.max(0, depth - 1);
+				} else if (c == '(') {
+					parenthesesDepth++;
+				} else if (c == ')') {
+					parenthesesDepth = Math.max(0, parenthesesDepth - 1);
+				}
+			}
+		}
+
+		private static int skipLiteral(String line, int start, char quote) {
+			for (int i = start + 1; i < line.length(); i++) {
+				char c = line.charAt(i);
+				if (c == '\\') {
+					i++;
+				} else if (c == quote) {
+					return i;
+				}
+			}
+			return line.length();
+		}
+	}
+}
@@ -0,0 +1,220 @@
+package br.ufpe.cin.printers.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import br.ufpe.cin.printers.SourceLayout;
+
+/**
+ * The printer loses the indentation of the merged code, so printed code is given here with its lines trimmed.
+ */
+public class SourceLayoutTest {
+
+	@Test
+	public void testCleanMergeKeepsOriginalIndentation() {
+		String base = "public class B {\n"
+				+ "  private int[] values = {1,\n"
+				+ "                          2};\n"
+				+ "\n"
+				+ "  /**\n"
+				+ "   * Sum of {@code a} and {@code b}.\n"
+				+ "   */\n"
+				+ "  public int sum(int a,\n"
+				+ "                 int b) {\n"
+				+ "    return a\n"
+				+ "        + b;\n"
+				+ "  }\n"
+				+ "}";
+		assertEquals(base, SourceLayout.of(base).indent(trim(base)));
+
+		String left = base.replace("  private int[] values", "  private int count;\n  private int[] values");
+		String right = base.replace("        + b;", "        + b + 1;");
+		String merged = left.replace("        + b;", "        + b + 1;");
+		assertEquals(merged, SourceLayout.of(left, base, right).indent(trim(merged)));
+	}
+
+	@Test
+	public void testConflictMarkersAtFirstColumn() {
+		String base = "public class A {\n"
+				+ "\tvoid m() {\n"
+				+ "\t\tint a;\n"
+				+ "\t}\n"
+				+ "}";
+		String printed = "public class A {\n"
+				+ "void m() {\n"
+				+ "  <<<<<<< MINE\n"
+				+ "if (x) {\n"
+				+ "int b;\n"
+				+ "\t||||||| BASE\n"
+				+ "int a;\n"
+				+ "    =======\n"
+				+ "while (y) {\n"
+				+ "int c;\n"
+				+ "\t\t>>>>>>> YOURS\n"
+				+ "}\n"
+				+ "}\n"
+				+ "}";
+		String expected = "public class A {\n"
+				+ "\tvoid m() {\n"
+				+ "<<<<<<< MINE\n"
+				+ "\t\tif (x) {\n"
+				+ "\t\t\tint b;\n"
+				+ "||||||| BASE\n"
+				+ "\t\tint a;\n"
+				+ "=======\n"
+				+ "\t\twhile (y) {\n"
+				+ "\t\t\tint c;\n"
+				+ ">>>>>>> YOURS\n"
+				+ "\t\t}\n"
+				+ "\t}\n"
+				+ "}";
+		assertEquals(expected, SourceLayout.of(base).indent(printed));
+	}
+
+	@Test
+	public void testConflictWithoutBase() {
+		String base = "class A {\n"
+				+ "  int a;\n"
+				+ "}";
+		String printed = "class A {\n"
+				+ "<<<<<<< MINE\n"
+				+ "int b;\n"
+				+ "=======\n"
+				+ "void c() {}\n"
+				+ ">>>>>>> YOURS\n"
+				+ "}";
+		String expected = "class A {\n"
+				+ "<<<<<<< MINE\n"
+				+ "  int b;\n"
+				+ "=======\n"
+				+ "  void c() {}\n"
+				+ ">>>>>>> YOURS\n"
+				+ "}";
+		assertEquals(expected, SourceLayout.of(base).indent(printed));
+	}
+
+	@Test
+	public void testRepeatedAmbiguousLines() {
+		//"return;" and "}" are found with different indentations, "x++;" always with the same one, at the same nesting level
+		String left = "class A {\n"
+				+ "\tvoid m() {\n"
+				+ "\t\tif (a) {\n"
+				+ "\t\t\treturn;\n"
+				+ "\t\t}\n"
+				+ "\t\tx++;\n"
+				+ "\t}\n"
+				+ "}";
+		String right = "class A {\n"
+				+ "\tvoid m() {\n"
+				+ "\t\treturn;\n"
+				+ "\t}\n"
+				+ "\tvoid n() {\n"
+				+ "\t\tx++;\n"
+				+ "\t}\n"
+				+ "}";
+		String printed = "class A {\n"
+				+ "void m() {\n"
+				+ "if (a) {\n"
+				+ "return;\n"
+				+ "}\n"
+				+ "x++;\n"
+				+ "return;\n"
+				+ "}\n"
+				+ "void n() {\n"
+				+ "while (b) {\n"
+				+ "x++;\n"
+				+ "return;\n"
+				+ "}\n"
+				+ "}\n"
+				+ "}";
+		String expected = "class A {\n"
+				+ "\tvoid m() {\n"
+				+ "\t\tif (a) {\n"
+				+ "\t\t\treturn;\n"
+				+ "\t\t}\n"
+				+ "\t\tx++;\n"
+				+ "\t\treturn;\n"
+				+ "\t}\n"
+				+ "\tvoid n() {\n"
+				+ "\t\twhile (b) {\n"
+				+ "\t\t\tx++;\n" //printed one level deeper than in the original versions
+				+ "\t\t\treturn;\n"
+				+ "\t\t}\n"
+				+ "\t}\n"
+				+ "}";
+		assertEquals(expected, SourceLayout.of(left, "", right).indent(printed));
+	}
+
+	@Test
+	public void testLineOfOneVersionAtOtherDepth() {
+		String left = "class A {\n"
+				+ "\tint a;\n"
+				+ "}";
+		String printed = "class A {\n"
+				+ "void m() {\n"
+				+ "int a;\n"
+				+ "}\n"
+				+ "int a;\n"
+				+ "}";
+		String expected = "class A {\n"
+				+ "\tvoid m() {\n"
+				+ "\t\tint a;\n"
+				+ "\t}\n"
+				+ "\tint a;\n"
+				+ "}";
+		assertEquals(expected, SourceLayout.of(left, "", "").indent(printed));
+	}
+
+	@Test
+	public void testBracesInCommentsStringsAndCharacters() {
+		String base = "class A {\n"
+				+ "    void m() {\n"
+				+ "    }\n"
+				+ "}";
+		String printed = "class A {\n"
+				+ "void m() {\n"
+				+ "String s = \"{\";\n"
+				+ "char c = '}';\n"
+				+ "char d = '\\'';\n"
+				+ "String t = \"\\\"{(\";\n"
+				+ "/* { */\n"
+				+ "/*\n"
+				+ "* }\n"
+				+ "* \"\n"
+				+ "*/\n"
+				+ "// {\n"
+				+ "int i;\n"
+				+ "}\n"
+				+ "}";
+		String expected = "class A {\n"
+				+ "    void m() {\n"
+				+ "        String s = \"{\";\n"
+				+ "        char c = '}';\n"
+				+ "        char d = '\\'';\n"
+				+ "        String t = \"\\\"{(\";\n"
+				+ "        /* { */\n"
+				+ "        /*\n"
+				+ "         * }\n"
+				+ "         * \"\n"
+				+ "         */\n"
+				+ "        // {\n"
+				+ "        int i;\n"
+				+ "    }\n"
+				+ "}";
+		assertEquals(expected, SourceLayout.of(base).indent(printed));
+	}
+
+	@Test
+	public void testDefaultIndentationUnit() {
+		assertEquals("class A {\n\tint a;\n}", SourceLayout.of("", null).indent("class A {\nint a;\n}"));
+	}
+
+	private static String trim(String code) {
+		StringBuilder trimmed = new StringBuilder();
+		for (String line : code.split("\n", -1)) {
+			trimmed.append(trimmed.length() > 0 ? "\n" : "").append(line.trim());
+		}
+		return trimmed.toString();
+	}
+}
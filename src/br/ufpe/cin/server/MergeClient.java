@@ -0,0 +1,168 @@
+package br.ufpe.cin.server;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import br.ufpe.cin.app.JFSTMerge;
+
+/**
+ * Thin launcher of file merges, meant to be the command invoked by git as merge driver:
+ * <i>java -cp jFSTMerge.jar br.ufpe.cin.server.MergeClient -f %A %O %B -o %A -g</i>.
+ * It sends the merge to a running {@link MergeServer}, so the merge runs in an already warm JVM.
+ * If there is no server, it starts one in background for the next merges, with the same merge options, and merges in this JVM,
+ * as it also does in case of any failure talking to the server, of a server with other merge options, or of options other than files merge.
+ */
+public final class MergeClient {
+
+	private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+
+	public static void main(String[] args) {
+		System.exit(merge(args));
+	}
+
+	/**
+	 * Merges as the given command line options request, by the server when possible.
+	 * @param args command line options of {@link JFSTMerge}
+	 * @return exit code of the merge, as {@link JFSTMerge#run(String[])}.
+	 */
+	public static int merge(String[] args) {
+		Integer result = null;
+		Request request = Request.of(args);
+		if (request != null) {
+			File serverFile = serverFile();
+			if (serverFile.exists()) {
+				result = requestMerge(serverFile, request);
+			} else {
+				startServer(request.options);
+			}
+		}
+		if (result == null) {
+			//merging in this JVM
+			result = new JFSTMerge().run(args);
+		} else if (result == MergeServer.MERGE_ERROR) {
+			System.err.println("An error occurred. See " + new File(serverFile().getParentFile(), "jfstmerge.log") + " file for more details.\n Send the log to gjcc@cin.ufpe.br for analysis if preferable.");
+		}
+		return result;
+	}
+
+	/**
+	 * File where the running server publishes its port and access token.
+	 * It is only readable by its owner.
+	 */
+	public static File serverFile() {
+		return new File(System.getProperty("user.home") + File.separator + ".jfstmerge" + File.separator + "jfstmerge.server");
+	}
+
+	/**
+	 * Asks the server to merge the given files.
+	 * @return exit code of the merge, {@link MergeServer#MERGE_ERROR}, or <b>null</b> in case the server did not perform the merge.
+	 */
+	private static Integer requestMerge(File serverFile, Request request) {
+		try {
+			List<String> server = Files.readAllLines(serverFile.toPath(), StandardCharsets.UTF_8);
+			int port = Integer.parseInt(server.get(0));
+			String token = server.get(1);
+			try (Socket socket = new Socket()) {
+				socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), CONNECT_TIMEOUT_MILLIS);
+				DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+				out.writeUTF(token);
+				for (String path : request.paths) {
+					out.writeUTF(path);
+				}
+				out.writeInt(request.options.size());
+				for (String option : request.options) {
+					out.writeUTF(option);
+				}
+				out.flush();
+				int answer = new DataInputStream(socket.getInputStream()).readInt();
+				return (answer == MergeServer.OPTIONS_MISMATCH) ? null : answer;
+			}
+		} catch (ConnectException e) {
+			//server file left by a server that did not stop properly
+			serverFile.delete();
+			startServer(request.options);
+			return null;
+		} catch (Exception e) {
+			//stale server file or server stopped in the middle of the merge
+			return null;
+		}
+	}
+
+	/**
+	 * Starts a server in background with the same classpath of this launcher, and the given merge options.
+	 */
+	private static void startServer(List<String> options) {
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		List<String> command = new ArrayList<String>();
+		command.add(java);
+		command.add("-Duser.home=" + System.getProperty("user.home"));
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(MergeServer.class.getName());
+		command.addAll(options);
+		ProcessBuilder builder = new ProcessBuilder(command);
+		builder.redirectOutput(new File(nullDevice()));
+		builder.redirectError(new File(nullDevice()));
+		try {
+			builder.start();
+		} catch (IOException e) {
+			//merging without server
+		}
+	}
+
+	private static String nullDevice() {
+		return System.getProperty("os.name").contains("Windows") ? "NUL" : "/dev/null";
+	}
+
+	/**
+	 * Merge request: left, base, right and output absolute paths, and the other merge options.
+	 */
+	private static final class Request {
+		private final String[] paths = new String[4];
+		private final List<String> options = new ArrayList<String>();
+
+		/**
+		 * Converts the command line options into a merge request.
+		 * The git option (<i>-g</i>) is not a merge option, as the server always serves git,
+		 * neither is the number of threads (<i>-j</i>), only used to merge directories.
+		 * @return the request, or <b>null</b> in case the options are not a valid files merge.
+		 */
+		private static Request of(String[] args) {
+			Request request = new Request();
+			boolean isFilesMerge = false;
+			String output = "";
+			for (int i = 0; i < args.length; i++) {
+				if (args[i].equals("-f") && i + 3 < args.length && !isFilesMerge) {
+					isFilesMerge = true;
+					for (int j = 0; j < 3; j++) {
+						File file = new File(args[++i]);
+						if (!file.isFile()) {
+							return null;
+						}
+						request.paths[j] = file.getAbsolutePath();
+					}
+				} else if (args[i].equals("-o") && i + 1 < args.length) {
+					output = new File(args[++i]).getAbsolutePath();
+				} else if (args[i].equals("-d") || args[i].equals("-f") || args[i].equals("--rebuild-summary")) {
+					return null;
+				} else if (args[i].equals("-j")) {
+					i++;
+				} else if (!args[i].equals("-g")) {
+					request.options.add(args[i]);
+				}
+			}
+			request.paths[3] = output;
+			return isFilesMerge ? request : null;
+		}
+	}
+}
@@ -0,0 +1,248 @@
+package br.ufpe.cin.server;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import br.ufpe.cin.app.JFSTMerge;
+import br.ufpe.cin.logging.LoggerFactory;
+import br.ufpe.cin.mergers.util.MergeContext;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+
+/**
+ * Long-lived local server of file merges, requested by the {@link MergeClient} launcher.
+ * It avoids paying the JVM startup, the loading of the parser, compiler and merge libraries,
+ * and the JIT warmup for each file merged by git. The server only listens to the loopback interface,
+ * only accepts requests with the token published in its server file, merges at most
+ * {@link JFSTMerge#numberOfThreads} files at a time, and stops when idle.
+ * The server is started with the merge options of the launcher that started it, such as <i>-p</i>,
+ * and only merges requests with the same options, as the options are global to the JVM.
+ * It neither merges while the options of its JVM differ from the ones it was started with,
+ * as when it runs in the JVM of other merges.
+ * As merges run by git without server, served merges compute and log statistics, unless the server is started with <i>-p</i>.
+ * Errors while merging a file are answered to the launcher, and do not stop the server.
+ * <p>
+ * A request is the access token, the left, base, right and output paths, the number of merge options and the options,
+ * all strings written with {@link DataOutputStream#writeUTF(String)}, but the number of options, written with
+ * {@link DataOutputStream#writeInt(int)}. The answer is an int: the exit code of the merge, {@link #MERGE_ERROR} or {@link #OPTIONS_MISMATCH}.
+ * Requests with an invalid token are closed with no answer.
+ */
+public final class MergeServer {
+
+	//log of activities
+	private static final Logger LOGGER = LoggerFactory.make();
+
+	/**
+	 * Answer of a merge that failed. The launcher finishes with this exit code, as a merge in its own JVM would.
+	 */
+	public static final int MERGE_ERROR = -1;
+
+	/**
+	 * Answer of a request with merge options other than the options of the server. The launcher merges in its own JVM.
+	 */
+	public static final int OPTIONS_MISMATCH = -2;
+
+	//command line options
+	@Parameter(names = "-idle", description = "Minutes without merge requests before the server stops. Optional. Default is 30.")
+	int idleMinutes = 30;
+
+	private final AtomicInteger runningMerges = new AtomicInteger();
+
+	//merge options of the server, that is, its command line options but the server ones (-idle and -j)
+	private List<String> options = new ArrayList<String>();
+
+	//values of the merge options of the JVM when the server started
+	private List<Object> optionValues;
+
+	private String token;
+
+	public static void main(String[] args) {
+		MergeServer server = new MergeServer();
+		JFSTMerge merger = new JFSTMerge();
+		JCommander commandLineOptions = new JCommander(new Object[] {server, merger});
+		try {
+			commandLineOptions.parse(args);
+			if (server.idleMinutes < 1 || JFSTMerge.numberOfThreads < 1) {
+				throw new ParameterException("Invalid idle time or number of threads. Inform 1 or more.");
+			}
+			server.options = mergeOptions(args);
+		} catch (ParameterException pe) {
+			System.err.println(pe.getMessage());
+			commandLineOptions.setProgramName("MergeServer");
+			commandLineOptions.usage();
+			System.exit(-1);
+		}
+		//the server serves git, so merged code is only written in the output files
+		JFSTMerge.isGit = true;
+		server.serve();
+		System.exit(0);
+	}
+
+	/**
+	 * @return the given command line options, but the server ones: idle time and number of threads.
+	 */
+	private static List<String> mergeOptions(String[] args) {
+		List<String> options = new ArrayList<String>(Arrays.asList(args));
+		for (String serverOption : Arrays.asList("-idle", "-j")) {
+			int i = options.indexOf(serverOption);
+			if (i >= 0) {
+				options.subList(i, Math.min(i + 2, options.size())).clear();
+			}
+		}
+		return options;
+	}
+
+	/**
+	 * Accepts merge requests until the server is idle for {@link #idleMinutes}.
+	 */
+	public void serve() {
+		optionValues = optionValues();
+		ExecutorService executor = Executors.newFixedThreadPool(JFSTMerge.numberOfThreads);
+		File serverFile = MergeClient.serverFile();
+		try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+			serverSocket.setSoTimeout(idleMinutes * 60 * 1000);
+			publish(serverFile, serverSocket.getLocalPort());
+			//removing the server file also when the JVM is finished by other means
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> unpublish(serverFile)));
+			while (true) {
+				try {
+					Socket socket = serverSocket.accept();
+					runningMerges.incrementAndGet();
+					executor.execute(() -> {
+						try {
+							handle(socket);
+						} finally {
+							runningMerges.decrementAndGet();
+						}
+					});
+				} catch (SocketTimeoutException e) {
+					if (runningMerges.get() == 0) {
+						break;
+					}
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("An error occurred. See " + LoggerFactory.logfile + " file for more details.\n Send the log to gjcc@cin.ufpe.br for analysis if preferable.");
+			LOGGER.log(Level.SEVERE, "", e);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Merges the files of one request, answering the exit code of the merge: 0 for clean merges and 1 for conflicting merges.
+	 */
+	private void handle(Socket socket) {
+		try (Socket s = socket) {
+			DataInputStream in = new DataInputStream(s.getInputStream());
+			String requestToken = in.readUTF();
+			if (!MessageDigest.isEqual(requestToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+				LOGGER.log(Level.WARNING, "Merge request with invalid token refused.");
+				return;
+			}
+			File left  = new File(in.readUTF());
+			File base  = new File(in.readUTF());
+			File right = new File(in.readUTF());
+			String outputFilePath = in.readUTF();
+			List<String> requestOptions = new ArrayList<String>();
+			for (int i = in.readInt(); i > 0; i--) {
+				requestOptions.add(in.readUTF());
+			}
+
+			DataOutputStream out = new DataOutputStream(s.getOutputStream());
+			out.writeInt(merge(left, base, right, outputFilePath, requestOptions));
+			out.flush();
+		} catch (IOException e) {
+			//the client merges by itself when it does not get an answer
+			LOGGER.log(Level.WARNING, "", e);
+		}
+	}
+
+	/**
+	 * @return the answer to the request.
+	 */
+	private int merge(File left, File base, File right, String outputFilePath, List<String> requestOptions) {
+		if (!requestOptions.equals(options) || !optionValues().equals(optionValues)) {
+			return OPTIONS_MISMATCH;
+		}
+		if (!left.isFile() || !base.isFile() || !right.isFile()) { //validated here, as invalid files finish the JVM
+			LOGGER.log(Level.SEVERE, "Merge request with missing files: " + left + ", " + base + ", " + right);
+			return MERGE_ERROR;
+		}
+		try {
+			MergeContext context = new JFSTMerge().mergeFiles(left, base, right, outputFilePath);
+			return context.getSemistructuredMergeConflicts().isEmpty() ? 0 : 1;
+		} catch (Exception e) {
+			LOGGER.log(Level.SEVERE, "", e);
+			return MERGE_ERROR;
+		}
+	}
+
+	/**
+	 * @return the values of the merge options, global to the JVM.
+	 */
+	private static List<Object> optionValues() {
+		return Arrays.<Object>asList(JFSTMerge.isGit, JFSTMerge.isCryptographed, JFSTMerge.logFiles, JFSTMerge.useGitMergeFile,
+				JFSTMerge.isProduction, JFSTMerge.echoOutput, JFSTMerge.writeUnstructuredOutput, JFSTMerge.profile);
+	}
+
+	/**
+	 * Writes the port and a random access token of the server in a file readable only by its owner.
+	 */
+	private void publish(File serverFile, int port) throws IOException {
+		byte[] random = new byte[32];
+		new SecureRandom().nextBytes(random);
+		StringBuilder hex = new StringBuilder();
+		for (byte b : random) {
+			hex.append(String.format("%02x", b));
+		}
+		token = hex.toString();
+
+		File tmp = new File(serverFile.getPath() + "." + port);
+		tmp.getParentFile().mkdirs();
+		tmp.createNewFile();
+		tmp.setReadable(false, false);
+		tmp.setWritable(false, false);
+		tmp.setReadable(true, true);
+		tmp.setWritable(true, true);
+		Files.write(tmp.toPath(), (port + "\n" + token + "\n").getBytes(StandardCharsets.UTF_8));
+		if (!tmp.renameTo(serverFile)) {
+			serverFile.delete();
+			tmp.renameTo(serverFile);
+		}
+	}
+
+	/**
+	 * Removes the server file, unless it was already replaced by another server.
+	 */
+	private void unpublish(File serverFile) {
+		try {
+			List<String> published = Files.readAllLines(serverFile.toPath(), StandardCharsets.UTF_8);
+			if (published.size() > 1 && published.get(1).equals(token)) {
+				serverFile.delete();
+			}
+		} catch (IOException e) {
+			//already removed
+		}
+	}
+}
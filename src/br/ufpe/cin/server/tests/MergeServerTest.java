@@ -0,0 +1,212 @@
+package br.ufpe.cin.server.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import br.ufpe.cin.app.JFSTMerge;
+import br.ufpe.cin.logging.LoggerStatistics;
+import br.ufpe.cin.server.MergeClient;
+import br.ufpe.cin.server.MergeServer;
+
+/**
+ * Runs a {@link MergeServer} in the test JVM, with a temporary user home, so its server file does not replace the one of a running server.
+ * Files are text files, merged by the textual merge.
+ */
+public class MergeServerTest {
+
+	private static String userHome;
+	private static File home;
+	private static File left;
+	private static File base;
+	private static File right;
+	private static File conflictingRight;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		//hidding sysout output
+		PrintStream hideStream    = new PrintStream(new OutputStream(){
+		    public void write(int b) {}
+		});
+		System.setOut(hideStream);
+
+		userHome = System.getProperty("user.home");
+		home = Files.createTempDirectory("jfstmerge-server").toFile();
+		System.setProperty("user.home", home.getAbsolutePath());
+
+		base  = write("base.txt", "a\nb\nc\n");
+		left  = write("left.txt", "a1\nb\nc\n");
+		right = write("right.txt", "a\nb\nc1\n");
+		conflictingRight = write("conflictingright.txt", "a2\nb\nc\n");
+
+		Thread server = new Thread(() -> new MergeServer().serve());
+		server.setDaemon(true);
+		server.start();
+		for (int i = 0; i < 100 && MergeClient.serverFile().length() == 0; i++) {
+			Thread.sleep(100);
+		}
+		assertTrue(MergeClient.serverFile().length() > 0);
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() throws Exception {
+		LoggerStatistics.flush();
+		System.setProperty("user.home", userHome);
+		FileUtils.deleteQuietly(home);
+	}
+
+	@After
+	public void tearDown() {
+		//options of the launcher merging in the test JVM
+		JFSTMerge.isGit = false;
+		JFSTMerge.isProduction = false;
+		JFSTMerge.logFiles = true;
+	}
+
+	@Test
+	public void testCleanMergeRequest() throws Exception {
+		File output = new File(home, "clean.txt");
+		assertEquals(0, request(token(), right, Collections.<String>emptyList(), output));
+		assertEquals("a1\nb\nc1", FileUtils.readFileToString(output).trim());
+	}
+
+	@Test
+	public void testConflictingMergeRequest() throws Exception {
+		File output = new File(home, "conflicting.txt");
+		assertEquals(1, request(token(), conflictingRight, Collections.<String>emptyList(), output));
+		assertTrue(FileUtils.readFileToString(output).contains("<<<<<<< MINE"));
+	}
+
+	@Test
+	public void testInvalidTokenRefused() throws Exception {
+		File output = new File(home, "refused.txt");
+		try {
+			request(invalid(token()), right, Collections.<String>emptyList(), output);
+			fail("request with invalid token answered");
+		} catch (EOFException e) {
+			//closed with no answer
+		}
+		assertFalse(output.exists());
+	}
+
+	@Test
+	public void testOtherOptionsNotMerged() throws Exception {
+		File output = new File(home, "otheroptions.txt");
+		assertEquals(MergeServer.OPTIONS_MISMATCH, request(token(), right, Arrays.asList("-p"), output));
+		assertFalse(output.exists());
+	}
+
+	@Test
+	public void testOptionsChangedInTheServerJVMNotMerged() throws Exception {
+		File output = new File(home, "changedoptions.txt");
+		JFSTMerge.logFiles = false; //as set by a merge with -l false in the same JVM
+		assertEquals(MergeServer.OPTIONS_MISMATCH, request(token(), right, Collections.<String>emptyList(), output));
+		assertFalse(output.exists());
+
+		JFSTMerge.logFiles = true;
+		assertEquals(0, request(token(), right, Collections.<String>emptyList(), output));
+	}
+
+	@Test
+	public void testMergeErrorKeepsServerRunning() throws Exception {
+		File directory = new File(home, "directory");
+		directory.mkdirs();
+		assertEquals(MergeServer.MERGE_ERROR, request(token(), right, Collections.<String>emptyList(), directory));
+
+		File output = new File(home, "aftererror.txt");
+		assertEquals(0, request(token(), right, Collections.<String>emptyList(), output));
+		assertTrue(output.isFile());
+	}
+
+	@Test
+	public void testClientMergesByServer() throws Exception {
+		File output = new File(home, "client.txt");
+		String[] args = Arrays.copyOf(args(conflictingRight, output), 7);
+		args[6] = "-g";
+		assertEquals(1, MergeClient.merge(args));
+		assertTrue(FileUtils.readFileToString(output).contains("<<<<<<< MINE"));
+		assertFalse(JFSTMerge.isGit); //options not parsed by this JVM
+	}
+
+	@Test
+	public void testClientFallbackWithOtherOptions() throws Exception {
+		File output = new File(home, "clientotheroptions.txt");
+		String[] args = Arrays.copyOf(args(right, output), 7);
+		args[6] = "-p";
+		assertEquals(0, MergeClient.merge(args));
+		assertEquals("a1\nb\nc1", FileUtils.readFileToString(output).trim());
+		assertTrue(JFSTMerge.isProduction); //merged by this JVM
+	}
+
+	@Test
+	public void testClientFallbackWithInvalidToken() throws Exception {
+		File serverFile = MergeClient.serverFile();
+		List<String> published = Files.readAllLines(serverFile.toPath(), StandardCharsets.UTF_8);
+		try {
+			Files.write(serverFile.toPath(), (published.get(0) + "\n" + invalid(published.get(1)) + "\n").getBytes(StandardCharsets.UTF_8));
+			File output = new File(home, "clientinvalidtoken.txt");
+			assertEquals(0, MergeClient.merge(args(right, output)));
+			assertEquals("a1\nb\nc1", FileUtils.readFileToString(output).trim());
+		} finally {
+			Files.write(serverFile.toPath(), (published.get(0) + "\n" + published.get(1) + "\n").getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private static String[] args(File right, File output) {
+		return new String[] {"-f", left.getAbsolutePath(), base.getAbsolutePath(), right.getAbsolutePath(), "-o", output.getAbsolutePath()};
+	}
+
+	private static int request(String token, File right, List<String> options, File output) throws IOException {
+		List<String> published = Files.readAllLines(MergeClient.serverFile().toPath(), StandardCharsets.UTF_8);
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(published.get(0)))) {
+			DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+			out.writeUTF(token);
+			out.writeUTF(left.getAbsolutePath());
+			out.writeUTF(base.getAbsolutePath());
+			out.writeUTF(right.getAbsolutePath());
+			out.writeUTF(output.getAbsolutePath());
+			out.writeInt(options.size());
+			for (String option : options) {
+				out.writeUTF(option);
+			}
+			out.flush();
+			return new DataInputStream(socket.getInputStream()).readInt();
+		}
+	}
+
+	private static String invalid(String token) {
+		return (token.charAt(0) == '0' ? '1' : '0') + token.substring(1);
+	}
+
+	private static String token() throws IOException {
+		return Files.readAllLines(MergeClient.serverFile().toPath(), StandardCharsets.UTF_8).get(1);
+	}
+
+	private static File write(String name, String content) throws IOException {
+		File file = new File(home, name);
+		FileUtils.write(file, content);
+		return file;
+	}
+}
@@ -0,0 +1,176 @@
+package br.ufpe.cin.statistics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import br.ufpe.cin.files.ContentFingerprint;
+import br.ufpe.cin.mergers.util.MergeConflict;
+
+/**
+ * Comparison of the unstructured and semistructured merge conflicts of a merged file, computed once and shared
+ * by the statistics. Two conflicts are equivalent when, ignoring whitespace, each side of one contains or is contained
+ * by the same side of the other.
+ * The sides of each conflict are normalized once. Conflicts with equal sides are joined through a hash lookup,
+ * and only conflicts preceding such an exact match are compared one by one, after a cheap check of the characters
+ * of their sides, which rejects most of the pairs that cannot contain one another.
+ */
+final class ConflictsComparison {
+
+	private final List<MergeConflict> unstructuredMergeConflicts;
+	private final List<MergeConflict> semistructuredMergeConflicts;
+
+	//for each unstructured conflict, the index of the first equivalent semistructured conflict, or -1
+	private final int[] firstEquivalentSemistructured;
+
+	//for each semistructured conflict, if there is an equivalent unstructured conflict
+	private final boolean[] equivalentUnstructured;
+
+	ConflictsComparison(List<MergeConflict> unstructuredMergeConflicts, List<MergeConflict> semistructuredMergeConflicts) {
+		this.unstructuredMergeConflicts = unstructuredMergeConflicts;
+		this.semistructuredMergeConflicts = semistructuredMergeConflicts;
+
+		List<Sides> unstructured = sides(unstructuredMergeConflicts);
+		List<Sides> semistructured = sides(semistructuredMergeConflicts);
+		Map<Long, List<Integer>> unstructuredByContent = byContent(unstructured);
+		Map<Long, List<Integer>> semistructuredByContent = byContent(semistructured);
+
+		firstEquivalentSemistructured = new int[unstructured.size()];
+		equivalentUnstructured = new boolean[semistructured.size()];
+		for (int i = 0; i < unstructured.size(); i++) {
+			int j = firstEquivalent(unstructured.get(i), semistructured, semistructuredByContent);
+			firstEquivalentSemistructured[i] = j;
+			if (j >= 0) {
+				equivalentUnstructured[j] = true;
+			}
+		}
+		for (int j = 0; j < semistructured.size(); j++) {
+			if (!equivalentUnstructured[j]) {
+				equivalentUnstructured[j] = firstEquivalent(semistructured.get(j), unstructured, unstructuredByContent) >= 0;
+			}
+		}
+	}
+
+	/**
+	 * @return number of unstructured conflicts with an equivalent semistructured conflict.
+	 */
+	int getNumberOfEqualConflicts() {
+		int equalConflicts = 0;
+		for (int j : firstEquivalentSemistructured) {
+			if (j >= 0) {
+				equalConflicts++;
+			}
+		}
+		return equalConflicts;
+	}
+
+	/**
+	 * @param unstructuredConflictIndex
+	 * @return first semistructured conflict equivalent to the given unstructured conflict, or <b>null</b> if there is none.
+	 */
+	MergeConflict getEquivalentSemistructuredConflict(int unstructuredConflictIndex) {
+		int j = firstEquivalentSemistructured[unstructuredConflictIndex];
+		return (j >= 0) ? semistructuredMergeConflicts.get(j) : null;
+	}
+
+	/**
+	 * @param semistructuredConflictIndex
+	 * @return <b>true</b> if there is an unstructured conflict equivalent to the given semistructured conflict, <b>false</b> otherwise.
+	 */
+	boolean hasEquivalentUnstructuredConflict(int semistructuredConflictIndex) {
+		return equivalentUnstructured[semistructuredConflictIndex];
+	}
+
+	List<MergeConflict> getUnstructuredMergeConflicts() {
+		return unstructuredMergeConflicts;
+	}
+
+	List<MergeConflict> getSemistructuredMergeConflicts() {
+		return semistructuredMergeConflicts;
+	}
+
+	/**
+	 * @return index of the first conflict of the given ones equivalent to the given conflict, or -1 if there is none.
+	 */
+	private static int firstEquivalent(Sides conflict, List<Sides> others, Map<Long, List<Integer>> othersByContent) {
+		int exactMatch = others.size();
+		List<Integer> sameContent = othersByContent.get(conflict.key());
+		if (sameContent != null) {
+			for (int j : sameContent) {
+				if (conflict.hasEqualSides(others.get(j))) {
+					exactMatch = j;
+					break;
+				}
+			}
+		}
+		for (int j = 0; j < exactMatch; j++) {
+			if (conflict.isEquivalentTo(others.get(j))) {
+				return j;
+			}
+		}
+		return (exactMatch < others.size()) ? exactMatch : -1;
+	}
+
+	private static List<Sides> sides(List<MergeConflict> conflicts) {
+		List<Sides> sides = new ArrayList<Sides>(conflicts.size());
+		for (MergeConflict conflict : conflicts) {
+			sides.add(new Sides(conflict));
+		}
+		return sides;
+	}
+
+	private static Map<Long, List<Integer>> byContent(List<Sides> conflicts) {
+		Map<Long, List<Integer>> byContent = new HashMap<Long, List<Integer>>(conflicts.size() * 2);
+		for (int i = 0; i < conflicts.size(); i++) {
+			byContent.computeIfAbsent(conflicts.get(i).key(), key -> new ArrayList<Integer>(1)).add(i);
+		}
+		return byContent;
+	}
+
+	/**
+	 * Normalized sides of a conflict, with the set of characters of each side.
+	 */
+	private static final class Sides {
+		private final ContentFingerprint left;
+		private final ContentFingerprint right;
+		private final long leftCharacters;
+		private final long rightCharacters;
+
+		Sides(MergeConflict conflict) {
+			left = ContentFingerprint.of(conflict.left);
+			right = ContentFingerprint.of(conflict.right);
+			leftCharacters = characters(left.getNormalized());
+			rightCharacters = characters(right.getNormalized());
+		}
+
+		long key() {
+			return left.getHash() * 31 + right.getHash();
+		}
+
+		boolean hasEqualSides(Sides other) {
+			return left.isEquivalentTo(other.left) && right.isEquivalentTo(other.right);
+		}
+
+		boolean isEquivalentTo(Sides other) {
+			return mayContainOneAnother(leftCharacters, other.leftCharacters) && mayContainOneAnother(rightCharacters, other.rightCharacters)
+					&& (left.contains(other.left) || other.left.contains(left))
+					&& (right.contains(other.right) || other.right.contains(right));
+		}
+
+		/**
+		 * A content only contains another if it has all characters of the other.
+		 */
+		private static boolean mayContainOneAnother(long characters, long otherCharacters) {
+			return (characters & otherCharacters) == characters || (characters & otherCharacters) == otherCharacters;
+		}
+
+		private static long characters(String content) {
+			long characters = 0;
+			for (int i = 0; i < content.length(); i++) {
+				characters |= 1L << (content.charAt(i) & 63);
+			}
+			return characters;
+		}
+	}
+}
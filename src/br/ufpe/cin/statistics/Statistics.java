@@ -3,13 +3,10 @@ package br.ufpe.cin.statistics;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.StringReader;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import br.ufpe.cin.files.FilesManager;
 import br.ufpe.cin.files.FilesTuple;
 import br.ufpe.cin.logging.LoggerStatistics;
 import br.ufpe.cin.mergers.util.MergeConflict;
@@ -30,8 +27,8 @@ public final class Statistics {
 	 * @throws Exception 
 	 */
 	public static void compute(MergeContext context) throws Exception{
-		List<MergeConflict> semistructuredMergeConflicts  = FilesManager.extractMergeConflicts(context.semistructuredOutput);
-		List<MergeConflict> unstructuredMergeConflits	  = FilesManager.extractMergeConflicts(context.unstructuredOutput);
+		List<MergeConflict> semistructuredMergeConflicts  = context.getSemistructuredMergeConflicts();
+		List<MergeConflict> unstructuredMergeConflits	  = context.getUnstructuredMergeConflicts();
 
 		context.semistructuredNumberOfConflicts = computeNumberOfConflicts(semistructuredMergeConflicts);
 		context.unstructuredNumberOfConflicts   = computeNumberOfConflicts(unstructuredMergeConflits);
@@ -39,7 +36,9 @@ public final class Statistics {
 		context.semistructuredMergeConflictsLOC = computeConflictsLOC(semistructuredMergeConflicts);
 		context.unstructuredMergeConflictsLOC   = computeConflictsLOC(unstructuredMergeConflits);
 
-		context.equalConflicts = computeEqualConflicts(unstructuredMergeConflits,semistructuredMergeConflicts);
+		//conflicts are compared once, for both the number of equal conflicts and the log of different conflicts
+		ConflictsComparison comparison = new ConflictsComparison(unstructuredMergeConflits, semistructuredMergeConflicts);
+		context.equalConflicts = comparison.getNumberOfEqualConflicts();
 
 		context.orderingConflicts = (context.unstructuredNumberOfConflicts  - context.semistructuredNumberOfConflicts) 
 				+  context.duplicatedDeclarationErrors 
@@ -69,7 +68,7 @@ public final class Statistics {
 				+ "," + context.orderingConflicts
 				+ "," + context.equalConflicts;
 
-		computeDifferentConflicts(context);		
+		computeDifferentConflicts(context, comparison);
 		LoggerStatistics.logContext(loggermsg,context);
 
 	}
@@ -153,63 +152,34 @@ public final class Statistics {
 		return conflictsloc;
 	}
 
-	/**
-	 * Calculates textually equal conflicts from given list of unstructured and semistructured merge conflicts.
-	 * @param unstructuredMergeConflits
-	 * @param semistructuredMergeConflicts
-	 * @return number of equal conflicts
-	 */
-	private static int computeEqualConflicts(List<MergeConflict> unstructuredMergeConflits,	List<MergeConflict> semistructuredMergeConflicts) {
-		int equalconfs = 0;
-		for(MergeConflict mctxt : unstructuredMergeConflits ){
-			for(MergeConflict mcssm : semistructuredMergeConflicts){
-				if(areEquivalentConflicts(mctxt,mcssm)){equalconfs++;break;}
-			}
-		}
-		return equalconfs;
-	}
-
 	/**
 	 * Computes and print textually equal and different conflicts from a given merge context/merged file. 
-	 * @param scenario
+	 * @param context
+	 * @param comparison of the unstructured and semistructured merge conflicts of the merged file
 	 * @throws IOException 
 	 */
-	private static void computeDifferentConflicts(MergeContext context) throws IOException {
-		Deque<MergeConflict> semistructuredMergeConflicts  = new ArrayDeque<MergeConflict>();
-		semistructuredMergeConflicts.addAll(FilesManager.extractMergeConflicts(context.semistructuredOutput));
-
-		Deque<MergeConflict> unstructuredMergeConflits = new ArrayDeque<MergeConflict>();
-		unstructuredMergeConflits.addAll(FilesManager.extractMergeConflicts(context.unstructuredOutput));
+	private static void computeDifferentConflicts(MergeContext context, ConflictsComparison comparison) throws IOException {
+		List<MergeConflict> semistructuredMergeConflicts = comparison.getSemistructuredMergeConflicts();
+		List<MergeConflict> unstructuredMergeConflits 	 = comparison.getUnstructuredMergeConflicts();
 
 		List<MergeConflict> differentUnstructuredMergeConflicts = new ArrayList<MergeConflict>();
 		List<MergeConflict> differentSemistructuredMergeConflicts = new ArrayList<MergeConflict>();
 		List<MergeConflict> equalMergeConflicts = new ArrayList<MergeConflict>();
 
-
-		for(MergeConflict confa : unstructuredMergeConflits){
+		for(int i = 0; i < unstructuredMergeConflits.size(); i++){
+			MergeConflict confa = unstructuredMergeConflits.get(i);
 			confa.setOriginFiles(context.getLeft(), context.getBase(), context.getRight());
-			boolean found = false;
-			for(MergeConflict confb : semistructuredMergeConflicts){
-				if(areEquivalentConflicts(confa,confb)){
-					equalMergeConflicts.add(confb); //or confa
-					found = true;
-					break;
-				}
-			}
-			if(!found){
+			MergeConflict confb = comparison.getEquivalentSemistructuredConflict(i);
+			if(confb != null){
+				equalMergeConflicts.add(confb); //or confa
+			} else {
 				differentUnstructuredMergeConflicts.add(confa);
 			}
 		}
-		for(MergeConflict confa : semistructuredMergeConflicts){
+		for(int i = 0; i < semistructuredMergeConflicts.size(); i++){
+			MergeConflict confa = semistructuredMergeConflicts.get(i);
 			confa.setOriginFiles(context.getLeft(), context.getBase(), context.getRight());
-			boolean found = false;
-			for(MergeConflict confb : unstructuredMergeConflits){
-				if(areEquivalentConflicts(confa,confb)){
-					found = true;
-					break;
-				}
-			}
-			if(!found){
+			if(!comparison.hasEquivalentUnstructuredConflict(i)){
 				differentSemistructuredMergeConflicts.add(confa);
 			}
 		}
@@ -218,25 +188,4 @@ public final class Statistics {
 		LoggerStatistics.logConflicts(differentUnstructuredMergeConflicts,Source.UNSTRUCTURED);
 		LoggerStatistics.logConflicts(differentSemistructuredMergeConflicts,Source.SEMISTRUCTURED);
 	}
-
-
-	private static boolean areEquivalentConflicts(MergeConflict confa, MergeConflict confb) {
-		/*	
-		String bodya = FilesManager.getStringContentIntoSingleLineNoSpacing(confa.left + confa.right);
-		String bodyb = FilesManager.getStringContentIntoSingleLineNoSpacing(confb.left + confb.right);
-		if(bodya.equals(bodyb)){
-			return true;
-		}
-		 */
-
-		String bodylefta = FilesManager.getStringContentIntoSingleLineNoSpacing(confa.left);
-		String bodyleftb = FilesManager.getStringContentIntoSingleLineNoSpacing(confb.left);
-		String bodyrighta = FilesManager.getStringContentIntoSingleLineNoSpacing(confa.right);
-		String bodyrightb = FilesManager.getStringContentIntoSingleLineNoSpacing(confb.right);
-		if((bodylefta.contains(bodyleftb) || bodyleftb.contains(bodylefta))	&& (bodyrighta.contains(bodyrightb) || bodyrightb.contains(bodyrighta))){
-			return true;
-		}
-		return false;
-	}
-
 }